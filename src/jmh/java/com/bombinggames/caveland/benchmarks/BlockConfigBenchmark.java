@@ -0,0 +1,179 @@
+package com.bombinggames.caveland.benchmarks;
+
+import com.bombinggames.caveland.game.CavelandBlocks;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Block property lookups as done while ray marching (transparency) and
+ * rendering (sides and obstacles). The old if chains are kept here as
+ * baseline.
+ *
+ * @author Benedikt Vogler
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BlockConfigBenchmark {
+
+	/**
+	 * ids found in a typical cave and base
+	 */
+	private static final byte[] IDS = new byte[]{0, 0, 0, 2, 2, 3, 11, 12, 13, 14, 16, 17, 17, 41, 42, 43, 44, 52, 54, 55, 56, 60, 72};
+
+	private CavelandBlocks config;
+	private final byte[] ids = new byte[4096];
+	private final byte[] values = new byte[4096];
+
+	/**
+	 *
+	 */
+	@Setup
+	public void setup() {
+		config = new CavelandBlocks();
+		Random random = new Random(42);
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = IDS[random.nextInt(IDS.length)];
+			values[i] = (byte) random.nextInt(4);
+		}
+	}
+
+	/**
+	 * the ray march predicate
+	 *
+	 * @return
+	 */
+	@Benchmark
+	public int rayMarchTable() {
+		int transparent = 0;
+		for (int i = 0; i < ids.length; i++) {
+			if (config.isTransparent(ids[i], values[i])) {
+				transparent++;
+			}
+		}
+		return transparent;
+	}
+
+	/**
+	 *
+	 * @return
+	 */
+	@Benchmark
+	public int rayMarchChain() {
+		int transparent = 0;
+		for (int i = 0; i < ids.length; i++) {
+			if (chainTransparent(ids[i], values[i])) {
+				transparent++;
+			}
+		}
+		return transparent;
+	}
+
+	/**
+	 * lookups per rendered cell
+	 *
+	 * @return
+	 */
+	@Benchmark
+	public int renderTable() {
+		int result = 0;
+		for (int i = 0; i < ids.length; i++) {
+			if (config.hasSides(ids[i], values[i])) {
+				result++;
+			}
+			if (config.isTransparent(ids[i], values[i])) {
+				result += 2;
+			}
+			if (ids[i] >= 10 && config.isObstacle(ids[i], values[i])) {
+				result += 4;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 *
+	 * @return
+	 */
+	@Benchmark
+	public int renderChain() {
+		int result = 0;
+		for (int i = 0; i < ids.length; i++) {
+			if (chainSides(ids[i], values[i])) {
+				result++;
+			}
+			if (chainTransparent(ids[i], values[i])) {
+				result += 2;
+			}
+			if (ids[i] >= 10 && chainObstacle(ids[i], values[i])) {
+				result += 4;
+			}
+		}
+		return result;
+	}
+
+	private static boolean chainSides(byte id, byte value) {
+		if (id == 17 && value > 0) {
+			return true;
+		}
+		switch (id) {
+			case 11:
+			case 12:
+			case 13:
+			case 14:
+			case 15:
+			case 17:
+			case 52:
+			case 53:
+			case 54:
+			case 55:
+			case 56:
+			case 60:
+			case 72:
+				return false;
+			default:
+				return true;
+		}
+	}
+
+	private static boolean chainObstacle(byte id, byte value) {
+		if (id==12) return true;
+		if (id==13) return false;
+		if (id==14) return true;
+		if (id == 16 && value == 1) return true;
+		if (id==17) return true;
+		if (id==18) return true;
+		if (id==11) return false;
+		if (id>=41 && id<=44)//ores
+			return true;
+		if (id==72) return true;
+		if (id==46) return true;
+		if (id==52) return true;
+		if (id==60) return true;
+		return false;
+	}
+
+	private static boolean chainTransparent(byte id, byte value) {
+		if (id==12) return true;
+		if (id==13) return true;
+		if (id==14) return true;
+		if (id==15) return true;
+		if (id==17 && value==0) return true;
+		if (id==11) return true;
+		if (id==52) return true;
+		if (id==53) return true;
+		if (id==54) return true;
+		if (id==55) return true;
+		if (id==56) return true;
+		if (id==60) return true;
+		if (id==72) return true;
+		return false;
+	}
+}
@@ -0,0 +1,104 @@
+package com.bombinggames.caveland.benchmarks;
+
+import com.bombinggames.caveland.game.ChunkGenerator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Generates a chunk sized volume in the underworld. Covers the per block
+ * generator calls which happen when a chunk is created.
+ *
+ * @author Benedikt Vogler
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChunkGeneratorBenchmark {
+
+	/**
+	 * roughly the size of a chunk
+	 */
+	private static final int SIZE_X = 10;
+	private static final int SIZE_Y = 40;
+	private static final int SIZE_Z = 10;
+
+	private ChunkGenerator generator;
+	private int startX;
+	private int startY;
+	private final int[] blocks = new int[SIZE_X * SIZE_Y * SIZE_Z];
+
+	/**
+	 *
+	 */
+	@Setup
+	public void setup() {
+		generator = new ChunkGenerator();
+		startX = 20;
+		startY = ChunkGenerator.GENERATORBORDER + 40;
+	}
+
+	/**
+	 *
+	 * @param bh
+	 */
+	@Benchmark
+	public void generateChunk(Blackhole bh) {
+		for (int x = startX; x < startX + SIZE_X; x++) {
+			for (int y = startY; y < startY + SIZE_Y; y++) {
+				for (int z = 0; z < SIZE_Z; z++) {
+					bh.consume(generator.generate(x, y, z));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Same volume as {@link #generateChunk(Blackhole)} using the bulk API.
+	 *
+	 * @return
+	 */
+	@Benchmark
+	public int[] generateChunkBulk() {
+		ChunkGenerator.generateChunk(startX, startY, 0, SIZE_X, SIZE_Y, SIZE_Z, blocks);
+		return blocks;
+	}
+
+	/**
+	 *
+	 * @param bh
+	 */
+	@Benchmark
+	public void insideOutside(Blackhole bh) {
+		for (int x = startX; x < startX + SIZE_X; x++) {
+			for (int y = startY; y < startY + SIZE_Y; y++) {
+				for (int z = 0; z < SIZE_Z; z++) {
+					bh.consume(ChunkGenerator.insideOutside(x, y, z));
+				}
+			}
+		}
+	}
+
+	/**
+	 * The spawning itself needs a map so only the test where to spawn is
+	 * measured.
+	 *
+	 * @param bh
+	 */
+	@Benchmark
+	public void spawnEntitiesCheck(Blackhole bh) {
+		for (int x = startX; x < startX + SIZE_X; x++) {
+			for (int y = startY; y < startY + SIZE_Y; y++) {
+				for (int z = 0; z < SIZE_Z; z++) {
+					bh.consume(ChunkGenerator.isExitPortalPosition(x, y, z));
+				}
+			}
+		}
+	}
+}
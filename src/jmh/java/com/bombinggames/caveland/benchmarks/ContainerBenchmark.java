@@ -0,0 +1,113 @@
+package com.bombinggames.caveland.benchmarks;
+
+import com.bombinggames.caveland.gameobjects.collectibles.Collectible;
+import com.bombinggames.caveland.gameobjects.collectibles.CollectibleContainer;
+import com.bombinggames.caveland.gameobjects.collectibles.CollectibleType;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Lookups in a filled container. The content is added to the list directly
+ * because {@link CollectibleContainer#add(Collectible)} needs a map to spawn
+ * the items.
+ *
+ * @author Benedikt Vogler
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ContainerBenchmark {
+
+	/**
+	 * amount of items in the container
+	 */
+	@Param({"3", "100"})
+	public int items;
+
+	/**
+	 * store only the amounts
+	 */
+	@Param({"false", "true"})
+	public boolean compact;
+
+	private CollectibleContainer container;
+
+	/**
+	 *
+	 */
+	@Setup
+	public void setup() {
+		container = new CollectibleContainer((byte) 56);
+		CollectibleType[] types = CollectibleType.values();
+		//the searched type is at the end
+		for (int i = 0; i < items - 1; i++) {
+			CollectibleType type = types[i % types.length];
+			if (type == CollectibleType.Ironore) {
+				type = CollectibleType.Wood;
+			}
+			container.getContent().add(type.createInstance());
+		}
+		container.getContent().add(CollectibleType.Ironore.createInstance());
+		if (compact) {
+			container.enableCompactStorage();
+		}
+	}
+
+	/**
+	 * How the oven burns ore. Only different from retrieving if compact.
+	 *
+	 * @return
+	 */
+	@Benchmark
+	public boolean consume() {
+		boolean consumed = container.consume(CollectibleType.Ironore);
+		if (compact) {
+			container.add(CollectibleType.Ironore.createInstance());
+		} else {
+			container.getContent().add(CollectibleType.Ironore.createInstance());
+		}
+		return consumed;
+	}
+
+	/**
+	 *
+	 * @return
+	 */
+	@Benchmark
+	public int count() {
+		return container.count(CollectibleType.Ironore);
+	}
+
+	/**
+	 *
+	 * @return
+	 */
+	@Benchmark
+	public Collectible getCollectible() {
+		return container.getCollectible(CollectibleType.Ironore);
+	}
+
+	/**
+	 * Takes the item out and puts it back so that the container stays the
+	 * same.
+	 *
+	 * @return
+	 */
+	@Benchmark
+	public Collectible retrieveCollectible() {
+		Collectible collectible = container.retrieveCollectible(CollectibleType.Ironore);
+		if (compact) {
+			container.add(collectible);
+		} else {
+			container.getContent().add(collectible);
+		}
+		return collectible;
+	}
+}
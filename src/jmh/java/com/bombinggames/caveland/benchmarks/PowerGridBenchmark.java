@@ -0,0 +1,118 @@
+package com.bombinggames.caveland.benchmarks;
+
+import com.bombinggames.caveland.gameobjects.logicblocks.CableBlock;
+import com.bombinggames.caveland.gameobjects.logicblocks.PowerNetwork;
+import com.bombinggames.wurfelengine.core.map.Coordinate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Power lookups and grid changes in a square field of cables with a single
+ * power source in the corner. The cables are not placed in a map, only
+ * registered in the {@link PowerNetwork}.
+ *
+ * @author Benedikt Vogler
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PowerGridBenchmark {
+
+	/**
+	 * edge length of the grid
+	 */
+	@Param({"8", "32"})
+	public int size;
+
+	private GridCable[][] grid;
+	private PowerNetwork network;
+
+	/**
+	 *
+	 */
+	@Setup
+	public void setup() {
+		network = PowerNetwork.getInstance();
+		network.clear();
+		grid = new GridCable[size][size];
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				grid[x][y] = new GridCable(new Coordinate(x, y, 0), x == 0 && y == 0);
+				network.add(grid[x][y]);
+			}
+		}
+	}
+
+	/**
+	 * Every cable asks for power once, like in a frame.
+	 *
+	 * @return
+	 */
+	@Benchmark
+	public int hasPowerAll() {
+		int powered = 0;
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (grid[x][y].hasPower()) {
+					powered++;
+				}
+			}
+		}
+		return powered;
+	}
+
+	/**
+	 * Destroys and rebuilds a cable in the middle. Removing floods the rest of
+	 * the grid.
+	 *
+	 * @return
+	 */
+	@Benchmark
+	public boolean removeAndAdd() {
+		GridCable cable = grid[size / 2][size / 2];
+		network.remove(cable);
+		network.add(cable);
+		return grid[size - 1][size - 1].hasPower();
+	}
+
+	/**
+	 * A cable connected in every direction at a fixed position.
+	 */
+	private static class GridCable extends CableBlock {
+
+		private final Coordinate position;
+		private final boolean source;
+
+		GridCable(Coordinate position, boolean source) {
+			this.position = position;
+			this.source = source;
+		}
+
+		@Override
+		public Coordinate getPosition() {
+			return position;
+		}
+
+		@Override
+		public boolean isPowerSource() {
+			return source;
+		}
+
+		@Override
+		public boolean outgoingConnection(int id) {
+			return true;
+		}
+
+		@Override
+		public boolean isValid() {
+			return true;
+		}
+	}
+}
@@ -0,0 +1,172 @@
+package com.bombinggames.caveland.benchmarks;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.math.Vector3;
+import com.bombinggames.caveland.gameobjects.RailSegment;
+import com.bombinggames.wurfelengine.core.map.rendering.RenderCell;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The rail math of one frame of mine carts: orientation, position on the
+ * track and ramps. The old switch which allocated vectors is kept here as
+ * baseline. Run with <i>-prof gc</i>, <i>gc.alloc.rate.norm</i> of
+ * {@link #table()} must be 0 B/op. This does not cover the rest of
+ * MineCart.update, which needs a map and the engine. The booster lookup, the
+ * collision check in front and the rolling animation use scratch objects
+ * there too.
+ *
+ * @author Benedikt Vogler
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RailBenchmark {
+
+	/**
+	 * amount of carts
+	 */
+	@Param({"100", "2000"})
+	public int carts;
+
+	private byte[] values;
+	private float[] relX;
+	private float[] relY;
+	private float[] relZ;
+	private float[] movementX;
+	private float[] movementY;
+	private final Vector2 orientation = new Vector2();
+	private final Vector3 track = new Vector3();
+
+	/**
+	 *
+	 */
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		values = new byte[carts];
+		relX = new float[carts];
+		relY = new float[carts];
+		relZ = new float[carts];
+		movementX = new float[carts];
+		movementY = new float[carts];
+		for (int i = 0; i < carts; i++) {
+			values[i] = (byte) random.nextInt(10);
+			relX[i] = (random.nextFloat() - 0.5f) * RenderCell.GAME_DIAGLENGTH;
+			relY[i] = (random.nextFloat() - 0.5f) * RenderCell.GAME_DIAGLENGTH2;
+			relZ[i] = random.nextFloat() * RenderCell.GAME_EDGELENGTH;
+			movementX[i] = random.nextFloat() * 2 - 1;
+			movementY[i] = random.nextFloat() * 2 - 1;
+		}
+	}
+
+	/**
+	 * with the rail segment table and scratch vectors
+	 *
+	 * @return
+	 */
+	@Benchmark
+	public float table() {
+		float sum = 0;
+		for (int i = 0; i < carts; i++) {
+			RailSegment segment = RailSegment.get(values[i]);
+			if (segment.orient(movementX[i], movementY[i], relX[i], relY[i], orientation)) {
+				sum += orientation.x;
+			}
+			if (segment.getShape() == RailSegment.STRAIGHT) {
+				sum += segment.straightY(relX[i]);
+			} else if (segment.snapToCurve(relX[i], relY[i], relZ[i], track)) {
+				sum += track.x + track.y;
+			}
+			if (segment.isRamp()) {
+				if (segment.jumps(movementX[i], movementY[i])) {
+					track.set(movementX[i], movementY[i], 0).nor();
+					track.z = 0.8f;
+					sum += track.nor().z;
+				}
+				if (segment.rollDown(movementX[i], orientation)) {
+					sum += orientation.y;
+				}
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * the switch as it was in MineCart.update
+	 *
+	 * @return
+	 */
+	@Benchmark
+	public float allocating() {
+		float sum = 0;
+		for (int i = 0; i < carts; i++) {
+			byte value = values[i];
+			float mx = movementX[i];
+			float my = movementY[i];
+			Vector2 orient = null;
+			switch (value) {
+				case 0:
+				case 6:
+					orient = new Vector2(my >= 0 && mx <= 0 ? -1 : 1, my >= 0 && mx <= 0 ? 1 : -1).nor();
+					sum += -relX[i];
+					break;
+				case 1:
+				case 7:
+					orient = new Vector2(my >= 0 && mx >= 0 ? 1 : -1, my >= 0 && mx >= 0 ? 1 : -1).nor();
+					sum += relX[i];
+					break;
+				case 3:
+				case 5:
+					orient = new Vector2(0, my > 0 || (my == 0 && relY[i] < 0) ? 1 : -1).nor();
+					int offset = value == 5 ? 1 : -1;
+					Vector3 circularVec = new Vector3(relX[i], relY[i], relZ[i]).sub(
+						new Vector3(offset * RenderCell.GAME_DIAGLENGTH2, 0, 0)
+					).nor().scl(RenderCell.GAME_EDGELENGTH2);
+					circularVec.add(offset * RenderCell.GAME_DIAGLENGTH2, 0, 0);
+					sum += circularVec.x + circularVec.y;
+					break;
+				case 2:
+				case 4:
+					orient = new Vector2(mx > 0 || (mx == 0 && relX[i] < 0) ? 1 : -1, 0).nor();
+					offset = value == 4 ? -1 : 1;
+					circularVec = new Vector3(relX[i], relY[i], relZ[i]).sub(
+						new Vector3(0, offset * RenderCell.GAME_DIAGLENGTH2, 0)
+					).nor().scl(RenderCell.GAME_EDGELENGTH2);
+					circularVec.add(0, offset * RenderCell.GAME_DIAGLENGTH2, 0);
+					sum += circularVec.x + circularVec.y;
+					break;
+			}
+			if (orient != null) {
+				sum += orient.x;
+			}
+			if (value == 6 && mx > 0
+				|| value == 7 && my < 0
+				|| value == 8 && mx < 0
+				|| value == 9 && my > 0) {
+				sum += new Vector3(new Vector2(mx, my).nor(), 0.8f).nor().z;
+			}
+			if (value == 6 && mx <= 0) {
+				sum += new Vector2(-1, 1).nor().y;
+			}
+			if (value == 7 && mx >= 0) {
+				sum += new Vector2(1, 1).nor().y;
+			}
+			if (value == 8 && mx >= 0) {
+				sum += new Vector2(1, -1).nor().y;
+			}
+			if (value == 9 && mx <= 0) {
+				sum += new Vector2(-1, -1).nor().y;
+			}
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,56 @@
+package com.bombinggames.caveland.benchmarks;
+
+import com.bombinggames.caveland.game.CraftingRecipesList;
+import com.bombinggames.caveland.game.Recipe;
+import com.bombinggames.caveland.gameobjects.collectibles.CollectibleType;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Matches the known recipes against an inventory like the crafting dialogue
+ * does.
+ *
+ * @author Benedikt Vogler
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RecipeBenchmark {
+
+	private CraftingRecipesList recipes;
+	private CollectibleType[] inventory;
+
+	/**
+	 *
+	 */
+	@Setup
+	public void setup() {
+		recipes = new CraftingRecipesList();
+		inventory = new CollectibleType[]{
+			CollectibleType.Wood,
+			CollectibleType.Iron,
+			CollectibleType.Iron
+		};
+	}
+
+	/**
+	 *
+	 * @return amount of matching recipes
+	 */
+	@Benchmark
+	public int findMatchingRecipes() {
+		int matches = 0;
+		for (Recipe recipe : recipes) {
+			if (recipe.canCraft(inventory)) {
+				matches++;
+			}
+		}
+		return matches;
+	}
+}
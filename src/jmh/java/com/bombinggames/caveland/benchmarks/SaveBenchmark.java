@@ -0,0 +1,209 @@
+package com.bombinggames.caveland.benchmarks;
+
+import com.bombinggames.caveland.game.EntityCodec;
+import com.bombinggames.caveland.gameobjects.MineCart;
+import com.bombinggames.caveland.gameobjects.Robot;
+import com.bombinggames.caveland.gameobjects.collectibles.Collectible;
+import com.bombinggames.caveland.gameobjects.collectibles.CollectibleContainer;
+import com.bombinggames.caveland.gameobjects.collectibles.CollectibleType;
+import com.bombinggames.caveland.gameobjects.logicblocks.OvenLogic;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Saving and loading the content of a container with the java serialization
+ * as before and with the {@link EntityCodec}. The size of the written data is
+ * reported as secondary result.<br>
+ * The entity benchmarks save robots, mine carts, ovens and compact containers
+ * like the map does. Their fields are written with the codec by their
+ * serialisation hooks, run them on an older version to compare.
+ *
+ * @author Benedikt Vogler
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SaveBenchmark {
+
+	/**
+	 * amount of items
+	 */
+	@Param({"10", "200"})
+	public int items;
+
+	private ArrayList<Collectible> content;
+	private byte[] serialized;
+	private byte[] encoded;
+	private ArrayList<Object> entities;
+	private byte[] serializedEntities;
+	private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 16);
+
+	/**
+	 * Written bytes per operation.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Size {
+
+		/**
+		 *
+		 */
+		public long bytes;
+
+		/**
+		 *
+		 */
+		@Setup(Level.Iteration)
+		public void reset() {
+			bytes = 0;
+		}
+	}
+
+	/**
+	 *
+	 * @throws IOException
+	 */
+	@Setup
+	public void setup() throws IOException {
+		EntityCodec.register("Collectible", Collectible.class, Collectible.CODEC);
+		content = new ArrayList<>(items);
+		CollectibleType[] types = CollectibleType.values();
+		for (int i = 0; i < items; i++) {
+			content.add(types[i % types.length].createInstance());
+		}
+		writeSerialization(new Size());
+		serialized = buffer.toByteArray();
+		writeCodec(new Size());
+		encoded = buffer.toByteArray();
+
+		entities = new ArrayList<>(items);
+		for (int i = 0; i < items; i++) {
+			switch (i % 4) {
+				case 0:
+					entities.add(new Robot());
+					break;
+				case 1:
+					entities.add(new MineCart());
+					break;
+				case 2:
+					entities.add(new OvenLogic());
+					break;
+				default:
+					CollectibleContainer container = new CollectibleContainer((byte) 0);
+					container.enableCompactStorage();
+					for (int j = 0; j < 10; j++) {
+						container.add(types[j % types.length].createInstance());
+					}
+					entities.add(container);
+					break;
+			}
+		}
+		writeEntities(new Size());
+		serializedEntities = buffer.toByteArray();
+	}
+
+	/**
+	 *
+	 * @param size
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public int writeSerialization(Size size) throws IOException {
+		buffer.reset();
+		try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+			out.writeObject(content);
+		}
+		size.bytes += buffer.size();
+		return buffer.size();
+	}
+
+	/**
+	 *
+	 * @param size
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public int writeCodec(Size size) throws IOException {
+		buffer.reset();
+		try (DataOutputStream out = new DataOutputStream(buffer)) {
+			new EntityCodec.Writer(out).writeEntities(content);
+		}
+		size.bytes += buffer.size();
+		return buffer.size();
+	}
+
+	/**
+	 *
+	 * @return
+	 * @throws IOException
+	 * @throws ClassNotFoundException
+	 */
+	@Benchmark
+	public Object readSerialization() throws IOException, ClassNotFoundException {
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+			return in.readObject();
+		}
+	}
+
+	/**
+	 *
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public ArrayList<Collectible> readCodec() throws IOException {
+		ArrayList<Collectible> result = new ArrayList<>(items);
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+			new EntityCodec.Reader(in).readEntities(Collectible.class, result);
+		}
+		return result;
+	}
+
+	/**
+	 *
+	 * @param size
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public int writeEntities(Size size) throws IOException {
+		buffer.reset();
+		try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+			out.writeObject(entities);
+		}
+		size.bytes += buffer.size();
+		return buffer.size();
+	}
+
+	/**
+	 *
+	 * @return
+	 * @throws IOException
+	 * @throws ClassNotFoundException
+	 */
+	@Benchmark
+	public Object readEntities() throws IOException, ClassNotFoundException {
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serializedEntities))) {
+			return in.readObject();
+		}
+	}
+}
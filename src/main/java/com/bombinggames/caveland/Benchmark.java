@@ -1,6 +1,9 @@
 package com.bombinggames.caveland;
 
+import com.badlogic.gdx.ApplicationAdapter;
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
 import com.badlogic.gdx.ai.msg.Telegram;
 import static com.bombinggames.caveland.Caveland.VERSION;
 import com.bombinggames.caveland.gameobjects.Quadrocopter;
@@ -35,12 +38,31 @@ import java.util.logging.Logger;
 public class Benchmark {
 
 	/**
+	 * fixed timestep in ms used in headless mode
+	 */
+	private static final float HEADLESS_TIMESTEP = 1000f / 60f;
+
+	/**
+	 * Start with <i>--headless</i> to run the stages without a window and get
+	 * a JSON and CSV report with the frame time percentiles per stage. Nothing
+	 * is rendered then, so stage 1, which only adds a camera, is skipped. The
+	 * other stages keep their numbers.
+	 *
 	 * @param args the command line arguments
 	 */
 	public static void main(String[] args) {
 		Caveland.configureEngine();
 		//WE.getCVars().register(cvar, VERSION);
 		WE.getCVars().get("ignorePlayer").setValue(true);
+		for (String arg : args) {
+			if (arg.equals("--headless")) {
+				HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+				config.updatesPerSecond = -1;//as fast as possible, the timestep is fixed
+				new HeadlessApplication(new HeadlessBenchmark(HEADLESS_TIMESTEP), config);
+				return;
+			}
+		}
+		
 		WE.addPostLaunchCommands(() -> {
 			BenchmarkView view = new BenchmarkView();
 			WE.initAndStartGame(
@@ -53,16 +75,82 @@ public class Benchmark {
 		WE.launch("Caveland Benchmark " + VERSION, args);
 	}
 
+	/**
+	 * Drives the controller without a window. Every frame is simulated with
+	 * the same timestep so runs are comparable.
+	 */
+	private static class HeadlessBenchmark extends ApplicationAdapter {
+
+		private final float timestep;
+		private final BenchmarkReport report;
+		private BenchmarkController controller;
+
+		HeadlessBenchmark(float timestep) {
+			this.timestep = timestep;
+			this.report = new BenchmarkReport(timestep);
+		}
+
+		@Override
+		public void create() {
+			controller = new BenchmarkController(null);
+			controller.setTimestep(timestep);
+			controller.setReport(report);
+			controller.init("benchmark", 0);
+			controller.create();
+		}
+
+		@Override
+		public void render() {
+			boolean running = controller.getStageRunning();
+			int stage = controller.getStage();
+			long alloc = report.getAllocatedBytes();
+			long start = System.nanoTime();
+			controller.update(timestep);
+			long duration = System.nanoTime() - start;
+			if (running && controller.getStage() == stage) {
+				report.frame(stage, duration, alloc < 0 ? -1 : report.getAllocatedBytes() - alloc);
+			}
+			if (controller.isFinished()) {
+				Gdx.app.exit();
+			}
+		}
+
+		@Override
+		public void dispose() {
+			String name = "./benchmark" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HH_mm_ss"));
+			try {
+				report.writeJson(Paths.get(name + ".json"));
+				report.writeCsv(Paths.get(name + ".csv"));
+			} catch (IOException ex) {
+				Logger.getLogger(Benchmark.class.getName()).log(Level.SEVERE, null, ex);
+			}
+			controller.dispose();
+		}
+	}
+
 	private static class BenchmarkController extends Controller {
 
 		private float watch;
 		private BenchmarkMovement movement;
 		private int stage = -1;
+		/**
+		 * null if headless
+		 */
 		private final BenchmarkView view;
 		private Path logFile;
 		private int stageDistanceX;
 		private float initTime = 3;
 		private boolean stageRunning;
+		private boolean finished;
+		/**
+		 * in ms, if 0 the raw delta of the frame is used
+		 */
+		private float timestep;
+		private BenchmarkReport report;
+		/**
+		 * counts the updates, independent of the rendering
+		 */
+		private long frame;
 
 		BenchmarkController(BenchmarkView view) {
 			super();
@@ -71,6 +159,14 @@ public class Benchmark {
 			this.view = view;
 		}
 
+		private void setTimestep(float timestep) {
+			this.timestep = timestep;
+		}
+
+		private void setReport(BenchmarkReport report) {
+			this.report = report;
+		}
+
 		private AbstractEntity create() {
 			movement = new BenchmarkMovement(this);
 			movement.setColiding(false);
@@ -78,7 +174,9 @@ public class Benchmark {
 			movement.spawn(new Coordinate(0, 0, 4).toPoint());
 			
 			stageDistanceX = Chunk.getBlocksX() * 3;
-			getDevTools().setCapacity(12000);//1 minute at 5 ms/frame
+			if (getDevTools() != null) {
+				getDevTools().setCapacity(12000);//1 minute at 5 ms/frame
+			}
 			startStage();
 			return movement;
 		}
@@ -86,10 +184,13 @@ public class Benchmark {
 		@Override
 		public void update(float dt) {
 			super.update(dt);
-			float dts = Gdx.graphics.getRawDeltaTime();
+			frame++;
+			float dts = timestep > 0 ? timestep / 1000f : Gdx.graphics.getRawDeltaTime();
 
 			if (watch < initTime && watch + dts > initTime && stage <= 4) {
-				getDevTools().clear();
+				if (getDevTools() != null) {
+					getDevTools().clear();
+				}
 				stageRunning = true;
 				//start movement
 				int stageCenterY = stage < 2 ? Chunk.getBlocksY() * -2 : Chunk.getBlocksY() * 2;
@@ -102,37 +203,46 @@ public class Benchmark {
 
 			watch += dts;
 
-			long frameid = Gdx.graphics.getFrameId();
 			//cahnge map in stage 4 every 21 frames
-			if (stage >= 4 && frameid % 21 == 0) {
+			if (stage >= 4 && frame % 21 == 0) {
 				int stageCenterY = stage < 2 ? Chunk.getBlocksY() * -2 : Chunk.getBlocksY() * 2;
 				//modify block
 				for (int i = 0; i < stageDistanceX / 3; i++) {
 					for (int z = 0; z < Chunk.getBlocksZ(); z++) {
-						getMap().setBlock(new Coordinate(i * 3, stageCenterY, z), (byte) (2 - 2 * (frameid % 2)));
+						getMap().setBlock(new Coordinate(i * 3, stageCenterY, z), (byte) (2 - 2 * (frame % 2)));
 					}
 				}
 			}
 		}
 
 		private void endStage() {
-			recordResults();
+			if (report != null) {
+				report.endStage(stage);
+			}
+			if (getDevTools() != null) {
+				recordResults();
+			}
 
 			initTime = watch + 2;//add 2 seconds delay before the start
 			stageRunning = false;
 			//end after stage 4
 			if (stage == 4) {
 				movement.dispose();
+				finished = true;
 			}
 		}
 
 		private void startStage() {
 			if (stage < 4) {
 				stage++;
+				//without a view the camera stage is the same as stage 0
+				if (view == null && stage == 1) {
+					stage++;
+				}
 				System.out.println("Starting stage" + stage);
 
 				//add camera before stage 1 beginns
-				if (stage == 1 || (stage>1 && view.getCameras().isEmpty())) {
+				if (view != null && (stage == 1 || (stage>1 && view.getCameras().isEmpty()))) {
 					view.addCamera(view.getCamera());
 				}
 
@@ -154,6 +264,18 @@ public class Benchmark {
 			return stageRunning;
 		}
 
+		private int getStage() {
+			return stage;
+		}
+
+		/**
+		 *
+		 * @return true if the last stage has ended
+		 */
+		private boolean isFinished() {
+			return finished;
+		}
+
 		private void recordResults() {
 			if (logFile == null) {
 				DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd_HH_mm_ss");
@@ -0,0 +1,252 @@
+package com.bombinggames.caveland;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Collects the frame times, allocations and GC pauses of the benchmark stages
+ * and writes them as JSON and CSV. The recording does not allocate while a
+ * stage is running so it does not distort the allocation numbers.
+ *
+ * @author Benedikt Vogler
+ */
+public class BenchmarkReport {
+
+	private final List<StageResult> results = new ArrayList<>(5);
+	private final com.sun.management.ThreadMXBean threadBean;
+	private final float timestep;
+
+	private int stage = -1;
+	private long[] frameTimes = new long[12000];
+	private long[] allocations = new long[12000];
+	private int frames;
+	private long gcCountStart;
+	private long gcTimeStart;
+
+	/**
+	 *
+	 * @param timestep the fixed timestep in ms the frames are simulated with
+	 */
+	public BenchmarkReport(float timestep) {
+		this.timestep = timestep;
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean
+			&& ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+			threadBean = (com.sun.management.ThreadMXBean) bean;
+			threadBean.setThreadAllocatedMemoryEnabled(true);
+		} else {
+			threadBean = null;
+		}
+	}
+
+	/**
+	 * Bytes allocated by the current thread so far.
+	 *
+	 * @return -1 if not supported by the JVM
+	 */
+	public long getAllocatedBytes() {
+		if (threadBean == null) {
+			return -1;
+		}
+		return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Adds a measured frame. Starts a new stage if the stage number changed.
+	 *
+	 * @param stage the stage the frame belongs to
+	 * @param nanos duration of the frame
+	 * @param allocatedBytes bytes allocated during the frame, -1 if unknown
+	 */
+	public void frame(int stage, long nanos, long allocatedBytes) {
+		if (stage != this.stage) {
+			startStage(stage);
+		}
+		if (frames == frameTimes.length) {
+			frameTimes = Arrays.copyOf(frameTimes, frames * 2);
+			allocations = Arrays.copyOf(allocations, frames * 2);
+		}
+		frameTimes[frames] = nanos;
+		allocations[frames] = allocatedBytes;
+		frames++;
+	}
+
+	private void startStage(int stage) {
+		this.stage = stage;
+		frames = 0;
+		gcCountStart = getGcCount();
+		gcTimeStart = getGcTime();
+	}
+
+	/**
+	 * Finishes the stage and computes the statistics.
+	 *
+	 * @param stage
+	 */
+	public void endStage(int stage) {
+		if (stage != this.stage || frames == 0) {
+			return;
+		}
+		StageResult result = new StageResult(stage);
+		result.frames = frames;
+		result.gcCount = getGcCount() - gcCountStart;
+		result.gcTime = getGcTime() - gcTimeStart;
+
+		long allocSum = 0;
+		boolean allocKnown = true;
+		for (int i = 0; i < frames; i++) {
+			if (allocations[i] < 0) {
+				allocKnown = false;
+			}
+			allocSum += allocations[i];
+		}
+		result.allocPerFrame = allocKnown ? allocSum / (double) frames : -1;
+
+		long[] sorted = Arrays.copyOf(frameTimes, frames);
+		Arrays.sort(sorted);
+		result.p50 = percentile(sorted, 0.50);
+		result.p95 = percentile(sorted, 0.95);
+		result.p99 = percentile(sorted, 0.99);
+		result.max = sorted[sorted.length - 1];
+		results.add(result);
+		this.stage = -1;
+
+		System.out.println(result.toString());
+	}
+
+	/**
+	 * nearest rank percentile
+	 *
+	 * @param sorted
+	 * @param p [0,1]
+	 * @return
+	 */
+	private static long percentile(long[] sorted, double p) {
+		int rank = (int) Math.ceil(p * sorted.length) - 1;
+		if (rank < 0) {
+			rank = 0;
+		}
+		return sorted[rank];
+	}
+
+	private static long getGcCount() {
+		long sum = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			if (gc.getCollectionCount() > 0) {
+				sum += gc.getCollectionCount();
+			}
+		}
+		return sum;
+	}
+
+	private static long getGcTime() {
+		long sum = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			if (gc.getCollectionTime() > 0) {
+				sum += gc.getCollectionTime();
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 *
+	 * @return the finished stages
+	 */
+	public List<StageResult> getResults() {
+		return results;
+	}
+
+	/**
+	 *
+	 * @param file
+	 * @throws IOException
+	 */
+	public void writeJson(Path file) throws IOException {
+		try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			writer.write("{\n");
+			writer.write("\t\"version\": \"" + Caveland.VERSION + "\",\n");
+			writer.write(String.format(Locale.ROOT, "\t\"timestepMs\": %.3f,\n", timestep));
+			writer.write("\t\"stages\": [\n");
+			for (int i = 0; i < results.size(); i++) {
+				StageResult r = results.get(i);
+				writer.write(String.format(Locale.ROOT,
+					"\t\t{\"stage\": %d, \"frames\": %d, \"p50Ms\": %.4f, \"p95Ms\": %.4f, \"p99Ms\": %.4f, \"maxMs\": %.4f, \"allocBytesPerFrame\": %.1f, \"gcCount\": %d, \"gcPauseMs\": %d}",
+					r.stage, r.frames, r.p50 / 1e6, r.p95 / 1e6, r.p99 / 1e6, r.max / 1e6, r.allocPerFrame, r.gcCount, r.gcTime
+				));
+				writer.write(i < results.size() - 1 ? ",\n" : "\n");
+			}
+			writer.write("\t]\n}\n");
+		}
+	}
+
+	/**
+	 *
+	 * @param file
+	 * @throws IOException
+	 */
+	public void writeCsv(Path file) throws IOException {
+		try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			writer.write("stage,frames,p50Ms,p95Ms,p99Ms,maxMs,allocBytesPerFrame,gcCount,gcPauseMs\n");
+			for (StageResult r : results) {
+				writer.write(String.format(Locale.ROOT,
+					"%d,%d,%.4f,%.4f,%.4f,%.4f,%.1f,%d,%d\n",
+					r.stage, r.frames, r.p50 / 1e6, r.p95 / 1e6, r.p99 / 1e6, r.max / 1e6, r.allocPerFrame, r.gcCount, r.gcTime
+				));
+			}
+		}
+	}
+
+	/**
+	 * The statistics of one stage. Times are in ns, GC time in ms.
+	 */
+	public static class StageResult {
+
+		private final int stage;
+		private int frames;
+		private long p50;
+		private long p95;
+		private long p99;
+		private long max;
+		private double allocPerFrame;
+		private long gcCount;
+		private long gcTime;
+
+		StageResult(int stage) {
+			this.stage = stage;
+		}
+
+		/**
+		 *
+		 * @return
+		 */
+		public int getStage() {
+			return stage;
+		}
+
+		/**
+		 *
+		 * @return in ns
+		 */
+		public long getP99() {
+			return p99;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT,
+				"Stage %d: %d frames, p50 %.3f ms, p95 %.3f ms, p99 %.3f ms, max %.3f ms, %.0f B/frame, %d GCs (%d ms)",
+				stage, frames, p50 / 1e6, p95 / 1e6, p99 / 1e6, max / 1e6, allocPerFrame, gcCount, gcTime
+			);
+		}
+	}
+}
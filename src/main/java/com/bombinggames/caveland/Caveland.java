@@ -5,8 +5,11 @@ import com.bombinggames.caveland.game.CLGameController;
 import com.bombinggames.caveland.game.CLGameView;
 import com.bombinggames.caveland.game.CavelandBlocks;
 import com.bombinggames.caveland.game.ChunkGenerator;
+import com.bombinggames.caveland.game.EntityCodec;
+import com.bombinggames.caveland.game.MapArchive;
 import com.bombinggames.caveland.gameobjects.Bird;
 import com.bombinggames.caveland.gameobjects.ColorBall;
+import com.bombinggames.caveland.gameobjects.Ejira;
 import com.bombinggames.caveland.gameobjects.ExitPortal;
 import com.bombinggames.caveland.gameobjects.MineCart;
 import com.bombinggames.caveland.gameobjects.PathfindingTest;
@@ -16,6 +19,7 @@ import com.bombinggames.caveland.gameobjects.Shopkeeper;
 import com.bombinggames.caveland.gameobjects.Spaceship;
 import com.bombinggames.caveland.gameobjects.SpiderRobot;
 import com.bombinggames.caveland.gameobjects.Vanya;
+import com.bombinggames.caveland.gameobjects.collectibles.Collectible;
 import com.bombinggames.caveland.gameobjects.collectibles.ConstructionKit;
 import com.bombinggames.caveland.gameobjects.collectibles.TFlint;
 import com.bombinggames.caveland.gameobjects.collectibles.TorchCollectible;
@@ -31,8 +35,6 @@ import com.bombinggames.wurfelengine.core.gameobjects.AbstractEntity;
 import com.bombinggames.wurfelengine.core.gameobjects.AbstractGameObject;
 import com.bombinggames.wurfelengine.core.gameobjects.ParticleEmitter;
 import com.bombinggames.wurfelengine.core.map.Map;
-import java.io.File;
-import java.io.InputStream;
 
 /**
  *
@@ -82,14 +84,11 @@ public class Caveland {
 
 		WE.launch("Caveland " + VERSION, args);
 
-		//unpack map
-		if (!new File(WorkingDirectory.getMapsFolder() + "/default").exists()) {
-			InputStream in = Caveland.class.getClassLoader().getResourceAsStream("com/bombinggames/caveland/defaultmap.zip");
-			WorkingDirectory.unpackMap(
-				"default",
-				in
-			);
-		}
+		//install map, the chunks are read from the archive when they are needed
+		MapArchive.install(
+			"default",
+			Caveland.class.getClassLoader().getResourceAsStream("com/bombinggames/caveland/defaultmap" + MapArchive.ENDING)
+		);
 	}
 
 	/**
@@ -135,17 +134,11 @@ public class Caveland {
 		WE.getCVars().register(new BooleanCVar(true), "enableLightEngine");
 		WE.getCVars().register(new BooleanCVar(true), "enableFog");
 		WE.getCVars().register(new BooleanCVar(false), "enableAutoShade");
-		WE.getCVars().register(new BooleanCVar(true), "LEnormalMapRendering");
 		WE.getCVars().register(new BooleanCVar(true), "coopVerticalSplitScreen");
-		WE.getCVars().register(new FloatCVar(150), "PlayerTimeTillImpact");
-		WE.getCVars().register(new BooleanCVar(false), "ignorePlayer");
-		WE.getCVars().register(new BooleanCVar(false), "godmode");
-		WE.getCVars().register(new FloatCVar(600f), "playerItemDropTime");//time in ms for item drop
 		WE.getCVars().register(new FloatCVar(0.85f), "coopZoom");
-		WE.getCVars().register(new BooleanCVar(false), "experimentalCameraJoin");
-		WE.getCVars().register(new FloatCVar(400f), "jetpackMaxTime");
-		WE.getCVars().register(new FloatCVar(0.03f), "jetpackPower");
-		WE.getCVars().register(new FloatCVar(5f), "jetpackMaxSpeed");
+		//cvars read every frame
+		CavelandCVars.register();
+		CavelandCVars.NORMALMAPRENDERING.addListener(cvar -> Ejira.reloadNormalMap());
 		
 		//register map cvars
 		CVarSystemMap.setCustomMapCVarRegistration(new CavelandMapCVars());
@@ -171,6 +164,9 @@ public class Caveland {
 		AbstractEntity.registerEntity("Exit Portal", ExitPortal.class);
 		AbstractEntity.registerEntity("Quadrocopter", Quadrocopter.class);
 		AbstractEntity.registerEntity("Shopkeeper", Shopkeeper.class);
+		//field-wise codecs for entities saved by Caveland itself
+		//mine carts, robots, ovens and containers use the codec in their serialisation hooks
+		EntityCodec.register("Collectible", Collectible.class, Collectible.CODEC);
 
 		Map.setDefaultGenerator(new ChunkGenerator());
 
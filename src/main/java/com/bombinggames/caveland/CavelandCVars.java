@@ -0,0 +1,268 @@
+package com.bombinggames.caveland;
+
+import com.bombinggames.wurfelengine.WE;
+import com.bombinggames.wurfelengine.core.cvar.BooleanCVar;
+import com.bombinggames.wurfelengine.core.cvar.CVar;
+import com.bombinggames.wurfelengine.core.cvar.FloatCVar;
+import com.bombinggames.wurfelengine.core.cvar.IntCVar;
+import java.util.ArrayList;
+
+/**
+ * Handles of the cvars read every frame. The cvars of Caveland keep their
+ * value as primitive field which is updated with every change, so reading
+ * them needs no lookup by name and no unboxing. The cvars of the engine are
+ * resolved once.
+ *
+ * @author Benedikt Vogler
+ */
+public class CavelandCVars {
+
+	/**
+	 *
+	 */
+	public static final BooleanHandle NORMALMAPRENDERING = new BooleanHandle(true);
+	/**
+	 *
+	 */
+	public static final BooleanHandle IGNOREPLAYER = new BooleanHandle(false);
+	/**
+	 *
+	 */
+	public static final BooleanHandle GODMODE = new BooleanHandle(false);
+	/**
+	 *
+	 */
+	public static final BooleanHandle EXPERIMENTALCAMERAJOIN = new BooleanHandle(false);
+	/**
+	 *
+	 */
+	public static final FloatHandle PLAYERTIMETILLIMPACT = new FloatHandle(150);
+	/**
+	 * time in ms for item drop
+	 */
+	public static final FloatHandle PLAYERITEMDROPTIME = new FloatHandle(600f);
+	/**
+	 *
+	 */
+	public static final FloatHandle JETPACKMAXTIME = new FloatHandle(400f);
+	/**
+	 *
+	 */
+	public static final FloatHandle JETPACKPOWER = new FloatHandle(0.03f);
+	/**
+	 *
+	 */
+	public static final FloatHandle JETPACKMAXSPEED = new FloatHandle(5f);
+	/**
+	 * time in ms between two decisions of an ai
+	 */
+	public static final FloatHandle AITHINKINTERVAL = new FloatHandle(100f);
+	/**
+	 * more decisions are moved to the next frame
+	 */
+	public static final IntHandle AIMAXTHINKSPERFRAME = new IntHandle(64);
+
+	/**
+	 * engine cvar
+	 */
+	public static CVar playerWalkingSpeed;
+	/**
+	 * engine cvar
+	 */
+	public static CVar playerFriction;
+	/**
+	 * engine cvar
+	 */
+	public static CVar walkingAnimationSpeedCorrection;
+	/**
+	 * engine cvar
+	 */
+	public static CVar devMode;
+
+	/**
+	 * Registers the handles at the cvar system of the engine and resolves the
+	 * cvars of the engine.
+	 */
+	public static void register() {
+		WE.getCVars().register(NORMALMAPRENDERING, "LEnormalMapRendering");
+		WE.getCVars().register(PLAYERTIMETILLIMPACT, "PlayerTimeTillImpact");
+		WE.getCVars().register(IGNOREPLAYER, "ignorePlayer");
+		WE.getCVars().register(GODMODE, "godmode");
+		WE.getCVars().register(PLAYERITEMDROPTIME, "playerItemDropTime");
+		WE.getCVars().register(EXPERIMENTALCAMERAJOIN, "experimentalCameraJoin");
+		WE.getCVars().register(JETPACKMAXTIME, "jetpackMaxTime");
+		WE.getCVars().register(JETPACKPOWER, "jetpackPower");
+		WE.getCVars().register(JETPACKMAXSPEED, "jetpackMaxSpeed");
+		WE.getCVars().register(AITHINKINTERVAL, "aiThinkInterval");
+		WE.getCVars().register(AIMAXTHINKSPERFRAME, "aiMaxThinksPerFrame");
+
+		playerWalkingSpeed = WE.getCVars().get("playerWalkingSpeed");
+		playerFriction = WE.getCVars().get("playerfriction");
+		walkingAnimationSpeedCorrection = WE.getCVars().get("walkingAnimationSpeedCorrection");
+		devMode = WE.getCVars().get("DevMode");
+	}
+
+	private CavelandCVars() {
+	}
+
+	/**
+	 * Gets called after the value of a handle changed.
+	 */
+	public interface ChangeListener {
+
+		/**
+		 *
+		 * @param cvar the changed cvar
+		 */
+		void changed(CVar cvar);
+	}
+
+	/**
+	 * A float cvar which caches its value.
+	 */
+	public static class FloatHandle extends FloatCVar {
+
+		private float cached;
+		private ArrayList<ChangeListener> listeners;
+
+		/**
+		 *
+		 * @param value default value
+		 */
+		public FloatHandle(float value) {
+			super(value);
+			cached = value;
+		}
+
+		@Override
+		public void setValue(Object value) {
+			super.setValue(value);
+			float newValue = (float) getValue();
+			if (newValue != cached) {
+				cached = newValue;
+				notifyListeners(listeners, this);
+			}
+		}
+
+		/**
+		 *
+		 * @return the current value
+		 */
+		public float get() {
+			return cached;
+		}
+
+		/**
+		 *
+		 * @param listener
+		 */
+		public void addListener(ChangeListener listener) {
+			if (listeners == null) {
+				listeners = new ArrayList<>(1);
+			}
+			listeners.add(listener);
+		}
+	}
+
+	/**
+	 * A boolean cvar which caches its value.
+	 */
+	public static class BooleanHandle extends BooleanCVar {
+
+		private boolean cached;
+		private ArrayList<ChangeListener> listeners;
+
+		/**
+		 *
+		 * @param value default value
+		 */
+		public BooleanHandle(boolean value) {
+			super(value);
+			cached = value;
+		}
+
+		@Override
+		public void setValue(Object value) {
+			super.setValue(value);
+			boolean newValue = (boolean) getValue();
+			if (newValue != cached) {
+				cached = newValue;
+				notifyListeners(listeners, this);
+			}
+		}
+
+		/**
+		 *
+		 * @return the current value
+		 */
+		public boolean get() {
+			return cached;
+		}
+
+		/**
+		 *
+		 * @param listener
+		 */
+		public void addListener(ChangeListener listener) {
+			if (listeners == null) {
+				listeners = new ArrayList<>(1);
+			}
+			listeners.add(listener);
+		}
+	}
+
+	/**
+	 * An int cvar which caches its value.
+	 */
+	public static class IntHandle extends IntCVar {
+
+		private int cached;
+		private ArrayList<ChangeListener> listeners;
+
+		/**
+		 *
+		 * @param value default value
+		 */
+		public IntHandle(int value) {
+			super(value);
+			cached = value;
+		}
+
+		@Override
+		public void setValue(Object value) {
+			super.setValue(value);
+			int newValue = (int) getValue();
+			if (newValue != cached) {
+				cached = newValue;
+				notifyListeners(listeners, this);
+			}
+		}
+
+		/**
+		 *
+		 * @return the current value
+		 */
+		public int get() {
+			return cached;
+		}
+
+		/**
+		 *
+		 * @param listener
+		 */
+		public void addListener(ChangeListener listener) {
+			if (listeners == null) {
+				listeners = new ArrayList<>(1);
+			}
+			listeners.add(listener);
+		}
+	}
+
+	private static void notifyListeners(ArrayList<ChangeListener> listeners, CVar cvar) {
+		if (listeners != null) {
+			for (ChangeListener listener : listeners) {
+				listener.changed(cvar);
+			}
+		}
+	}
+}
@@ -2,7 +2,6 @@ package com.bombinggames.caveland;
 
 import com.bombinggames.wurfelengine.core.cvar.CVarFlags;
 import com.bombinggames.wurfelengine.core.cvar.CVarSystemMap;
-import com.bombinggames.wurfelengine.core.cvar.IntCVar;
 import com.bombinggames.wurfelengine.core.map.CustomMapCVarRegistration;
 
 /**
@@ -11,13 +10,19 @@ import com.bombinggames.wurfelengine.core.map.CustomMapCVarRegistration;
  */
 public class CavelandMapCVars implements CustomMapCVarRegistration{
 
+	/**
+	 * the handle of the currently loaded map
+	 */
+	public static CavelandCVars.IntHandle groundBlockID;
+
 	/**
 	 *
 	 * @param system
 	 */
 	@Override
 	public void register(CVarSystemMap system) {
-		system.register(new IntCVar(1), "groundBlockID", CVarFlags.ARCHIVE);
+		groundBlockID = new CavelandCVars.IntHandle(1);
+		system.register(groundBlockID, "groundBlockID", CVarFlags.ARCHIVE);
 	}
 	
 }
@@ -0,0 +1,128 @@
+package com.bombinggames.caveland.game;
+
+import com.bombinggames.caveland.CavelandCVars;
+
+/**
+ * Decides when the ais make their decisions. Movement is still updated every
+ * frame but target searches and movement orders only run every
+ * {@link CavelandCVars#AITHINKINTERVAL} ms. The ais get different phases so
+ * that they do not think in the same frame, and at most
+ * {@link CavelandCVars#AIMAXTHINKSPERFRAME} decisions are made per frame. The
+ * rest waits for the next frame.
+ *
+ * @author Benedikt Vogler
+ */
+public class AiScheduler {
+
+	/**
+	 * amount of phases in an interval
+	 */
+	private static final int SLOTS = 8;
+	private static AiScheduler instance;
+
+	/**
+	 *
+	 * @return
+	 */
+	public static AiScheduler getInstance() {
+		if (instance == null) {
+			instance = new AiScheduler();
+		}
+		return instance;
+	}
+
+	private int nextSlot;
+	private int thinks;
+	private int deferred;
+	private long nanos;
+	private int lastThinks;
+	private int lastDeferred;
+	private long lastNanos;
+
+	private AiScheduler() {
+	}
+
+	/**
+	 * Starts counting a new frame. Call once per frame before the entities
+	 * are updated.
+	 */
+	public void update() {
+		lastThinks = thinks;
+		lastDeferred = deferred;
+		lastNanos = nanos;
+		thinks = 0;
+		deferred = 0;
+		nanos = 0;
+	}
+
+	/**
+	 *
+	 * @return time in ms between two decisions
+	 */
+	public float getInterval() {
+		return CavelandCVars.AITHINKINTERVAL.get();
+	}
+
+	/**
+	 * The time until the first decision of a new ai. Every call returns the
+	 * next slot of the interval.
+	 *
+	 * @return time in ms
+	 */
+	public float nextPhase() {
+		nextSlot = (nextSlot + 1) % SLOTS;
+		return getInterval() * nextSlot / SLOTS;
+	}
+
+	/**
+	 * Asks for a decision in this frame. If it returns true the time must be
+	 * reported with {@link #thought(long)}.
+	 *
+	 * @return false if the budget of this frame is used up
+	 */
+	public boolean allowThink() {
+		if (thinks >= CavelandCVars.AIMAXTHINKSPERFRAME.get()) {
+			deferred++;
+			return false;
+		}
+		thinks++;
+		return true;
+	}
+
+	/**
+	 *
+	 * @param nanos time the decision took
+	 */
+	public void thought(long nanos) {
+		this.nanos += nanos;
+	}
+
+	/**
+	 *
+	 * @return decisions in the last frame
+	 */
+	public int getThinks() {
+		return lastThinks;
+	}
+
+	/**
+	 *
+	 * @return decisions moved from the last frame to the next
+	 */
+	public int getDeferred() {
+		return lastDeferred;
+	}
+
+	/**
+	 *
+	 * @return time in ms the decisions of the last frame took
+	 */
+	public float getTime() {
+		return lastNanos / 1000000f;
+	}
+
+	@Override
+	public String toString() {
+		return "ai: " + String.format("%.2f", getTime()) + " ms, decisions: " + lastThinks + ", deferred: " + lastDeferred;
+	}
+}
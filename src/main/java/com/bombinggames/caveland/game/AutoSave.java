@@ -0,0 +1,353 @@
+package com.bombinggames.caveland.game;
+
+import com.badlogic.gdx.Gdx;
+import com.bombinggames.caveland.gameobjects.Ejira;
+import com.bombinggames.wurfelengine.core.Controller;
+import com.bombinggames.wurfelengine.core.cvar.CVarSystemSave;
+import com.bombinggames.wurfelengine.core.map.Chunk;
+import com.bombinggames.wurfelengine.core.map.Coordinate;
+import com.bombinggames.wurfelengine.core.WorkingDirectory;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Saves the chunks changed since the last save in the background. The blocks
+ * of a changed chunk are copied at the end of the frame of the change, while
+ * the chunk is surely loaded, and written to a journal by a worker thread
+ * every {@link #INTERVAL} ms, so the game does not stop. The journal is a
+ * {@link MapArchive}, so restoring reads each chunk directly from the mapped
+ * file. A chunk which is not in memory is never copied. The journal is
+ * applied after loading and deleted when the map is saved completely.
+ *
+ * @author Benedikt Vogler
+ */
+public class AutoSave implements BlockChanges.Listener {
+
+	/**
+	 * time between two autosaves in ms
+	 */
+	private static final float INTERVAL = 60000;
+	/**
+	 * "CLAS"
+	 */
+	private static final int MAGIC = 0x434C4153;
+	private static final byte VERSION = 1;
+	private static final String METAFILE = "meta.bin";
+	private static final String JOURNALFILE = "journal" + MapArchive.ENDING;
+
+	private static long key(int chunkX, int chunkY) {
+		return ((long) chunkX << 32) | (chunkY & 0xffffffffL);
+	}
+
+	private final File directory;
+	private final ExecutorService writer;
+	/**
+	 * chunks changed in this frame
+	 */
+	private final HashSet<Long> dirty = new HashSet<>(16);
+	/**
+	 * copies of the changed chunks waiting for the next write
+	 */
+	private final HashMap<Long, ChunkSnapshot> snapshots = new HashMap<>(16);
+	/**
+	 * every chunk changed since the last complete save, only used by the
+	 * writer
+	 */
+	private final HashMap<Long, ChunkSnapshot> journal = new HashMap<>(16);
+	private final int blocksX;
+	private final int blocksY;
+	private final int blocksZ;
+	private float timer;
+	private Future<?> running;
+	/**
+	 * reused for block access on the game thread
+	 */
+	private final Coordinate tmpCoord = new Coordinate(0, 0, 0);
+
+	/**
+	 *
+	 * @param mapName
+	 * @param saveSlot
+	 */
+	public AutoSave(String mapName, int saveSlot) {
+		directory = new File(WorkingDirectory.getMapsFolder() + "/" + mapName + "/autosave" + saveSlot);
+		writer = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "Autosave");
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		});
+		blocksX = Chunk.getBlocksX();
+		blocksY = Chunk.getBlocksY();
+		blocksZ = Chunk.getBlocksZ();
+		BlockChanges.getInstance().addListener(this);
+	}
+
+	/**
+	 * Marks the chunk of this block as changed.
+	 *
+	 * @param coord a changed block
+	 */
+	@Override
+	public void blockChanged(Coordinate coord) {
+		dirty.add(key(Math.floorDiv(coord.getX(), blocksX), Math.floorDiv(coord.getY(), blocksY)));
+	}
+
+	/**
+	 * Call at the end of a frame. Starts an autosave if the interval passed
+	 * and the previous one is written.
+	 *
+	 * @param dt
+	 * @param player the position is saved
+	 */
+	public void update(float dt, Ejira player) {
+		//copy the changed chunks now, they may be unloaded until the write
+		for (long key : dirty) {
+			snapshot(key);
+		}
+		dirty.clear();
+
+		timer += dt;
+		if (timer < INTERVAL || (running != null && !running.isDone())) {
+			return;
+		}
+		timer = 0;
+		if (snapshots.isEmpty() && (player == null || !player.hasPosition())) {
+			return;
+		}
+
+		//the writer owns the copies
+		ArrayList<ChunkSnapshot> written = new ArrayList<>(snapshots.values());
+		snapshots.clear();
+		CVarSystemSave saveCvars = Controller.getMap().getSaveCVars();
+		Coordinate playerCoord = player != null && player.hasPosition() ? player.getPosition().toCoord() : null;
+		int money = saveCvars.getValueI("money");
+
+		running = writer.submit(() -> {
+			try {
+				directory.mkdirs();
+				for (ChunkSnapshot snapshot : written) {
+					journal.put(key(snapshot.chunkX, snapshot.chunkY), snapshot);
+				}
+				LinkedHashMap<String, ByteBuffer> files = new LinkedHashMap<>(journal.size() + 1);
+				for (ChunkSnapshot snapshot : journal.values()) {
+					files.put(snapshot.chunkX + "_" + snapshot.chunkY + ".bin", snapshot.encode());
+				}
+				ByteBuffer meta = ByteBuffer.allocate(4 + 1 + 1 + 3 * 4 + 4);
+				meta.putInt(MAGIC);
+				meta.put(VERSION);
+				meta.put((byte) (playerCoord != null ? 1 : 0));
+				if (playerCoord != null) {
+					meta.putInt(playerCoord.getX());
+					meta.putInt(playerCoord.getY());
+					meta.putInt(playerCoord.getZ());
+				}
+				meta.putInt(money);
+				meta.flip();
+				files.put(METAFILE, meta);
+				//replace the journal only when the new one is complete
+				File temp = new File(directory, JOURNALFILE + ".tmp");
+				MapArchive.pack(files, temp);
+				Files.move(temp.toPath(), new File(directory, JOURNALFILE).toPath(), StandardCopyOption.REPLACE_EXISTING);
+			} catch (IOException ex) {
+				Gdx.app.error("AutoSave", "Could not write autosave: " + ex.getMessage());
+			}
+		});
+	}
+
+	/**
+	 * Copies the blocks of a chunk if it is in memory.
+	 *
+	 * @param key
+	 */
+	private void snapshot(long key) {
+		int chunkX = (int) (key >> 32);
+		int chunkY = (int) key;
+		int xStart = chunkX * blocksX;
+		int yStart = chunkY * blocksY;
+		//an unloaded chunk reads as air
+		if (!tmpCoord.set(xStart, yStart, 0).isInMemoryAreaXY()) {
+			Gdx.app.error("AutoSave", "Chunk " + chunkX + "," + chunkY + " was unloaded before it could be copied.");
+			return;
+		}
+		ChunkSnapshot snapshot = snapshots.get(key);
+		if (snapshot == null) {
+			snapshot = new ChunkSnapshot(chunkX, chunkY, new int[blocksX * blocksY * blocksZ]);
+			snapshots.put(key, snapshot);
+		}
+		int[] data = snapshot.data;
+		int i = 0;
+		for (int x = 0; x < blocksX; x++) {
+			for (int y = 0; y < blocksY; y++) {
+				for (int z = 0; z < blocksZ; z++) {
+					tmpCoord.set(xStart + x, yStart + y, z);
+					data[i++] = Controller.getMap().getBlock(tmpCoord);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Applies the journal of the last session if the game was not saved
+	 * completely afterwards. Call after the map and the save cvars are
+	 * loaded.
+	 */
+	public void restore() {
+		waitForWriter();
+		File file = new File(directory, JOURNALFILE);
+		if (!file.exists()) {
+			return;
+		}
+		MapArchive archive;
+		try {
+			archive = MapArchive.open(file);
+		} catch (IOException ex) {
+			Gdx.app.error("AutoSave", "Skipped broken autosave " + file.getName());
+			return;
+		}
+		for (String name : archive.getNames()) {
+			ByteBuffer in = archive.get(name);
+			try {
+				if (in.getInt() != MAGIC || in.get() > VERSION) {
+					continue;
+				}
+				if (name.equals(METAFILE)) {
+					restoreMeta(in);
+				} else {
+					restoreChunk(in);
+				}
+			} catch (BufferUnderflowException ex) {
+				Gdx.app.error("AutoSave", "Skipped broken autosave " + name);
+			}
+		}
+		archive.close();
+	}
+
+	private void restoreMeta(ByteBuffer in) {
+		CVarSystemSave saveCvars = Controller.getMap().getSaveCVars();
+		if (in.get() != 0) {
+			saveCvars.get("PlayerLastSaveX").setValue(in.getInt());
+			saveCvars.get("PlayerLastSaveY").setValue(in.getInt());
+			saveCvars.get("PlayerLastSaveZ").setValue(in.getInt());
+		}
+		saveCvars.get("money").setValue(in.getInt());
+	}
+
+	/**
+	 * Applies a chunk of the journal. A chunk which can not be loaded is kept
+	 * in the journal unchanged.
+	 *
+	 * @param in the view into the journal
+	 */
+	private void restoreChunk(ByteBuffer in) {
+		int chunkX = in.getInt();
+		int chunkY = in.getInt();
+		if (in.getInt() != blocksX || in.getInt() != blocksY || in.getInt() != blocksZ) {
+			return;//other chunk size
+		}
+		//an archived chunk must be in the map folder before it is loaded
+		ChunkGenerator.extractArchived(chunkX, chunkY, 0);
+		Controller.getMap().loadChunk(chunkX, chunkY);
+		int xStart = chunkX * blocksX;
+		int yStart = chunkY * blocksY;
+		if (!tmpCoord.set(xStart, yStart, 0).isInMemoryAreaXY()) {
+			Gdx.app.error("AutoSave", "Could not load chunk " + chunkX + "," + chunkY + " to restore it.");
+			int[] data = new int[blocksX * blocksY * blocksZ];
+			in.asIntBuffer().get(data);
+			snapshots.put(key(chunkX, chunkY), new ChunkSnapshot(chunkX, chunkY, data));
+			return;
+		}
+		for (int x = 0; x < blocksX; x++) {
+			for (int y = 0; y < blocksY; y++) {
+				for (int z = 0; z < blocksZ; z++) {
+					int block = in.getInt();
+					tmpCoord.set(xStart + x, yStart + y, z);
+					//compare id and value
+					if ((Controller.getMap().getBlock(tmpCoord) & 0xFFFF) != (block & 0xFFFF)) {
+						tmpCoord.setBlock((byte) (block & 255), (byte) ((block >> 8) & 255));
+					}
+				}
+			}
+		}
+		//changed again since the full save
+		dirty.add(key(chunkX, chunkY));
+	}
+
+	/**
+	 * Deletes the journal. Call after the map was saved completely.
+	 */
+	public void clear() {
+		dirty.clear();
+		snapshots.clear();
+		timer = 0;
+		waitForWriter();
+		journal.clear();
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+	}
+
+	private void waitForWriter() {
+		if (running != null) {
+			try {
+				running.get();
+			} catch (Exception ex) {
+				Gdx.app.error("AutoSave", "Autosave failed: " + ex.getMessage());
+			}
+			running = null;
+		}
+	}
+
+	/**
+	 * Finishes the running write.
+	 */
+	public void dispose() {
+		writer.shutdown();
+		BlockChanges.getInstance().removeListener(this);
+	}
+
+	/**
+	 * The blocks of a chunk after its last change.
+	 */
+	private class ChunkSnapshot {
+
+		private final int chunkX;
+		private final int chunkY;
+		private final int[] data;
+
+		ChunkSnapshot(int chunkX, int chunkY, int[] data) {
+			this.chunkX = chunkX;
+			this.chunkY = chunkY;
+			this.data = data;
+		}
+
+		ByteBuffer encode() {
+			ByteBuffer out = ByteBuffer.allocate(4 + 1 + 5 * 4 + data.length * 4);
+			out.putInt(MAGIC);
+			out.put(VERSION);
+			out.putInt(chunkX);
+			out.putInt(chunkY);
+			out.putInt(blocksX);
+			out.putInt(blocksY);
+			out.putInt(blocksZ);
+			out.asIntBuffer().put(data);
+			out.position(out.limit());
+			out.flip();
+			return out;
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package com.bombinggames.caveland.game;
+
+import com.bombinggames.wurfelengine.core.map.Coordinate;
+import java.util.ArrayList;
+
+/**
+ * Tells the caches about changed blocks. Call {@link #changed(Coordinate)}
+ * next to every <i>setBlock</i> and when a block is destroyed. Services which
+ * keep data about blocks subscribe here instead of being called at every
+ * place a block changes.
+ *
+ * @author Benedikt Vogler
+ */
+public class BlockChanges {
+
+	private static BlockChanges instance;
+
+	/**
+	 *
+	 * @return
+	 */
+	public static BlockChanges getInstance() {
+		if (instance == null) {
+			instance = new BlockChanges();
+		}
+		return instance;
+	}
+
+	private final ArrayList<Listener> listeners = new ArrayList<>(8);
+
+	private BlockChanges() {
+	}
+
+	/**
+	 *
+	 * @param listener is only added once
+	 */
+	public void addListener(Listener listener) {
+		if (!listeners.contains(listener)) {
+			listeners.add(listener);
+		}
+	}
+
+	/**
+	 *
+	 * @param listener
+	 */
+	public void removeListener(Listener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Notifies every listener.
+	 *
+	 * @param coord the changed block. A destroyed block may still have its id
+	 * with no health left.
+	 */
+	public void changed(Coordinate coord) {
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).blockChanged(coord);
+		}
+	}
+
+	/**
+	 * Gets notified about changed blocks.
+	 */
+	public interface Listener {
+
+		/**
+		 *
+		 * @param coord the changed block, do not keep it
+		 */
+		void blockChanged(Coordinate coord);
+	}
+}
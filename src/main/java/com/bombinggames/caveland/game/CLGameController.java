@@ -7,21 +7,28 @@ import com.badlogic.gdx.ai.msg.Telegraph;
 import com.badlogic.gdx.graphics.Color;
 import static com.bombinggames.caveland.game.CavelandBlocks.getLoot;
 import com.bombinggames.caveland.gameobjects.CustomTree;
+import com.bombinggames.caveland.gameobjects.EffectPool;
+import com.bombinggames.caveland.gameobjects.RailNetwork;
 import com.bombinggames.caveland.gameobjects.Ejira;
+import com.bombinggames.caveland.gameobjects.MovementOrders;
 import com.bombinggames.caveland.gameobjects.Robot;
 import com.bombinggames.caveland.gameobjects.Spaceship;
+import com.bombinggames.caveland.gameobjects.TeamIndex;
 import com.bombinggames.caveland.gameobjects.Vanya;
 import com.bombinggames.caveland.gameobjects.collectibles.CollectibleType;
+import com.bombinggames.caveland.gameobjects.logicblocks.CompanionRegistry;
+import com.bombinggames.caveland.gameobjects.logicblocks.PowerNetwork;
 import com.bombinggames.wurfelengine.WE;
 import com.bombinggames.wurfelengine.core.Controller;
 import com.bombinggames.wurfelengine.core.Events;
+import com.bombinggames.wurfelengine.core.WorkingDirectory;
 import com.bombinggames.wurfelengine.core.cvar.BooleanCVar;
 import com.bombinggames.wurfelengine.core.cvar.CVarSystemSave;
 import com.bombinggames.wurfelengine.core.cvar.IntCVar;
-import com.bombinggames.wurfelengine.core.gameobjects.DestructionParticle;
 import com.bombinggames.wurfelengine.core.map.Chunk;
 import com.bombinggames.wurfelengine.core.map.Coordinate;
 import com.bombinggames.wurfelengine.core.map.rendering.RenderCell;
+import java.io.File;
 import java.util.LinkedList;
 
 /**
@@ -37,9 +44,22 @@ public class CLGameController extends Controller implements Telegraph {
 	private Spaceship introSpaceship;
 	private Vanya tutorialVanya;
 	private boolean tutorialEndFight;
+	private CavePregenerator pregenerator;
+	private AutoSave autoSave;
+	/**
+	 * chunks of the map which are not written into the map folder yet, null if the map has no archive
+	 */
+	private MapArchive archive;
+	private File mapFolder;
 
 	@Override
 	public void init(String mapName, int saveslot) {
+		//before loading because loaded entities register themselves
+		clearServices();
+		//before loading because the engine generates chunks which have no file
+		archive = MapArchive.forMap(mapName);
+		mapFolder = new File(WorkingDirectory.getMapsFolder(), mapName);
+		ChunkGenerator.setArchive(archive, mapFolder);
 		super.init(mapName, saveslot);
 		Gdx.app.log(CLGameController.class.getSimpleName(), "Initializing");
 		
@@ -48,12 +68,35 @@ public class CLGameController extends Controller implements Telegraph {
 		
 		setLightEngine(new CustomLightEngine());
 		
+		pregenerator = new CavePregenerator();
+		ChunkGenerator.setPregenerator(pregenerator);
+		autoSave = new AutoSave(mapName, saveslot);
+		
 		player1 = new Ejira(1);
 		//RenderBlock.setDestructionSound("blockDestroy");
 
 		mapSetup();
 	}
 	
+	/**
+	 * Writes the chunks around the players from the archive into the map folder before the camera loads them.
+	 */
+	private void extractChunks() {
+		if (archive == null) {
+			return;
+		}
+		if (player1.hasPosition()) {
+			extractAround(player1.getPosition().toCoord());
+		}
+		if (player2 != null && player2.hasPosition()) {
+			extractAround(player2.getPosition().toCoord());
+		}
+	}
+	
+	private void extractAround(Coordinate coord) {
+		ChunkGenerator.extractArchived(Math.floorDiv(coord.getX(), Chunk.getBlocksX()), Math.floorDiv(coord.getY(), Chunk.getBlocksY()), 2);
+	}
+	
 	/**
 	 * verify that players exist
 	 */
@@ -94,6 +137,16 @@ public class CLGameController extends Controller implements Telegraph {
 		saveCvars.register(new IntCVar(0), "respawnY");
 		saveCvars.register(new IntCVar(10), "respawnZ");
 		saveCvars.load();
+		//the players spawn here
+		extractAround(
+			new Coordinate(
+				saveCvars.getValueI("PlayerLastSaveX"),
+				saveCvars.getValueI("PlayerLastSaveY"),
+				saveCvars.getValueI("PlayerLastSaveZ")
+			)
+		);
+		//changes after the last complete save
+		autoSave.restore();
 		
 		spawnPlayers();
 		
@@ -110,9 +163,17 @@ public class CLGameController extends Controller implements Telegraph {
 	
 	@Override
 	public void update(float dt) {
+		//before the camera moves
+		extractChunks();
+		RailNetwork.getInstance().setViewers(player1, player2);
+		AiScheduler.getInstance().update();
+		PathService.getInstance().update();
 		super.update(dt);
+		MovementOrders.getInstance().flush();
 		
 		spawnPlayers();
+		CaveGraph.getInstance().update(player1, player2);
+		pregenerator.update(player1, player2);
 		
 		if (tutorialVanya == null){
 			LinkedList<Vanya> foundVanya = getPlayer(0).getPosition().getEntitiesNearby(10*RenderCell.GAME_EDGELENGTH, Vanya.class);
@@ -170,7 +231,8 @@ public class CLGameController extends Controller implements Telegraph {
 			}
 			
 		}
-			
+		
+		autoSave.update(dt, player1);
 	}
 
 	/**
@@ -208,18 +270,25 @@ public class CLGameController extends Controller implements Telegraph {
 			saveCvars.get("PlayerLastSaveY").setValue(coord.getY());
 			saveCvars.get("PlayerLastSaveZ").setValue(coord.getZ());
 		}
-		return super.save();
+		boolean saved = super.save();
+		if (saved) {
+			autoSave.clear();
+		}
+		return saved;
 	}
 
 	@Override
 	public boolean handleMessage(Telegram msg) {
 		if (msg.message == Events.mapReloaded.getId()){
+			pregenerator.clear();
+			clearServices();
 			mapSetup();
 			return true;
 		}
 	
 		if (msg.message == Events.blockDestroyed.getId()) {
 			Coordinate coord = (Coordinate) msg.extraInfo;
+			BlockChanges.getInstance().changed(coord);
 			int block = Controller.getMap().getBlock(coord);
 			if (block >> 16 <= 0) {//health
 				CollectibleType lootType = getLoot((byte) (block & 255));
@@ -244,7 +313,7 @@ public class CLGameController extends Controller implements Telegraph {
 				//view only relevant. should only be done if visible
 				//todo, check if visible
 				for (int i = 0; i < 10; i++) {
-					new DestructionParticle((byte) 44).spawn(coord.toPoint().add(
+					EffectPool.getInstance().spawnDestructionParticle((byte) 44, coord.toPoint().add(
 						(float) Math.random() * RenderCell.GAME_DIAGLENGTH2,
 						(float) Math.random() * RenderCell.GAME_DIAGLENGTH2,
 						(float) Math.random() * RenderCell.GAME_EDGELENGTH
@@ -260,7 +329,31 @@ public class CLGameController extends Controller implements Telegraph {
 	public void dispose() {
 		MessageManager.getInstance().removeListener(this, Events.mapReloaded.getId());
 		MessageManager.getInstance().removeListener(this, Events.blockDestroyed.getId());
+		ChunkGenerator.setPregenerator(null);
+		ChunkGenerator.setArchive(null, null);
+		pregenerator.dispose();
+		autoSave.dispose();
+		if (archive != null) {
+			archive.close();
+		}
 		super.dispose();
+		clearServices();
+	}
+
+	/**
+	 * Empties the shared services. They live longer than a game, so this is
+	 * done when a game starts, ends or the map is reloaded.
+	 */
+	private void clearServices() {
+		PowerNetwork.getInstance().clear();
+		TeamIndex.getInstance().clear();
+		LineOfSight.getInstance().clear();
+		CompanionRegistry.getInstance().clear();
+		EffectPool.getInstance().clear();
+		RailNetwork.getInstance().clear();
+		ResourceIndex.getInstance().clear();
+		MovementOrders.getInstance().clear();
+		PathService.getInstance().clear();
 	}
 	
 	
@@ -10,6 +10,7 @@ import com.badlogic.gdx.controllers.PovDirection;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.scenes.scene2d.ui.WidgetGroup;
+import com.bombinggames.caveland.CavelandCVars;
 import com.bombinggames.caveland.game.igmenu.IGMenu;
 import com.bombinggames.caveland.gameobjects.Ejira;
 import com.bombinggames.caveland.gameobjects.GrassBlock;
@@ -67,7 +68,7 @@ public class CLGameView extends GameView {
 		super.init(controller, oldView);
 		Gdx.app.debug("CustomGameView", "Initializing");
 
-		if (!WE.getCVars().getValueB("ignorePlayer")) {
+		if (!CavelandCVars.IGNOREPLAYER.get()) {
 			try {
 				Ejira.loadSheet();
 			} catch (FileNotFoundException ex) {
@@ -275,7 +276,7 @@ public class CLGameView extends GameView {
 //				}
 //			}
 //		}
-		if (WE.getCVars().getValueB("experimentalCameraJoin") && getCameras().size() >= 2) {
+		if (CavelandCVars.EXPERIMENTALCAMERAJOIN.get() && getCameras().size() >= 2) {
 			//todo should compare in view space
 			if (getPlayer(0).getPosition().distanceTo(getPlayer(1).getPosition()) < RenderCell.GAME_EDGELENGTH * 5) {
 				if (!getCameras().get(0).isFullWindow()) {
@@ -304,7 +305,7 @@ public class CLGameView extends GameView {
 					input.isKeyPressed(Input.Keys.S),
 					input.isKeyPressed(Input.Keys.A),
 					input.isKeyPressed(Input.Keys.D),
-					WE.getCVars().getValueF("playerWalkingSpeed") * (WE.getCVars().getValueB("devmode") && input.isKeyPressed(Input.Keys.SHIFT_LEFT) ? 1.5f : 1),
+					(float) CavelandCVars.playerWalkingSpeed.getValue() * ((boolean) CavelandCVars.devMode.getValue() && input.isKeyPressed(Input.Keys.SHIFT_LEFT) ? 1.5f : 1),
 					dt
 				);
 			} else {
@@ -327,7 +328,7 @@ public class CLGameView extends GameView {
 					input.isKeyPressed(Input.Keys.DOWN),
 					input.isKeyPressed(Input.Keys.LEFT),
 					input.isKeyPressed(Input.Keys.RIGHT),
-					WE.getCVars().getValueF("playerWalkingSpeed"),
+					(float) CavelandCVars.playerWalkingSpeed.getValue(),
 					dt
 				);
 			}
@@ -335,14 +336,14 @@ public class CLGameView extends GameView {
 
 		if (controllerListenerA != null) {//first controller used
 			if (controllerListenerA.speed > 0) {
-				getPlayer(controllerListenerA.player.getPlayerNumber() - 1).setSpeedHorizontal((WE.getCVars().getValueF("playerWalkingSpeed") * controllerListenerA.speed)
+				getPlayer(controllerListenerA.player.getPlayerNumber() - 1).setSpeedHorizontal(((float) CavelandCVars.playerWalkingSpeed.getValue() * controllerListenerA.speed)
 				);
 			}
 		}
 
 		if (controllerListenerB != null) {//second controller used
 			if (controllerListenerB.speed > 0) {
-				getPlayer(controllerListenerB.player.getPlayerNumber() - 1).setSpeedHorizontal((WE.getCVars().getValueF("playerWalkingSpeed") * controllerListenerB.speed)
+				getPlayer(controllerListenerB.player.getPlayerNumber() - 1).setSpeedHorizontal(((float) CavelandCVars.playerWalkingSpeed.getValue() * controllerListenerB.speed)
 				);
 			}
 		}
@@ -373,12 +374,12 @@ public class CLGameView extends GameView {
 			getPlayer(1).prepareThrow();
 		}
 
-		if (throwDown[0] >= WE.getCVars().getValueF("playerItemDropTime")) {
+		if (throwDown[0] >= CavelandCVars.PLAYERITEMDROPTIME.get()) {
 			getPlayer(0).dropItem();
 			throwDown[0] = -1;
 		}
 
-		if (throwDown[1] >= WE.getCVars().getValueF("playerItemDropTime")) {
+		if (throwDown[1] >= CavelandCVars.PLAYERITEMDROPTIME.get()) {
 			getPlayer(1).dropItem();
 			throwDown[1] = -1;
 		}
@@ -406,6 +407,7 @@ public class CLGameView extends GameView {
 
 	@Override
 	public void render() {
+		RenderStatistics.getInstance().update();
 		super.render();
 		//Draw HUD
 		setShader(getShader());
@@ -441,6 +443,14 @@ public class CLGameView extends GameView {
 				Color.WHITE.cpy()
 			);
 		}
+		if (RenderStatistics.getInstance().isEnabled()) {
+			drawString(
+				RenderStatistics.getInstance().toString(),
+				50,
+				Gdx.graphics.getHeight() - 50,
+				Color.WHITE.cpy()
+			);
+		}
 		getSpriteBatchProjection().end();
 	}
 
@@ -548,7 +558,7 @@ public class CLGameView extends GameView {
 				} else {
 					parent.throwDown[1] = -1;
 				}
-				if (throwDown[player.getPlayerNumber() - 1] >= WE.getCVars().getValueF("playerItemDropTime")) {
+				if (throwDown[player.getPlayerNumber() - 1] >= CavelandCVars.PLAYERITEMDROPTIME.get()) {
 					player.throwItem();
 				}
 			}
@@ -610,7 +620,7 @@ public class CLGameView extends GameView {
 				}
 
 				player.setSpeedHorizontal(
-					(WE.getCVars().getValueF("playerWalkingSpeed") * speed)
+					((float) CavelandCVars.playerWalkingSpeed.getValue() * speed)
 				);
 			}
 			return false;
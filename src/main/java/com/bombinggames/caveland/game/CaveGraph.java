@@ -0,0 +1,387 @@
+package com.bombinggames.caveland.game;
+
+import com.bombinggames.caveland.gameobjects.Ejira;
+import com.bombinggames.wurfelengine.core.map.Coordinate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * The rooms of the generated caves and how their portals connect them. The
+ * rooms are a grid given by the {@link ChunkGenerator}. Every room has an
+ * entry in the floor leading to the next cave and an exit portal leading to
+ * the previous cave, or to the surface from the first cave. A portal always
+ * leads to the room of the cave in the row of {@link ChunkGenerator#getCaveUp(int)}.
+ * The walls of a room can not be passed.
+ *
+ * @author Benedikt Vogler
+ */
+public class CaveGraph {
+
+	/**
+	 * rooms of these caves are created at start
+	 */
+	private static final int PRECOMPUTEDCAVES = 32;
+	/**
+	 * searches do not take more rooms
+	 */
+	private static final int MAXROOMS = 256;
+	/**
+	 * enemies only spawn in rooms nearer to a player
+	 */
+	private static final int SPAWNDISTANCE = 1;
+	private static CaveGraph instance;
+
+	/**
+	 *
+	 * @return
+	 */
+	public static CaveGraph getInstance() {
+		if (instance == null) {
+			instance = new CaveGraph();
+		}
+		return instance;
+	}
+
+	private static long key(int column, int row) {
+		return ((long) column << 32) | (row & 0xffffffffL);
+	}
+
+	/**
+	 * everything which is not generated
+	 */
+	private final Room surface = new Room(-1, -1);
+	private final HashMap<Long, Room> rooms = new HashMap<>(64);
+	/**
+	 * row of the rooms the portals lead to
+	 */
+	private final int portalRow;
+	private final ArrayList<Room> playerRooms = new ArrayList<>(2);
+	private final ArrayDeque<Room> open = new ArrayDeque<>(16);
+	private final HashMap<Room, Room> cameFrom = new HashMap<>(16);
+
+	private CaveGraph() {
+		portalRow = ChunkGenerator.getRoomRow(ChunkGenerator.getCaveUp(0).getY());
+		for (int cave = 0; cave < PRECOMPUTEDCAVES; cave++) {
+			getRoom(cave, portalRow);
+		}
+	}
+
+	/**
+	 *
+	 * @param coord
+	 * @return the room containing the coordinate, the surface if not in the
+	 * generated caves, null if in a column left of the first cave
+	 */
+	public Room getRoom(Coordinate coord) {
+		if (coord.getY() < ChunkGenerator.GENERATORBORDER) {
+			return surface;
+		}
+		return getRoom(ChunkGenerator.getRoomColumn(coord.getX()), ChunkGenerator.getRoomRow(coord.getY()));
+	}
+
+	/**
+	 *
+	 * @param column
+	 * @param row
+	 * @return null if the column is left of the first cave
+	 */
+	public Room getRoom(int column, int row) {
+		if (column < 0) {
+			return null;
+		}
+		long key = key(column, row);
+		Room room = rooms.get(key);
+		if (room == null) {
+			room = new Room(column, row);
+			rooms.put(key, room);
+		}
+		return room;
+	}
+
+	/**
+	 *
+	 * @param caveNumber
+	 * @return the room the portals lead to, null if there is no such cave
+	 */
+	public Room getCave(int caveNumber) {
+		return getRoom(caveNumber, portalRow);
+	}
+
+	/**
+	 *
+	 * @return everything which is not in a generated cave
+	 */
+	public Room getSurface() {
+		return surface;
+	}
+
+	/**
+	 * The next goal on the way through the caves. If the goal is in another
+	 * room the way leads to the portal of the room which is on the shortest
+	 * way.
+	 *
+	 * @param start
+	 * @param goal
+	 * @return the goal if in the same room or if there is no known way
+	 */
+	public Coordinate getWaypoint(Coordinate start, Coordinate goal) {
+		Room from = getRoom(start);
+		Room to = getRoom(goal);
+		if (from == null || to == null || from == to) {
+			return goal;
+		}
+		Room next = getNextRoom(from, to);
+		if (next == null) {
+			return goal;
+		}
+		if (next == from.getDown() && from.hasEntry()) {
+			//the entry is a hole in the floor, stand above it
+			return from.getEntry().add(0, 0, 1);
+		}
+		if (next == from.getUp() && from.hasExit()) {
+			return from.getExit();
+		}
+		return goal;
+	}
+
+	/**
+	 * Finds the first room on the shortest way.
+	 *
+	 * @param from
+	 * @param to
+	 * @return null if there is no way or it is too long
+	 */
+	public Room getNextRoom(Room from, Room to) {
+		if (!search(from, to)) {
+			return null;
+		}
+		Room room = to;
+		Room previous = cameFrom.get(room);
+		while (previous != from) {
+			room = previous;
+			previous = cameFrom.get(room);
+		}
+		return room;
+	}
+
+	/**
+	 *
+	 * @param from
+	 * @param to
+	 * @return amount of portals on the shortest way, -1 if there is no way
+	 */
+	public int getDistance(Room from, Room to) {
+		if (from == to) {
+			return 0;
+		}
+		if (!search(from, to)) {
+			return -1;
+		}
+		int distance = 0;
+		for (Room room = to; room != from; room = cameFrom.get(room)) {
+			distance++;
+		}
+		return distance;
+	}
+
+	/**
+	 * breadth first search, fills {@link #cameFrom}
+	 */
+	private boolean search(Room from, Room to) {
+		open.clear();
+		cameFrom.clear();
+		open.add(from);
+		cameFrom.put(from, from);
+		while (!open.isEmpty() && cameFrom.size() < MAXROOMS) {
+			Room room = open.poll();
+			if (room == to) {
+				return true;
+			}
+			visit(room, room.getDown());
+			visit(room, room.getUp());
+		}
+		return cameFrom.containsKey(to);
+	}
+
+	private void visit(Room from, Room neighbour) {
+		if (neighbour != null && !cameFrom.containsKey(neighbour)) {
+			cameFrom.put(neighbour, from);
+			open.add(neighbour);
+		}
+	}
+
+	/**
+	 * Stores the rooms of the players. Call once per frame.
+	 *
+	 * @param players
+	 */
+	public void update(Ejira... players) {
+		playerRooms.clear();
+		for (Ejira player : players) {
+			if (player != null && player.hasPosition()) {
+				Room room = getRoom(player.getPosition().toCoord());
+				if (room != null) {
+					playerRooms.add(room);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Enemies are only spawned in rooms the players can reach soon.
+	 *
+	 * @param room
+	 * @return true if a player is in this room or behind a neighbouring portal
+	 */
+	public boolean allowsSpawning(Room room) {
+		for (Room playerRoom : playerRooms) {
+			int distance = getDistance(playerRoom, room);
+			if (distance >= 0 && distance <= SPAWNDISTANCE) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * A room of the caves or the surface.
+	 */
+	public class Room {
+
+		private final int column;
+		private final int row;
+
+		private Room(int column, int row) {
+			this.column = column;
+			this.row = row;
+		}
+
+		/**
+		 *
+		 * @return true if this is everything outside the generated caves
+		 */
+		public boolean isSurface() {
+			return this == surface;
+		}
+
+		/**
+		 *
+		 * @return -1 for the surface
+		 */
+		public int getCaveNumber() {
+			return column;
+		}
+
+		/**
+		 *
+		 * @return
+		 */
+		public int getColumn() {
+			return column;
+		}
+
+		/**
+		 *
+		 * @return
+		 */
+		public int getRow() {
+			return row;
+		}
+
+		/**
+		 *
+		 * @return false for the surface because the entries are built by the
+		 * player
+		 */
+		public boolean hasEntry() {
+			return !isSurface();
+		}
+
+		/**
+		 *
+		 * @return false for the surface
+		 */
+		public boolean hasExit() {
+			return !isSurface();
+		}
+
+		/**
+		 * copy safe
+		 *
+		 * @return the entry block, null for the surface
+		 */
+		public Coordinate getEntry() {
+			return hasEntry() ? ChunkGenerator.getCaveEntry(column, row) : null;
+		}
+
+		/**
+		 * copy safe
+		 *
+		 * @return the position of the exit portal, null for the surface
+		 */
+		public Coordinate getExit() {
+			return hasExit() ? ChunkGenerator.getCaveExit(column, row) : null;
+		}
+
+		/**
+		 * copy safe
+		 *
+		 * @return null for the surface
+		 */
+		public Coordinate getCenter() {
+			return isSurface() ? null : ChunkGenerator.getRoomCenter(column, row);
+		}
+
+		/**
+		 * copy safe
+		 *
+		 * @return where the entry leads to
+		 */
+		public Coordinate getEntryTarget() {
+			return ChunkGenerator.getCaveUp(column + 1);
+		}
+
+		/**
+		 * copy safe
+		 *
+		 * @return where the exit portal leads to, null for the surface
+		 */
+		public Coordinate getExitTarget() {
+			if (isSurface()) {
+				return null;
+			}
+			if (column == 0) {
+				return new Coordinate(0, 0, 5);
+			}
+			return ChunkGenerator.getCaveDown(column - 1);
+		}
+
+		/**
+		 *
+		 * @return the room behind the entry
+		 */
+		public Room getDown() {
+			return getCave(column + 1);
+		}
+
+		/**
+		 *
+		 * @return the room behind the exit portal, null for the surface
+		 */
+		public Room getUp() {
+			if (isSurface()) {
+				return null;
+			}
+			if (column == 0) {
+				return surface;
+			}
+			return getCave(column - 1);
+		}
+
+		@Override
+		public String toString() {
+			return isSurface() ? "surface" : "cave " + column + " room " + row;
+		}
+	}
+}
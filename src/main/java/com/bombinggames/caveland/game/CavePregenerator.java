@@ -0,0 +1,289 @@
+package com.bombinggames.caveland.game;
+
+import com.badlogic.gdx.math.Vector2;
+import com.bombinggames.caveland.gameobjects.Ejira;
+import com.bombinggames.wurfelengine.core.map.Chunk;
+import com.bombinggames.wurfelengine.core.map.Coordinate;
+import com.bombinggames.wurfelengine.core.map.Point;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Generates the block data of cave chunks on worker threads before the players
+ * get there. The caves are a pure function of the coordinates so the results
+ * can be computed anywhere. {@link ChunkGenerator#generate(int, int, int)}
+ * reads from here if the chunk is ready.
+ *
+ * @author Benedikt Vogler
+ */
+public class CavePregenerator {
+
+	/**
+	 * how many chunks ahead in movement direction are generated
+	 */
+	private static final int LOOKAHEAD = 2;
+	/**
+	 * chunks further away from every player than this are removed
+	 */
+	private static final int EVICTDISTANCE = 6;
+
+	private final ForkJoinPool pool;
+	private final Map<Long, int[]> chunks = new ConcurrentHashMap<>(32);
+	private final Set<Long> scheduled = ConcurrentHashMap.newKeySet();
+	/**
+	 * per player the chunks at the portal targets which are kept although far
+	 * away
+	 */
+	private final IdentityHashMap<Ejira, Pins> pinned = new IdentityHashMap<>(2);
+	private final int blocksX;
+	private final int blocksY;
+	private final int blocksZ;
+	/**
+	 * the last chunk read from. Most reads are in the same chunk.
+	 */
+	private volatile ChunkData lastRead;
+
+	/**
+	 * Uses all but one core.
+	 */
+	public CavePregenerator() {
+		pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+		blocksX = Chunk.getBlocksX();
+		blocksY = Chunk.getBlocksY();
+		blocksZ = Chunk.getBlocksZ();
+	}
+
+	private static long key(int chunkX, int chunkY) {
+		return ((long) chunkX << 32) | (chunkY & 0xffffffffL);
+	}
+
+	/**
+	 * Schedules the generation of a chunk. Does nothing if not in the
+	 * generated cave layer or already scheduled.
+	 *
+	 * @param chunkX
+	 * @param chunkY
+	 */
+	public void request(int chunkX, int chunkY) {
+		if ((chunkY + 1) * blocksY <= ChunkGenerator.GENERATORBORDER) {
+			return;
+		}
+		long key = key(chunkX, chunkY);
+		if (scheduled.add(key)) {
+			pool.execute(() -> {
+				int[] data = new int[blocksX * blocksY * blocksZ];
+				ChunkGenerator.generateChunk(
+					chunkX * blocksX,
+					chunkY * blocksY,
+					0,
+					blocksX,
+					blocksY,
+					blocksZ,
+					data
+				);
+				//undo if evicted while generating, evict may run between the check and the put
+				chunks.put(key, data);
+				if (!scheduled.contains(key)) {
+					chunks.remove(key, data);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Schedules the chunk containing this coordinate.
+	 *
+	 * @param coord
+	 */
+	public void request(Coordinate coord) {
+		request(Math.floorDiv(coord.getX(), blocksX), Math.floorDiv(coord.getY(), blocksY));
+	}
+	
+	/**
+	 * Schedules the chunk containing this coordinate and keeps it until the
+	 * player changes the cave.
+	 *
+	 * @param coord
+	 * @param pins the pins of the player
+	 */
+	private void requestPinned(Coordinate coord, Pins pins) {
+		int chunkX = Math.floorDiv(coord.getX(), blocksX);
+		int chunkY = Math.floorDiv(coord.getY(), blocksY);
+		pins.chunks.add(key(chunkX, chunkY));
+		request(chunkX, chunkY);
+	}
+
+	/**
+	 * Get a pregenerated block. Thread safe.
+	 *
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @return the block or -1 if not generated yet
+	 */
+	public int getBlock(int x, int y, int z) {
+		if (z < 0 || z >= blocksZ) {
+			return -1;
+		}
+		int chunkX = Math.floorDiv(x, blocksX);
+		int chunkY = Math.floorDiv(y, blocksY);
+		ChunkData chunk = lastRead;
+		if (chunk == null || chunk.chunkX != chunkX || chunk.chunkY != chunkY) {
+			int[] data = chunks.get(key(chunkX, chunkY));
+			if (data == null) {
+				return -1;
+			}
+			chunk = new ChunkData(chunkX, chunkY, data);
+			lastRead = chunk;
+		}
+		return chunk.data[((x - chunkX * blocksX) * blocksY + y - chunkY * blocksY) * blocksZ + z];
+	}
+
+	/**
+	 * Schedules the chunks around and in front of the players and at the
+	 * portal targets of the current cave. Removes chunks which are far away.
+	 *
+	 * @param players
+	 */
+	public void update(Ejira... players) {
+		boolean anyPlayer = false;
+		for (Ejira player : players) {
+			if (player == null || !player.hasPosition()) {
+				continue;
+			}
+			anyPlayer = true;
+			Point pos = player.getPosition();
+			int chunkX = pos.getChunkX();
+			int chunkY = pos.getChunkY();
+			//the surrounding
+			for (int x = -1; x <= 1; x++) {
+				for (int y = -1; y <= 1; y++) {
+					request(chunkX + x, chunkY + y);
+				}
+			}
+
+			//ahead
+			Vector2 movement = player.getMovementHor();
+			if (movement.len2() > 0.01f) {
+				int dirX = Math.abs(movement.x) > 0.3f ? (int) Math.signum(movement.x) : 0;
+				int dirY = Math.abs(movement.y) > 0.3f ? (int) Math.signum(movement.y) : 0;
+				for (int i = 2; i <= LOOKAHEAD + 1; i++) {
+					request(chunkX + dirX * i, chunkY + dirY * i);
+				}
+			}
+
+			//portal targets of this room and of the portal leading up to it
+			CaveGraph.Room room = CaveGraph.getInstance().getRoom(pos.toCoord());
+			Pins pins = pinned.get(player);
+			if (pins == null) {
+				pins = new Pins();
+				pinned.put(player, pins);
+			}
+			if (room != null && !room.isSurface() && room != pins.room) {
+				pins.room = room;
+				pins.chunks.clear();
+				requestPinned(room.getEntryTarget(), pins);
+				requestPinned(room.getDown().getExitTarget(), pins);
+				if (room.getUp() != null && !room.getUp().isSurface()) {
+					requestPinned(room.getExitTarget(), pins);
+				}
+			}
+		}
+
+		if (anyPlayer) {
+			evict(players);
+		}
+	}
+
+	private void evict(Ejira... players) {
+		Iterator<Long> iter = scheduled.iterator();
+		while (iter.hasNext()) {
+			long key = iter.next();
+			if (isPinned(key)) {
+				continue;
+			}
+			int chunkX = (int) (key >> 32);
+			int chunkY = (int) key;
+			boolean near = false;
+			for (Ejira player : players) {
+				if (player != null
+					&& player.hasPosition()
+					&& Math.abs(player.getPosition().getChunkX() - chunkX) <= EVICTDISTANCE
+					&& Math.abs(player.getPosition().getChunkY() - chunkY) <= EVICTDISTANCE
+				) {
+					near = true;
+					break;
+				}
+			}
+			if (!near) {
+				iter.remove();
+				chunks.remove(key);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @param key
+	 * @return true if a player keeps this chunk
+	 */
+	private boolean isPinned(long key) {
+		for (Pins pins : pinned.values()) {
+			if (pins.chunks.contains(key)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Removes every result. Call if the map changed.
+	 */
+	public void clear() {
+		scheduled.clear();
+		chunks.clear();
+		pinned.clear();
+		lastRead = null;
+	}
+
+	/**
+	 * stops the worker threads
+	 */
+	public void dispose() {
+		pool.shutdownNow();
+		clear();
+	}
+
+	/**
+	 * The portal target chunks pinned for a player.
+	 */
+	private static class Pins {
+
+		/**
+		 * the room the portal targets are pinned for
+		 */
+		private CaveGraph.Room room;
+		private final HashSet<Long> chunks = new HashSet<>(6);
+	}
+
+	/**
+	 * immutable so that it can be shared between threads
+	 */
+	private static class ChunkData {
+
+		private final int chunkX;
+		private final int chunkY;
+		private final int[] data;
+
+		ChunkData(int chunkX, int chunkY, int[] data) {
+			this.chunkX = chunkX;
+			this.chunkY = chunkY;
+			this.data = data;
+		}
+	}
+}
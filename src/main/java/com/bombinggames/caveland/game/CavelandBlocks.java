@@ -19,6 +19,7 @@ import com.bombinggames.caveland.gameobjects.logicblocks.Turret;
 import com.bombinggames.wurfelengine.core.map.AbstractBlockLogicExtension;
 import com.bombinggames.wurfelengine.core.map.BlockConfig;
 import com.bombinggames.wurfelengine.core.map.rendering.RenderCell;
+import java.util.Arrays;
 
 /**
  * Using this class registers the logicblocks.
@@ -26,8 +27,39 @@ import com.bombinggames.wurfelengine.core.map.rendering.RenderCell;
  * @author Benedikt Vogler
  */
 public class CavelandBlocks extends BlockConfig {
+	
+	private static final byte OBSTACLE = 1;
+	private static final byte TRANSPARENT = 2;
+	private static final byte SIDES = 4;
+	
+	/**
+	 * lookup for {@link #hardMaterial(byte) }, index is the unsigned id
+	 */
+	private static final boolean[] HARDMATERIAL = new boolean[256];
+	/**
+	 * lookup for {@link #getLoot(byte) }, index is the unsigned id
+	 */
+	private static final CollectibleType[] LOOT = new CollectibleType[256];
+	
+	/**
+	 * the properties of every id and value combination, index is <i>(id&lt;&lt;8)|value</i> unsigned
+	 */
+	private final byte[] flags = new byte[256*256];
 
 	static {
+		HARDMATERIAL[17] = true;
+		HARDMATERIAL[41] = true;
+		HARDMATERIAL[43] = true;
+		HARDMATERIAL[60] = true;
+		HARDMATERIAL[3] = true;//stone
+		
+		LOOT[3] = CollectibleType.Stone;
+		LOOT[41] = CollectibleType.Cristall;
+		LOOT[42] = CollectibleType.Sulfur;
+		LOOT[43] = CollectibleType.Ironore;
+		LOOT[44] = CollectibleType.Coal;
+		LOOT[72] = CollectibleType.Wood;
+		
 		//this could be refacoted to ClBlocks constructor but then here a simple call to CLBlocks.values() is needed so the enums are initialized
 		for (CLBlocks blockdef : CLBlocks.values()) {
 			if (blockdef.logicClass != null){
@@ -36,6 +68,29 @@ public class CavelandBlocks extends BlockConfig {
 		}
 
 	}
+	
+	/**
+	 * fills the property table
+	 */
+	public CavelandBlocks() {
+		super();
+		for (int id = 0; id < 256; id++) {
+			for (int value = 0; value < 256; value++) {
+				byte flag = 0;
+				if (computeObstacle((byte) id, (byte) value)) {
+					flag |= OBSTACLE;
+				}
+				if (computeTransparent((byte) id, (byte) value)) {
+					flag |= TRANSPARENT;
+				}
+				if (computeSides((byte) id, (byte) value)) {
+					flag |= SIDES;
+				}
+				flags[(id << 8) | value] = flag;
+			}
+		}
+	}
+	
 	/**
 	 *
 	 */
@@ -141,54 +196,27 @@ public class CavelandBlocks extends BlockConfig {
 		 */
 		UNDEFINED((byte) -1, "undefined", true, null);
 		
+		/**
+		 * reverse lookup table, index is the unsigned id
+		 */
+		private static final CLBlocks[] BYID = new CLBlocks[256];
+		
+		static {
+			Arrays.fill(BYID, UNDEFINED);
+			for (CLBlocks block : values()) {
+				if (block != UNDEFINED) {
+					BYID[block.id & 255] = block;
+				}
+			}
+		}
+		
 		/**
 		 * reverse loookup
 		 * @param id
 		 * @return 
 		 */
 		public static CLBlocks valueOf(byte id){
-			switch (id) {
-				case 11:
-					return CONSTRUCTIONSITE;
-				case 12:
-					return OVEN;
-				case 13:
-					return TORCH;
-				case 14:
-					return POWERSTATION;
-				case 15:
-					return LIFT;
-				case 16:
-					return ENTRY;
-				case 17:
-					return INDESTRUCTIBLEOBSTACLE;
-				case 18:
-					return LIFT_Ground;
-				case 41:
-					return CRYSTAL;
-				case 42:
-					return SULFUR;
-				case 43:
-					return IRONORE;
-				case 44:
-					return COAL;
-				case 52:
-					return TURRET;
-				case 53:
-					return ROBOTFACTORY;	
-				case 54:
-					return POWERCABLE;
-				case 55:
-					return RAILS;
-				case 56:
-					return RAILSBOOSTER;
-				case 60:
-					return FLAGPOLE;
-				case 72:
-					return TREE;
-				default:
-					return UNDEFINED;
-			}
+			return BYID[id & 255];
 		}
 		
 		private final byte id;
@@ -240,22 +268,7 @@ public class CavelandBlocks extends BlockConfig {
 	 * @return
 	 */
 	public static boolean hardMaterial(byte id) {
-		if (id == 17) {
-			return true;
-		}
-		if (id == 41) {
-			return true;
-		}
-		if (id == 43) {
-			return true;
-		}
-		if (id == 60) {
-			return true;
-		}
-		if (id == 3) {
-			return true;//stone
-		}
-		return false;
+		return HARDMATERIAL[id & 255];
 	}
 	
 	/**
@@ -264,21 +277,7 @@ public class CavelandBlocks extends BlockConfig {
 	 * @return
 	 */
 	public static CollectibleType getLoot(byte id) {
-		switch (id) {
-			case 3:
-				return CollectibleType.Stone;
-			case 41:
-				return CollectibleType.Cristall;
-			case 42:
-				return CollectibleType.Sulfur;
-			case 43:
-				return CollectibleType.Ironore;
-			case 44:
-				return CollectibleType.Coal;
-			case 72:
-				return CollectibleType.Wood;
-		}
-		return null;
+		return LOOT[id & 255];
 	}
 	
 	@Override
@@ -313,10 +312,7 @@ public class CavelandBlocks extends BlockConfig {
 
 	@Override
 	public boolean hasSides(byte id, byte value) {
-		if (id == CLBlocks.INDESTRUCTIBLEOBSTACLE.id && value > 0) {
-			return true;
-		}
-		return CLBlocks.valueOf(id).hasSides;
+		return (flags[((id & 255) << 8) | (value & 255)] & SIDES) != 0;
 	}
 
 	@Override
@@ -324,6 +320,28 @@ public class CavelandBlocks extends BlockConfig {
 		if (id < 10) {
 			return super.isObstacle(id, value);
 		}
+		return (flags[((id & 255) << 8) | (value & 255)] & OBSTACLE) != 0;
+	}
+
+	@Override
+	public boolean isTransparent(byte id, byte value) {
+		return (flags[((id & 255) << 8) | (value & 255)] & TRANSPARENT) != 0;
+	}
+	
+	private static boolean computeSides(byte id, byte value) {
+		if (id == CLBlocks.INDESTRUCTIBLEOBSTACLE.id && value > 0) {
+			return true;
+		}
+		return CLBlocks.valueOf(id).hasSides;
+	}
+
+	/**
+	 * ids below 10 are handled by the engine
+	 * @param id
+	 * @param value
+	 * @return 
+	 */
+	private static boolean computeObstacle(byte id, byte value) {
 		if (id==12) return true;
 		if (id==13) return false;
 		if (id==14) return true;
@@ -340,8 +358,7 @@ public class CavelandBlocks extends BlockConfig {
 		return false;
 	}
 
-	@Override
-	public boolean isTransparent(byte id, byte value) {
+	private static boolean computeTransparent(byte id, byte value) {
 		if (id==12) return true;
 		if (id==13) return true;
 		if (id==14) return true;
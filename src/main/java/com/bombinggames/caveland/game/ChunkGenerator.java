@@ -1,8 +1,11 @@
 package com.bombinggames.caveland.game;
 
 import com.bombinggames.caveland.gameobjects.ExitPortal;
+import com.bombinggames.wurfelengine.core.map.Chunk;
 import com.bombinggames.wurfelengine.core.map.Coordinate;
 import com.bombinggames.wurfelengine.core.map.Generator;
+import java.io.File;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  *
@@ -32,6 +35,70 @@ public class ChunkGenerator implements Generator {
 	static final float wallsize =1;
 	static final float roomWithPadding = g+p+wallsize;
 	
+	/**
+	 * result of {@link #roomMask(int, int)}: inside, the entry is at z=2
+	 */
+	private static final int COLUMN_ENTRY = 4;
+	/**
+	 * result of {@link #roomMask(int, int)}: inside, the exit is at z=4
+	 */
+	private static final int COLUMN_EXIT = 5;
+	
+	/**
+	 * the room mask of the last column. The map asks for every block of a column after another.
+	 */
+	private volatile ColumnMask lastColumn;
+	/**
+	 * the chunk of the last block which was checked in the archive
+	 */
+	private volatile long lastArchiveChunk = Long.MIN_VALUE;
+	/**
+	 * archived chunks which the engine generated before they were extracted,
+	 * kept until the next map
+	 */
+	private static final ConcurrentHashMap<Long, int[]> archivedBlocks = new ConcurrentHashMap<>(4);
+	private static CavePregenerator pregenerator;
+	private static MapArchive archive;
+	private static File archiveFolder;
+	
+	/**
+	 * If set the blocks are taken from the pregenerated chunks if available.
+	 * @param pregenerator can be null
+	 */
+	public static void setPregenerator(CavePregenerator pregenerator) {
+		ChunkGenerator.pregenerator = pregenerator;
+	}
+	
+	/**
+	 * If set the chunks of the archive are written into the map folder before
+	 * the engine generates them.
+	 *
+	 * @param archive can be null
+	 * @param mapFolder where the chunks are written
+	 */
+	public static void setArchive(MapArchive archive, File mapFolder) {
+		ChunkGenerator.archive = archive;
+		ChunkGenerator.archiveFolder = mapFolder;
+		archivedBlocks.clear();
+	}
+	
+	/**
+	 * Writes the archived chunks around a chunk into the map folder. Call
+	 * before the chunks are loaded.
+	 *
+	 * @param chunkX
+	 * @param chunkY
+	 * @param radius in chunks
+	 * @return true if the center chunk was written now
+	 */
+	public static boolean extractArchived(int chunkX, int chunkY, int radius) {
+		MapArchive current = archive;
+		if (current == null) {
+			return false;
+		}
+		return current.extractAround(archiveFolder, chunkX, chunkY, radius);
+	}
+	
 	/**
 	 * @param args the command line arguments
 	 */
@@ -65,52 +132,167 @@ public class ChunkGenerator implements Generator {
 	
 	@Override
 	public int generate(int x, int y, int z) {
+		if (archive != null) {
+			int block = checkArchive(x, y, z);
+			if (block != -1) {
+				return block;
+			}
+		}
 		if (y<CAVESBORDER) {//overworld
-			
-			//floor
-			if (z<3) return 2;
-			if (z==3) return 1;
+			return generateOverworld(z);
+		}
+		if (y < GENERATORBORDER)
+			return 0;
+		
+		//underworld
+		if (pregenerator != null) {
+			int block = pregenerator.getBlock(x, y, z);
+			if (block != -1) {
+				return block;
+			}
+		}
+		
+		ColumnMask column = lastColumn;
+		if (column == null || column.x != x || column.y != y) {
+			column = new ColumnMask(x, y, roomMask(x, y));
+			lastColumn = column;
+		}
+		return generateUnderworld(x, y, z, column.mask);
+	}
+	
+	/**
+	 * The engine generates a chunk if it has no file for it, so the archived
+	 * neighbours are written now before they are loaded too. If the chunk
+	 * itself was not written before its blocks are read from the archive.
+	 *
+	 * @return the archived block, -1 if not archived
+	 */
+	private int checkArchive(int x, int y, int z) {
+		int blocksX = Chunk.getBlocksX();
+		int blocksY = Chunk.getBlocksY();
+		int blocksZ = Chunk.getBlocksZ();
+		int chunkX = Math.floorDiv(x, blocksX);
+		int chunkY = Math.floorDiv(y, blocksY);
+		long key = ((long) chunkX << 32) | (chunkY & 0xffffffffL);
+		if (key != lastArchiveChunk) {
+			lastArchiveChunk = key;
+			MapArchive current = archive;
+			if (extractArchived(chunkX, chunkY, 1) && current != null) {
+				//loaded before it was extracted, the file is used from the next load on
+				int[] data = new int[blocksX * blocksY * blocksZ];
+				if (current.readBlocks(chunkX, chunkY, blocksX, blocksY, blocksZ, data)) {
+					archivedBlocks.put(key, data);
+				}
+			}
+		}
+		if (archivedBlocks.isEmpty() || z < 0 || z >= blocksZ) {
+			return -1;
+		}
+		int[] data = archivedBlocks.get(key);
+		if (data == null) {
+			return -1;
+		}
+		return data[((x - chunkX * blocksX) * blocksY + y - chunkY * blocksY) * blocksZ + z];
+	}
+	
+	/**
+	 * Fills a box of blocks. The room shape is computed once per (x,y) column and then used for every z.
+	 * @param xStart
+	 * @param yStart
+	 * @param zStart
+	 * @param sizeX
+	 * @param sizeY
+	 * @param sizeZ
+	 * @param out the blocks, index is <i>((x-xStart)*sizeY + (y-yStart))*sizeZ + z-zStart</i>. Must have at least sizeX*sizeY*sizeZ entries.
+	 * @see #generate(int, int, int) 
+	 */
+	public static void generateChunk(int xStart, int yStart, int zStart, int sizeX, int sizeY, int sizeZ, int[] out) {
+		int i = 0;
+		for (int x = xStart; x < xStart+sizeX; x++) {
+			for (int y = yStart; y < yStart+sizeY; y++) {
+				generateColumn(x, y, zStart, sizeZ, out, i);
+				i += sizeZ;
+			}
+		}
+	}
+	
+	/**
+	 * Fills a column of blocks.
+	 * @param x
+	 * @param y
+	 * @param zStart
+	 * @param sizeZ
+	 * @param out
+	 * @param offset where the block at zStart is written
+	 * @see #generate(int, int, int) 
+	 */
+	public static void generateColumn(int x, int y, int zStart, int sizeZ, int[] out, int offset) {
+		if (y<CAVESBORDER) {
+			for (int z = zStart; z < zStart+sizeZ; z++) {
+				out[offset++] = generateOverworld(z);
+			}
+		} else if (y < GENERATORBORDER) {
+			for (int z = zStart; z < zStart+sizeZ; z++) {
+				out[offset++] = 0;
+			}
 		} else {
-			if (y < GENERATORBORDER)
-				return 0;
-			
-			//underworld
-			int insideout = insideOutside(x, y, z);
-			
-//			if (insideout==2)
-//				return RenderBlock.getInstance(CavelandBlocks.CLBlocks.ENTRY.getSpriteId());
-			
-			if (insideout==2)
-				return CavelandBlocks.CLBlocks.ENTRY.getId();
-				
-			//walls
-			if (insideout==0) {//build a wall
-				if (z<=4)
-					return CavelandBlocks.CLBlocks.INDESTRUCTIBLEOBSTACLE.getId()+(1<<8);
+			int mask = roomMask(x, y);
+			for (int z = zStart; z < zStart+sizeZ; z++) {
+				out[offset++] = generateUnderworld(x, y, z, mask);
 			}
-			
-			if (insideout==-1)//build air for outside
-				return 0;	
-			
-			if (z==3)
-				if ((x*y*2+x+y*3+500) % 8==y % 7)
-					if (x%2==0 && y%2==0){
-						if (y%5==0)
-							return CavelandBlocks.CLBlocks.SULFUR.getId();
-						else
-							return CavelandBlocks.CLBlocks.COAL.getId();
-					} else {
-						if (y%8==0)
-							return CavelandBlocks.CLBlocks.IRONORE.getId();
-						else
-							return 2;
-					}
-			
-			//floor
-			if (z<=2)
-				return (byte)2;
-			
 		}
+	}
+	
+	private static int generateOverworld(int z) {
+		//floor
+		if (z<3) return 2;
+		if (z==3) return 1;
+		return 0;
+	}
+	
+	/**
+	 * 
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @param mask the room mask of this column
+	 * @return 
+	 */
+	private static int generateUnderworld(int x, int y, int z, int mask) {
+		int insideout = insideOutside(mask, z);
+		
+//		if (insideout==2)
+//			return RenderBlock.getInstance(CavelandBlocks.CLBlocks.ENTRY.getSpriteId());
+
+		if (insideout==2)
+			return CavelandBlocks.CLBlocks.ENTRY.getId();
+
+		//walls
+		if (insideout==0) {//build a wall
+			if (z<=4)
+				return CavelandBlocks.CLBlocks.INDESTRUCTIBLEOBSTACLE.getId()+(1<<8);
+		}
+
+		if (insideout==-1)//build air for outside
+			return 0;	
+
+		if (z==3)
+			if ((x*y*2+x+y*3+500) % 8==y % 7)
+				if (x%2==0 && y%2==0){
+					if (y%5==0)
+						return CavelandBlocks.CLBlocks.SULFUR.getId();
+					else
+						return CavelandBlocks.CLBlocks.COAL.getId();
+				} else {
+					if (y%8==0)
+						return CavelandBlocks.CLBlocks.IRONORE.getId();
+					else
+						return 2;
+				}
+
+		//floor
+		if (z<=2)
+			return (byte)2;
 		return 0;
 	}
 	
@@ -122,25 +304,36 @@ public class ChunkGenerator implements Generator {
 	 */
 	@Override
 	public void spawnEntities(int x, int y, int z){
+		if (isExitPortalPosition(x, y, z)) {
+			ExitPortal portal = (ExitPortal) new ExitPortal().spawn(new Coordinate(x, y, z).toPoint());
+			portal.enableEnemySpawner();
+			CaveGraph.Room room = CaveGraph.getInstance().getRoom(getRoomColumn(x), getRoomRow(y));
+			if (room != null) {
+				portal.setTarget(room.getExitTarget());
+			}
+			//portal.setSpriteValue((byte) 1);
+			//portal.enableEnemySpawner();
+		}
+	}
+	
+	/**
+	 * Is at this coordinate the hole in the ceiling of a cave where the exit portal gets spawned?
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @return
+	 * @see #spawnEntities(int, int, int) 
+	 */
+	public static boolean isExitPortalPosition(int x, int y, int z) {
 		if (y > GENERATORBORDER) {
 			//apply p
 			float xRoom = (((x) % roomWithPadding) + roomWithPadding) % roomWithPadding-p;
 			float yRoom = (((y*yStrech) % roomWithPadding) + roomWithPadding) % roomWithPadding-p;
 
 			//loch in der Decke
-			if (xRoom==g-5 && yRoom==p+2 && z == 4) {
-				ExitPortal portal = (ExitPortal) new ExitPortal().spawn(new Coordinate(x, y, z).toPoint());
-				portal.enableEnemySpawner();
-				if (getCaveNumber(x, y, z)==0) {
-					//exit to surface
-					portal.setTarget(new Coordinate(0, 0, 5));
-				} else {
-					portal.setTarget(getCaveDown(getCaveNumber(x, y, z)-1));
-				}
-				//portal.setSpriteValue((byte) 1);
-				//portal.enableEnemySpawner();
-			}
+			return xRoom==g-5 && yRoom==p+2 && z == 4;
 		}
+		return false;
 	}
 	
 	/**
@@ -207,6 +400,91 @@ public class ChunkGenerator implements Generator {
 	}
 	
 	
+	/**
+	 * The rooms are a grid. The rooms of a column belong to the same cave.
+	 * @param x
+	 * @return the column of the room in the grid, equal to the cave number
+	 */
+	public static int getRoomColumn(int x){
+		return (int) Math.floor(x / roomWithPadding);
+	}
+	
+	/**
+	 * 
+	 * @param y
+	 * @return the row of the room in the grid
+	 */
+	public static int getRoomRow(int y){
+		return (int) Math.floor(y * yStrech / roomWithPadding);
+	}
+	
+	/**
+	 * The entry block of the room. Falling into it leads to the next cave.
+	 * copy safe
+	 * @param inRoom a coordinate inside the room
+	 * @return 
+	 */
+	public static Coordinate getCaveEntry(Coordinate inRoom){
+		return getCaveEntry(getRoomColumn(inRoom.getX()), getRoomRow(inRoom.getY()));
+	}
+	
+	/**
+	 * The entry block of the room. Falling into it leads to the next cave.
+	 * copy safe
+	 * @param column
+	 * @param row
+	 * @return 
+	 */
+	public static Coordinate getCaveEntry(int column, int row){
+		return new Coordinate(
+			(int) (roomWithPadding*column+p+6),
+			(int) ((roomWithPadding*row+p+g-8)/yStrech),
+			2
+		);
+	}
+	
+	/**
+	 * The position of the exit portal of the room. It leads to the previous cave.
+	 * copy safe
+	 * @param inRoom a coordinate inside the room
+	 * @return 
+	 * @see #isExitPortalPosition(int, int, int) 
+	 */
+	public static Coordinate getCaveExit(Coordinate inRoom){
+		return getCaveExit(getRoomColumn(inRoom.getX()), getRoomRow(inRoom.getY()));
+	}
+	
+	/**
+	 * The position of the exit portal of the room. It leads to the previous cave.
+	 * copy safe
+	 * @param column
+	 * @param row
+	 * @return 
+	 * @see #isExitPortalPosition(int, int, int) 
+	 */
+	public static Coordinate getCaveExit(int column, int row){
+		return new Coordinate(
+			(int) (roomWithPadding*column+p+g-5),
+			(int) ((roomWithPadding*row+p+p+2)/yStrech),
+			4
+		);
+	}
+	
+	/**
+	 * copy safe
+	 * @param column
+	 * @param row
+	 * @return the middle of the floor of the room
+	 * @see #getCaveCenter(int) 
+	 */
+	public static Coordinate getRoomCenter(int column, int row){
+		return new Coordinate(
+			(int) (roomWithPadding*column+p+wallsize+g/2),
+			(int) ((roomWithPadding*row+p+g/2)/yStrech),
+			4
+		);
+	}
+	
 	/**
 	 * 
 	 * @param x
@@ -215,6 +493,30 @@ public class ChunkGenerator implements Generator {
 	 * @return -1 outside, 0 middle, 1 inside, 2 entry, 3 exit
 	 */
 	public static int insideOutside(int x, int y, int z){
+		return insideOutside(roomMask(x, y), z);
+	}
+	
+	/**
+	 * 
+	 * @param mask result of {@link #roomMask(int, int)}
+	 * @param z
+	 * @return -1 outside, 0 middle, 1 inside, 2 entry, 3 exit
+	 */
+	private static int insideOutside(int mask, int z){
+		if (mask == COLUMN_ENTRY)
+			return z==2 ? 2 : 1;
+		if (mask == COLUMN_EXIT)
+			return z==4 ? 3 : 1;
+		return mask;
+	}
+	
+	/**
+	 * The shape of the rooms does not depend on z so it can be computed once per column.
+	 * @param x
+	 * @param y
+	 * @return -1 outside, 0 middle, 1 inside, {@link #COLUMN_ENTRY} or {@link #COLUMN_EXIT} if inside and the entry or exit is in this column
+	 */
+	static int roomMask(int x, int y){
 		if (y>=GENERATORBORDER) {
 			//apply p
 			float xRoom = (((x) % roomWithPadding) + roomWithPadding) % roomWithPadding-p;
@@ -251,10 +553,10 @@ public class ChunkGenerator implements Generator {
 				if (firstCheckInside==false)
 					return 0;//must be in middle if was outside and now inside
 				else {
-					if (xRoom==6 && yRoom==g-8 && z==2)
-						return 2;
-					if (xRoom==g-7 && yRoom==6 && z==4)
-						return 3;
+					if (xRoom==6 && yRoom==g-8)
+						return COLUMN_ENTRY;
+					if (xRoom==g-7 && yRoom==6)
+						return COLUMN_EXIT;
 					return 1;//still inside
 				}
 			}
@@ -272,4 +574,19 @@ public class ChunkGenerator implements Generator {
 	public static int insideOutside(Coordinate coord){
 		return insideOutside(coord.getX(), coord.getY(), coord.getZ());
 	}
+	
+	/**
+	 * immutable so that it can be shared between threads
+	 */
+	private static class ColumnMask {
+		private final int x;
+		private final int y;
+		private final int mask;
+
+		ColumnMask(int x, int y, int mask) {
+			this.x = x;
+			this.y = y;
+			this.mask = mask;
+		}
+	}
 }
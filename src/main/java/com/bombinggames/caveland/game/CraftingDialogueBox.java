@@ -138,57 +138,10 @@ public class CraftingDialogueBox extends ActionBox {
 	 * @param recipe
 	 * @param inventory
 	 * @return 
+	 * @see Recipe#canCraft(CollectibleType[]) 
 	 */
 	public boolean canCraft(Recipe recipe, CollectibleType[] inventory){
-		if (inventory == null || inventory.length == 0 || recipe.ingredients.length > inventory.length) {
-			return false;
-		}
-		
-		int ing1 = -1;//slot number, -1 means not found in receipt
-		if (recipe.ingredients[0] == inventory[0]) {
-			ing1 = 0;
-		}
-		if (recipe.ingredients[0] == inventory[1]) {
-			ing1 = 1;
-		}
-		if (recipe.ingredients[0] == inventory[2]) {
-			ing1 = 2;
-		}
-
-		if (recipe.ingredients.length>1) {
-			int ing2 = -1;//not found in receipt
-			if (ing1 != -1 && ing1 != 0 && recipe.ingredients[1] == inventory[0]) {
-				ing2 = 0;
-			}
-			if (ing1 != 1 && ing1 != 1 && recipe.ingredients[1] == inventory[1]) {
-				ing2 = 1;
-			}
-			if (ing1 != 2 && ing1 != 2 && recipe.ingredients[1] == inventory[2]) {
-				ing2 = 2;
-			}
-
-			if (recipe.ingredients.length > 2) {
-				int ing3 = -1;//not found in receipt
-				if (ing1 != -1 && ing1 != 0 && ing2 != -1 && ing2 != 0 && recipe.ingredients[2] == inventory[0]) {
-					ing3 = 0;
-				}
-				if (ing1 != -1 && ing1 != 1 && ing2 != -1 && ing2 != 1 && recipe.ingredients[2] == inventory[1]) {
-					ing3 = 1;
-				}
-				if (ing1 != -1 && ing1 != 2 && ing2 != -1 && ing2 != 2 && recipe.ingredients[2] == inventory[2]) {
-					ing3 = 2;
-				}
-
-				if (ing1 != -1 && ing2 != -1 && ing3 != -1) {
-					return true;
-				}
-			} else if (ing1 != -1 && ing2 != -1) {
-				return true;
-			}
-		} else if (ing1 != -1) {
-			return true;
-		}
-		return false;
+		return recipe.canCraft(inventory);
 	}
 	
 	/**
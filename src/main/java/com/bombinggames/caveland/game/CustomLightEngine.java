@@ -35,6 +35,7 @@ import com.badlogic.gdx.graphics.Color;
 import com.bombinggames.wurfelengine.WE;
 import com.bombinggames.wurfelengine.core.lightengine.GlobalLightSource;
 import com.bombinggames.wurfelengine.core.lightengine.LightEngine;
+import com.bombinggames.wurfelengine.core.map.Coordinate;
 import com.bombinggames.wurfelengine.core.map.Position;
 import com.bombinggames.wurfelengine.core.map.rendering.RenderCell;
 
@@ -82,11 +83,31 @@ public class CustomLightEngine extends LightEngine {
 		caveSun.update(dt);
 	}
 	
+	/**
+	 * Classifies a position without creating a new object if possible.
+	 * @param pos
+	 * @return {@link LightZone#CAVE} or {@link LightZone#OVERWORLD}
+	 */
+	public static LightZone getZone(Position pos) {
+		if (pos instanceof Coordinate) {
+			return ((Coordinate) pos).getY() > ChunkGenerator.CAVESBORDER ? LightZone.CAVE : LightZone.OVERWORLD;
+		}
+		//the coordinate row is this ±1, depending on the position in the cell
+		int row = Math.floorDiv((int) pos.getPoint().getY(), RenderCell.GAME_DIAGLENGTH) * 2 + 1;
+		if (row - 1 > ChunkGenerator.CAVESBORDER) {
+			return LightZone.CAVE;
+		}
+		if (row + 1 <= ChunkGenerator.CAVESBORDER) {
+			return LightZone.OVERWORLD;
+		}
+		//at the border
+		return pos.toCoord().getY() > ChunkGenerator.CAVESBORDER ? LightZone.CAVE : LightZone.OVERWORLD;
+	}
 	
 	@Override
 	public GlobalLightSource getSun(Position pos) {
 		//in caves uses another light source
-		if (pos.toCoord().getY() > ChunkGenerator.CAVESBORDER) {
+		if (getZone(pos) == LightZone.CAVE) {
 			return caveSun;
 		} else {
 			return super.getSun(pos);
@@ -104,8 +125,24 @@ public class CustomLightEngine extends LightEngine {
 	@Override
 	public Color getAmbient(Position pos) {
 		//in caves use anotehr lgiht source
-		if (pos.toCoord().getY() > ChunkGenerator.CAVESBORDER)
+		if (getZone(pos) == LightZone.CAVE) {
 			return caveSun.getAmbient();
-		else return super.getAmbient(pos);
+		} else {
+			return super.getAmbient(pos);
+		}
+	}
+	
+	/**
+	 * Which global light sources are used.
+	 */
+	public static enum LightZone {
+		/**
+		 * sun and moon
+		 */
+		OVERWORLD,
+		/**
+		 * the cave light
+		 */
+		CAVE
 	}
 }
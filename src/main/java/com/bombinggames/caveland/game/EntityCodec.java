@@ -0,0 +1,271 @@
+package com.bombinggames.caveland.game;
+
+import com.bombinggames.wurfelengine.core.gameobjects.AbstractEntity;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+
+/**
+ * A compact binary format for entities. Every registered class has a codec
+ * which writes only the needed fields. Strings like the names of the codecs
+ * are written once per stream and then referenced by index. Used instead of
+ * the java serialization where Caveland writes entities itself.
+ *
+ * @author Benedikt Vogler
+ */
+public class EntityCodec {
+
+	/**
+	 * version of the format, written at the start of every stream. 2: fields
+	 * of the instant construction kits
+	 */
+	public static final byte VERSION = 2;
+	private static final HashMap<Class<?>, Entry> BYCLASS = new HashMap<>(16);
+	private static final HashMap<String, Entry> BYNAME = new HashMap<>(16);
+
+	/**
+	 * Registers a codec. Subclasses of the type use this codec too if they
+	 * are not registered themselves. Call at startup only, afterwards the
+	 * registry is only read.
+	 *
+	 * @param <T>
+	 * @param name saved in the stream, must not change
+	 * @param type
+	 * @param codec
+	 */
+	public static <T extends AbstractEntity> void register(String name, Class<T> type, Codec<T> codec) {
+		Entry entry = new Entry(name, codec);
+		BYCLASS.put(type, entry);
+		BYNAME.put(name, entry);
+	}
+
+	/**
+	 *
+	 * @param type
+	 * @return null if neither the class nor a superclass is registered
+	 */
+	private static Entry find(Class<?> type) {
+		Entry entry = BYCLASS.get(type);
+		//a few lookups, subclasses are not stored so that writing does not change the registry
+		Class<?> superclass = type.getSuperclass();
+		while (entry == null && superclass != null) {
+			entry = BYCLASS.get(superclass);
+			superclass = superclass.getSuperclass();
+		}
+		return entry;
+	}
+
+	/**
+	 *
+	 * @param entity
+	 * @return true if there is a codec for this entity
+	 */
+	public static boolean canWrite(AbstractEntity entity) {
+		return find(entity.getClass()) != null;
+	}
+
+	private EntityCodec() {
+	}
+
+	/**
+	 * Writes and reads the fields of one class of entities.
+	 *
+	 * @param <T>
+	 */
+	public interface Codec<T extends AbstractEntity> {
+
+		/**
+		 *
+		 * @param entity
+		 * @param out
+		 * @throws IOException
+		 */
+		void write(T entity, Writer out) throws IOException;
+
+		/**
+		 *
+		 * @param in
+		 * @return a new entity which is not spawned
+		 * @throws IOException
+		 */
+		T read(Reader in) throws IOException;
+	}
+
+	private static class Entry {
+
+		private final String name;
+		private final Codec<AbstractEntity> codec;
+
+		@SuppressWarnings("unchecked")
+		Entry(String name, Codec<?> codec) {
+			this.name = name;
+			this.codec = (Codec<AbstractEntity>) codec;
+		}
+	}
+
+	/**
+	 * Writes entities to a stream. Keep one writer per stream so that every
+	 * string is written only once.
+	 */
+	public static class Writer {
+
+		private final DataOutput out;
+		private final HashMap<String, Integer> strings = new HashMap<>(8);
+
+		/**
+		 * Writes the header.
+		 *
+		 * @param out
+		 * @throws IOException
+		 */
+		public Writer(DataOutput out) throws IOException {
+			this.out = out;
+			out.writeByte(VERSION);
+		}
+
+		/**
+		 *
+		 * @return the stream for the fields
+		 */
+		public DataOutput data() {
+			return out;
+		}
+
+		/**
+		 * Writes the index of the string. The string itself is written only
+		 * the first time.
+		 *
+		 * @param string
+		 * @throws IOException
+		 */
+		public void writeString(String string) throws IOException {
+			Integer index = strings.get(string);
+			if (index != null) {
+				out.writeShort(index);
+			} else {
+				out.writeShort(-1);
+				out.writeUTF(string);
+				strings.put(string, strings.size());
+			}
+		}
+
+		/**
+		 *
+		 * @param entity
+		 * @throws IOException if there is no codec for the entity
+		 */
+		public void writeEntity(AbstractEntity entity) throws IOException {
+			Entry entry = find(entity.getClass());
+			if (entry == null) {
+				throw new NotSerializableException(entity.getClass().getName());
+			}
+			writeString(entry.name);
+			entry.codec.write(entity, this);
+		}
+
+		/**
+		 * Writes the amount followed by the entities.
+		 *
+		 * @param entities
+		 * @throws IOException
+		 */
+		public void writeEntities(Collection<? extends AbstractEntity> entities) throws IOException {
+			out.writeInt(entities.size());
+			for (AbstractEntity entity : entities) {
+				writeEntity(entity);
+			}
+		}
+	}
+
+	/**
+	 * Reads entities written by a {@link Writer}.
+	 */
+	public static class Reader {
+
+		private final DataInput in;
+		private final byte version;
+		private final ArrayList<String> strings = new ArrayList<>(8);
+
+		/**
+		 * Reads the header.
+		 *
+		 * @param in
+		 * @throws IOException if the version is unknown
+		 */
+		public Reader(DataInput in) throws IOException {
+			this.in = in;
+			version = in.readByte();
+			if (version < 1 || version > VERSION) {
+				throw new IOException("Unknown entity format version " + version);
+			}
+		}
+
+		/**
+		 *
+		 * @return the stream for the fields
+		 */
+		public DataInput data() {
+			return in;
+		}
+
+		/**
+		 *
+		 * @return the version of the stream
+		 */
+		public byte getVersion() {
+			return version;
+		}
+
+		/**
+		 *
+		 * @return
+		 * @throws IOException
+		 */
+		public String readString() throws IOException {
+			int index = in.readShort();
+			if (index < 0) {
+				String string = in.readUTF();
+				strings.add(string);
+				return string;
+			}
+			return strings.get(index);
+		}
+
+		/**
+		 *
+		 * @return a new entity which is not spawned
+		 * @throws IOException if the codec is not registered
+		 */
+		public AbstractEntity readEntity() throws IOException {
+			String name = readString();
+			Entry entry = BYNAME.get(name);
+			if (entry == null) {
+				throw new IOException("No codec registered for " + name);
+			}
+			return entry.codec.read(this);
+		}
+
+		/**
+		 * Reads the amount followed by the entities.
+		 *
+		 * @param <T>
+		 * @param type the class of the entities
+		 * @param out the entities are added to this collection
+		 * @throws IOException
+		 */
+		public <T extends AbstractEntity> void readEntities(Class<T> type, Collection<T> out) throws IOException {
+			int size = in.readInt();
+			for (int i = 0; i < size; i++) {
+				AbstractEntity entity = readEntity();
+				if (!type.isInstance(entity)) {
+					throw new IOException("Expected " + type.getSimpleName() + " but read " + entity.getClass().getSimpleName());
+				}
+				out.add(type.cast(entity));
+			}
+		}
+	}
+}
@@ -0,0 +1,203 @@
+package com.bombinggames.caveland.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.math.Vector3;
+import com.bombinggames.wurfelengine.core.map.Coordinate;
+import com.bombinggames.wurfelengine.core.map.Intersection;
+import com.bombinggames.wurfelengine.core.map.Map;
+import com.bombinggames.wurfelengine.core.map.Point;
+import com.bombinggames.wurfelengine.core.map.rendering.RenderCell;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.function.Predicate;
+
+/**
+ * Shared line of sight checks. Results are stored per pair of cells, so every
+ * turret looking at the same target in a frame (and the following frames)
+ * reuses one ray march. Entries are removed when a block between the two
+ * cells is destroyed.
+ *
+ * @author Benedikt Vogler
+ */
+public class LineOfSight implements BlockChanges.Listener {
+
+	/**
+	 * a result is at most this old
+	 */
+	private static final int MAXAGEFRAMES = 30;
+	/**
+	 * size of a cell used for the cache in game space
+	 */
+	private static final int CELLSIZE = RenderCell.GAME_DIAGLENGTH2;
+	private static final int MAXENTRIES = 4096;
+	private static LineOfSight instance;
+
+	/**
+	 *
+	 * @return
+	 */
+	public static LineOfSight getInstance() {
+		if (instance == null) {
+			instance = new LineOfSight();
+		}
+		return instance;
+	}
+
+	private final HashMap<Long, Entry> cache = new HashMap<>(64);
+	/**
+	 * the blocking predicates, index is the unsigned id of the block which is ignored
+	 */
+	@SuppressWarnings("unchecked")
+	private final Predicate<Byte>[] predicates = new Predicate[256];
+	private final Vector3 direction = new Vector3();
+
+	private LineOfSight() {
+		BlockChanges.getInstance().addListener(this);
+	}
+
+	private static int cell(float value) {
+		return Math.floorDiv((int) value, CELLSIZE);
+	}
+
+	private static int cellZ(float value) {
+		return Math.floorDiv((int) value, RenderCell.GAME_EDGELENGTH);
+	}
+
+	private static long key(int x1, int y1, int z1, int x2, int y2, int z2) {
+		long h = x1;
+		h = h * 31 + y1;
+		h = h * 31 + z1;
+		h = h * 1_000_003 + x2;
+		h = h * 31 + y2;
+		h = h * 31 + z2;
+		return h;
+	}
+
+	/**
+	 * Non transparent blocks stop the view.
+	 *
+	 * @param ignoredBlock this block id does not block the view
+	 * @return
+	 */
+	private Predicate<Byte> getBlocking(byte ignoredBlock) {
+		Predicate<Byte> predicate = predicates[ignoredBlock & 255];
+		if (predicate == null) {
+			predicate = (Byte t) -> !Map.getBlockConfig().isTransparent(t, (byte) 0) && t != ignoredBlock;
+			predicates[ignoredBlock & 255] = predicate;
+		}
+		return predicate;
+	}
+
+	/**
+	 * Checks if there is no block between the two points.
+	 *
+	 * @param from
+	 * @param to
+	 * @param maxDistance in blocks
+	 * @param ignoredBlock this block id does not block the view, e.g. the
+	 * block of the viewer
+	 * @return true if the target can be seen
+	 */
+	public boolean canSee(Point from, Point to, float maxDistance, byte ignoredBlock) {
+		int x1 = cell(from.getX());
+		int y1 = cell(from.getY());
+		int z1 = cellZ(from.getZ());
+		int x2 = cell(to.getX());
+		int y2 = cell(to.getY());
+		int z2 = cellZ(to.getZ());
+		long key = key(x1, y1, z1, x2, y2, z2);
+		long frame = Gdx.graphics.getFrameId();
+
+		Entry entry = cache.get(key);
+		if (entry != null
+			&& entry.matches(x1, y1, z1, x2, y2, z2, ignoredBlock)
+			&& frame - entry.frame < MAXAGEFRAMES
+		) {
+			return entry.visible;
+		}
+
+		direction.set(
+			to.getX() - from.getX(),
+			to.getY() - from.getY(),
+			to.getZ() - from.getZ()
+		).nor();
+		Intersection intersect = from.rayMarching(direction, maxDistance, null, getBlocking(ignoredBlock));
+		//visible if the hit is behind the target
+		boolean visible = intersect == null || from.distanceTo(intersect.getPoint()) >= from.distanceTo(to);
+
+		if (entry == null) {
+			if (cache.size() >= MAXENTRIES) {
+				cache.clear();
+			}
+			entry = new Entry();
+			cache.put(key, entry);
+		}
+		entry.set(x1, y1, z1, x2, y2, z2, ignoredBlock);
+		entry.visible = visible;
+		entry.frame = frame;
+		return visible;
+	}
+
+	/**
+	 * Removes the results of every line passing near this block.
+	 *
+	 * @param coord the changed block
+	 */
+	@Override
+	public void blockChanged(Coordinate coord) {
+		Point point = coord.toPoint();
+		int x = cell(point.getX());
+		int y = cell(point.getY());
+		int z = cellZ(point.getZ());
+		Iterator<Entry> iter = cache.values().iterator();
+		while (iter.hasNext()) {
+			if (iter.next().boxContains(x, y, z)) {
+				iter.remove();
+			}
+		}
+	}
+
+	/**
+	 * Removes every result. Call if the map changed.
+	 */
+	public void clear() {
+		cache.clear();
+	}
+
+	/**
+	 * The result for a pair of cells.
+	 */
+	private static class Entry {
+
+		private int x1, y1, z1, x2, y2, z2;
+		private byte ignoredBlock;
+		private boolean visible;
+		private long frame;
+
+		void set(int x1, int y1, int z1, int x2, int y2, int z2, byte ignoredBlock) {
+			this.x1 = x1;
+			this.y1 = y1;
+			this.z1 = z1;
+			this.x2 = x2;
+			this.y2 = y2;
+			this.z2 = z2;
+			this.ignoredBlock = ignoredBlock;
+		}
+
+		boolean matches(int x1, int y1, int z1, int x2, int y2, int z2, byte ignoredBlock) {
+			return this.x1 == x1 && this.y1 == y1 && this.z1 == z1
+				&& this.x2 == x2 && this.y2 == y2 && this.z2 == z2
+				&& this.ignoredBlock == ignoredBlock;
+		}
+
+		/**
+		 * Is the cell inside the bounding box of the line, with one cell
+		 * margin?
+		 */
+		boolean boxContains(int x, int y, int z) {
+			return x >= Math.min(x1, x2) - 1 && x <= Math.max(x1, x2) + 1
+				&& y >= Math.min(y1, y2) - 1 && y <= Math.max(y1, y2) + 1
+				&& z >= Math.min(z1, z2) - 1 && z <= Math.max(z1, z2) + 1;
+		}
+	}
+}
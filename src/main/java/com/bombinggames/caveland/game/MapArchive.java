@@ -0,0 +1,436 @@
+package com.bombinggames.caveland.game;
+
+import com.badlogic.gdx.Gdx;
+import com.bombinggames.wurfelengine.core.WorkingDirectory;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A map in a single uncompressed file with an index of its files. The file is
+ * memory-mapped, so a chunk is read only when it is needed. It is not
+ * compressed because the views into the mapping would need a copy, the jar
+ * compresses the bundled archive anyway. The {@link AutoSave} journal uses
+ * the same format.<br>
+ * Layout: magic, version, amount of entries, then per entry name, offset and
+ * length, then the data of the files.
+ *
+ * @author Benedikt Vogler
+ */
+public class MapArchive {
+
+	/**
+	 * "CLMA"
+	 */
+	private static final int MAGIC = 0x434C4D41;
+	private static final byte VERSION = 1;
+	/**
+	 * file ending of archives in the maps folder
+	 */
+	public static final String ENDING = ".clmap";
+
+	/**
+	 * Packs a map folder.
+	 *
+	 * @param args map folder and archive file
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.out.println("usage: MapArchive <map folder> <archive file>");
+			return;
+		}
+		pack(new File(args[0]), new File(args[1]));
+	}
+
+	/**
+	 * Packs the files of a map folder. Sub folders like the save slots are not
+	 * packed.
+	 *
+	 * @param folder
+	 * @param archive
+	 * @throws IOException
+	 */
+	public static void pack(File folder, File archive) throws IOException {
+		File[] files = folder.listFiles(file -> file.isFile() && !file.isHidden());
+		if (files == null) {
+			throw new IOException(folder + " is not a folder");
+		}
+		Arrays.sort(files);
+		String[] names = new String[files.length];
+		int[] lengths = new int[files.length];
+		for (int i = 0; i < files.length; i++) {
+			names[i] = files[i].getName();
+			lengths[i] = (int) files[i].length();
+		}
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(archive)))) {
+			writeHeader(out, names, lengths);
+			for (File file : files) {
+				Files.copy(file.toPath(), out);
+			}
+		}
+	}
+
+	/**
+	 * Packs files from memory.
+	 *
+	 * @param files name and data of the files, the data is read from the position to the limit
+	 * @param archive
+	 * @throws IOException
+	 */
+	public static void pack(Map<String, ByteBuffer> files, File archive) throws IOException {
+		String[] names = files.keySet().toArray(new String[files.size()]);
+		int[] lengths = new int[names.length];
+		for (int i = 0; i < names.length; i++) {
+			lengths[i] = files.get(names[i]).remaining();
+		}
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(archive)))) {
+			writeHeader(out, names, lengths);
+			for (String name : names) {
+				ByteBuffer data = files.get(name).duplicate();
+				if (data.hasArray()) {
+					out.write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+				} else {
+					while (data.hasRemaining()) {
+						out.write(data.get());
+					}
+				}
+			}
+		}
+	}
+
+	private static void writeHeader(DataOutputStream out, String[] names, int[] lengths) throws IOException {
+		byte[][] encoded = new byte[names.length][];
+		int headerSize = 4 + 1 + 4;
+		for (int i = 0; i < names.length; i++) {
+			encoded[i] = names[i].getBytes(StandardCharsets.UTF_8);
+			headerSize += 2 + encoded[i].length + 4 + 4;
+		}
+		out.writeInt(MAGIC);
+		out.writeByte(VERSION);
+		out.writeInt(names.length);
+		int offset = headerSize;
+		for (int i = 0; i < names.length; i++) {
+			out.writeShort(encoded[i].length);
+			out.write(encoded[i]);
+			out.writeInt(offset);
+			out.writeInt(lengths[i]);
+			offset += lengths[i];
+		}
+	}
+
+	/**
+	 * Copies the bundled archive of a map into the maps folder if the map is
+	 * not there. Only the files which are not chunks are written into the map
+	 * folder, the chunks follow when they are needed.
+	 *
+	 * @param mapName
+	 * @param archive the bundled archive
+	 */
+	public static void install(String mapName, InputStream archive) {
+		File folder = new File(WorkingDirectory.getMapsFolder(), mapName);
+		File file = new File(WorkingDirectory.getMapsFolder(), mapName + ENDING);
+		if (archive == null) {
+			return;
+		}
+		try (InputStream in = archive) {
+			if (folder.exists() || file.exists()) {
+				return;
+			}
+			Files.copy(in, file.toPath());
+			MapArchive opened = open(file);
+			opened.extractFiles(folder);
+			opened.close();
+		} catch (IOException ex) {
+			Gdx.app.error("MapArchive", "Could not install map " + mapName + ": " + ex.getMessage());
+		}
+	}
+
+	/**
+	 *
+	 * @param mapName
+	 * @return null if the map has no archive
+	 */
+	public static MapArchive forMap(String mapName) {
+		File file = new File(WorkingDirectory.getMapsFolder(), mapName + ENDING);
+		if (!file.exists()) {
+			return null;
+		}
+		try {
+			return open(file);
+		} catch (IOException ex) {
+			Gdx.app.error("MapArchive", "Could not open " + file + ": " + ex.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 *
+	 * @param file
+	 * @return
+	 * @throws IOException if it is not an archive
+	 */
+	public static MapArchive open(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			//the mapping stays valid after closing the channel
+			return new MapArchive(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	/**
+	 * marks an empty layer in a chunk file
+	 */
+	private static final byte SIGN_COMMAND = '~';
+	private static final byte SIGN_EMPTYLAYER = 'e';
+
+	private static long key(int chunkX, int chunkY) {
+		return ((long) chunkX << 32) | (chunkY & 0xffffffffL);
+	}
+
+	private MappedByteBuffer buffer;
+	private final HashMap<String, Entry> files;
+	private final HashMap<Long, Entry> chunks;
+	/**
+	 * chunks which are in the map folder
+	 */
+	private final HashSet<Long> extracted;
+
+	private MapArchive(MappedByteBuffer buffer) throws IOException {
+		this.buffer = buffer;
+		if (buffer.remaining() < 9 || buffer.getInt() != MAGIC) {
+			throw new IOException("not a map archive");
+		}
+		byte version = buffer.get();
+		if (version > VERSION) {
+			throw new IOException("Unknown map archive version " + version);
+		}
+		int size = buffer.getInt();
+		files = new HashMap<>(size * 2);
+		chunks = new HashMap<>(size * 2);
+		extracted = new HashSet<>(size * 2);
+		byte[] name = new byte[256];
+		for (int i = 0; i < size; i++) {
+			int length = buffer.getShort() & 0xFFFF;
+			if (name.length < length) {
+				name = new byte[length];
+			}
+			buffer.get(name, 0, length);
+			Entry entry = new Entry(new String(name, 0, length, StandardCharsets.UTF_8), buffer.getInt(), buffer.getInt());
+			if (entry.offset + entry.length > buffer.capacity()) {
+				throw new IOException("Broken map archive at " + entry.name);
+			}
+			files.put(entry.name, entry);
+			if (entry.name.startsWith("chunk") && entry.name.endsWith(".wec")) {
+				String[] position = entry.name.substring(5, entry.name.length() - 4).split(",");
+				try {
+					chunks.put(key(Integer.parseInt(position[0]), Integer.parseInt(position[1])), entry);
+					entry.chunk = true;
+				} catch (NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+					//not a chunk
+				}
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @param name
+	 * @return true if the archive contains this file
+	 */
+	public boolean contains(String name) {
+		return files.containsKey(name);
+	}
+
+	/**
+	 *
+	 * @return the names of the files in the archive
+	 */
+	public Set<String> getNames() {
+		return Collections.unmodifiableSet(files.keySet());
+	}
+
+	/**
+	 *
+	 * @return amount of chunks in the archive
+	 */
+	public int getChunkAmount() {
+		return chunks.size();
+	}
+
+	/**
+	 * Reads a file without copying it.
+	 *
+	 * @param name
+	 * @return read only view of the mapped data, null if not in the archive
+	 */
+	public ByteBuffer get(String name) {
+		return view(files.get(name));
+	}
+
+	/**
+	 * Reads a chunk without copying it.
+	 *
+	 * @param chunkX
+	 * @param chunkY
+	 * @return read only view of the mapped data, null if not in the archive
+	 */
+	public ByteBuffer getChunk(int chunkX, int chunkY) {
+		return view(chunks.get(key(chunkX, chunkY)));
+	}
+
+	/**
+	 * Reads the blocks of a chunk file directly from the mapping. A layer is
+	 * either marked as empty or has every block with x changing fastest. An
+	 * air block is one byte, other blocks have id and value. The entities
+	 * after the blocks are not read.
+	 *
+	 * @param chunkX
+	 * @param chunkY
+	 * @param blocksX
+	 * @param blocksY
+	 * @param blocksZ
+	 * @param out the blocks without health, index is <i>(x*blocksY + y)*blocksZ + z</i> like
+	 * {@link ChunkGenerator#generateChunk(int, int, int, int, int, int, int[])}
+	 * @return false if the chunk is not in the archive or broken
+	 */
+	public boolean readBlocks(int chunkX, int chunkY, int blocksX, int blocksY, int blocksZ, int[] out) {
+		ByteBuffer data = getChunk(chunkX, chunkY);
+		if (data == null) {
+			return false;
+		}
+		try {
+			for (int z = 0; z < blocksZ; z++) {
+				if (data.get(data.position()) == SIGN_COMMAND && data.get(data.position() + 1) == SIGN_EMPTYLAYER) {
+					data.position(data.position() + 2);
+					for (int x = 0; x < blocksX; x++) {
+						for (int y = 0; y < blocksY; y++) {
+							out[(x * blocksY + y) * blocksZ + z] = 0;
+						}
+					}
+					continue;
+				}
+				for (int y = 0; y < blocksY; y++) {
+					for (int x = 0; x < blocksX; x++) {
+						int id = data.get() & 255;
+						int value = id == 0 ? 0 : data.get() & 255;
+						out[(x * blocksY + y) * blocksZ + z] = id | (value << 8);
+					}
+				}
+			}
+		} catch (BufferUnderflowException | IndexOutOfBoundsException ex) {
+			Gdx.app.error("MapArchive", "Broken chunk " + chunkX + "," + chunkY + " in archive");
+			return false;
+		}
+		return true;
+	}
+
+	private ByteBuffer view(Entry entry) {
+		if (entry == null || buffer == null) {
+			return null;
+		}
+		ByteBuffer view = buffer.asReadOnlyBuffer();
+		view.position(entry.offset);
+		view.limit(entry.offset + entry.length);
+		return view.slice();
+	}
+
+	/**
+	 * Writes every file which is not a chunk into the folder. Existing files
+	 * are kept.
+	 *
+	 * @param folder
+	 * @throws IOException
+	 */
+	public void extractFiles(File folder) throws IOException {
+		for (Entry entry : files.values()) {
+			if (!entry.chunk) {
+				write(entry, folder);
+			}
+		}
+	}
+
+	/**
+	 * Writes the chunks around a chunk into the map folder if they are not
+	 * there. Existing files are kept because they may be newer. Can be called
+	 * by the threads generating chunks.
+	 *
+	 * @param folder the map folder
+	 * @param chunkX
+	 * @param chunkY
+	 * @param radius in chunks
+	 * @return true if the center chunk is in the archive and was not written
+	 * before
+	 */
+	public synchronized boolean extractAround(File folder, int chunkX, int chunkY, int radius) {
+		boolean centerWritten = false;
+		for (int x = chunkX - radius; x <= chunkX + radius; x++) {
+			for (int y = chunkY - radius; y <= chunkY + radius; y++) {
+				long key = key(x, y);
+				Entry entry = chunks.get(key);
+				if (entry != null && extracted.add(key)) {
+					try {
+						write(entry, folder);
+						if (x == chunkX && y == chunkY) {
+							centerWritten = true;
+						}
+					} catch (IOException ex) {
+						extracted.remove(key);
+						Gdx.app.error("MapArchive", "Could not write " + entry.name + ": " + ex.getMessage());
+					}
+				}
+			}
+		}
+		return centerWritten;
+	}
+
+	private void write(Entry entry, File folder) throws IOException {
+		File file = new File(folder, entry.name);
+		if (file.exists()) {
+			return;
+		}
+		folder.mkdirs();
+		try (FileChannel out = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+			ByteBuffer data = view(entry);
+			while (data.hasRemaining()) {
+				out.write(data);
+			}
+		}
+	}
+
+	/**
+	 * The mapping is released by the garbage collector.
+	 */
+	public synchronized void close() {
+		buffer = null;
+	}
+
+	private static class Entry {
+
+		private final String name;
+		private final int offset;
+		private final int length;
+		private boolean chunk;
+
+		Entry(String name, int offset, int length) {
+			this.name = name;
+			this.offset = offset;
+			this.length = length;
+		}
+	}
+}
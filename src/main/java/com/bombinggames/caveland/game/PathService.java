@@ -0,0 +1,229 @@
+package com.bombinggames.caveland.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.utils.LongArray;
+import com.bombinggames.wurfelengine.core.Controller;
+import com.bombinggames.wurfelengine.core.map.Chunk;
+import com.bombinggames.wurfelengine.core.map.Coordinate;
+import com.bombinggames.wurfelengine.core.map.PfNode;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Finds paths and keeps the results per pair of start and goal cell. The
+ * engine map is not thread safe, so the searches run on the game thread in
+ * {@link #update()}, at most {@link #MAXSEARCHESPERFRAME} per frame. A result
+ * is removed when a block in a chunk it passes changes or when it gets too
+ * old. Paths do not leave a cave room because the rooms are
+ * only connected by portals: if the goal is in another room the path leads to
+ * the portal of the room which is on the way, see
+ * {@link CaveGraph#getWaypoint(Coordinate, Coordinate)}.
+ *
+ * @author Benedikt Vogler
+ */
+public class PathService implements BlockChanges.Listener {
+
+	/**
+	 * a result is at most this old
+	 */
+	private static final int MAXAGEFRAMES = 600;
+	private static final int MAXENTRIES = 512;
+	/**
+	 * more searches wait for the next frame
+	 */
+	private static final int MAXSEARCHESPERFRAME = 4;
+	private static PathService instance;
+
+	/**
+	 *
+	 * @return
+	 */
+	public static PathService getInstance() {
+		if (instance == null) {
+			instance = new PathService();
+		}
+		return instance;
+	}
+
+	private static long cellKey(int x, int y, int z) {
+		return ((long) (x & 0x1FFFFF) << 42) | ((long) (y & 0x1FFFFF) << 21) | (z & 0x1FFFFF);
+	}
+
+	private static long chunkKey(int chunkX, int chunkY) {
+		return ((long) chunkX << 32) | (chunkY & 0xffffffffL);
+	}
+
+	private final HashMap<Key, Entry> cache = new HashMap<>(64);
+	/**
+	 * requested searches in the order of the requests
+	 */
+	private final LinkedHashMap<Key, Entry> pending = new LinkedHashMap<>(16);
+	/**
+	 * reused for the lookups
+	 */
+	private final Key lookup = new Key(0, 0);
+	private int hits;
+	private int searches;
+
+	private PathService() {
+		BlockChanges.getInstance().addListener(this);
+	}
+
+	/**
+	 * Returns the path if it is known, otherwise requests the search. Call
+	 * again in a later frame to get the result.
+	 *
+	 * @param start
+	 * @param goal if in another room the path ends at the portal on the way
+	 * @return null while searching. Empty if there is no path. Do not modify.
+	 */
+	public DefaultGraphPath<PfNode> find(Coordinate start, Coordinate goal) {
+		goal = CaveGraph.getInstance().getWaypoint(start, goal);
+		long startKey = cellKey(start.getX(), start.getY(), start.getZ());
+		long goalKey = cellKey(goal.getX(), goal.getY(), goal.getZ());
+		lookup.start = startKey;
+		lookup.goal = goalKey;
+		long frame = Gdx.graphics.getFrameId();
+
+		Entry entry = cache.get(lookup);
+		if (entry != null && frame - entry.frame < MAXAGEFRAMES) {
+			hits++;
+			return entry.path;
+		}
+
+		if (pending.containsKey(lookup)) {
+			return null;
+		}
+		if (!start.isInMemoryAreaXY() || !goal.isInMemoryAreaXY()) {
+			return null;
+		}
+
+		Entry search = new Entry();
+		search.from = start.cpy();
+		search.to = goal.cpy();
+		pending.put(new Key(startKey, goalKey), search);
+		return null;
+	}
+
+	/**
+	 * Runs the oldest requested searches. Call once per frame.
+	 */
+	public void update() {
+		long frame = Gdx.graphics.getFrameId();
+		int budget = MAXSEARCHESPERFRAME;
+		Iterator<java.util.Map.Entry<Key, Entry>> iter = pending.entrySet().iterator();
+		while (budget > 0 && iter.hasNext()) {
+			java.util.Map.Entry<Key, Entry> mapEntry = iter.next();
+			Entry search = mapEntry.getValue();
+			iter.remove();
+			//the chunks may have been unloaded since the request
+			if (!search.from.isInMemoryAreaXY() || !search.to.isInMemoryAreaXY()) {
+				continue;
+			}
+			budget--;
+			searches++;
+			search.path = Controller.getMap().findPath(search.from, search.to);
+			if (search.path == null) {
+				search.path = new DefaultGraphPath<>(0);
+			}
+			search.from = null;
+			search.to = null;
+			search.frame = frame;
+			search.chunks = new LongArray(false, 4);
+			for (PfNode node : search.path) {
+				long chunk = chunkKey(
+					Math.floorDiv(node.getX(), Chunk.getBlocksX()),
+					Math.floorDiv(node.getY(), Chunk.getBlocksY())
+				);
+				if (!search.chunks.contains(chunk)) {
+					search.chunks.add(chunk);
+				}
+			}
+			if (cache.size() >= MAXENTRIES) {
+				cache.clear();
+			}
+			cache.put(mapEntry.getKey(), search);
+		}
+	}
+
+	/**
+	 * Removes the paths passing the chunk of this block.
+	 *
+	 * @param coord the changed block
+	 */
+	@Override
+	public void blockChanged(Coordinate coord) {
+		long chunk = chunkKey(
+			Math.floorDiv(coord.getX(), Chunk.getBlocksX()),
+			Math.floorDiv(coord.getY(), Chunk.getBlocksY())
+		);
+		Iterator<Entry> iter = cache.values().iterator();
+		while (iter.hasNext()) {
+			Entry entry = iter.next();
+			//empty paths may be blocked by the block
+			if (entry.chunks.size == 0 || entry.chunks.contains(chunk)) {
+				iter.remove();
+			}
+		}
+	}
+
+	/**
+	 * Removes every result and the requested searches. Call if the map changed.
+	 */
+	public void clear() {
+		cache.clear();
+		pending.clear();
+	}
+
+	@Override
+	public String toString() {
+		return "paths cached: " + cache.size() + ", hits: " + hits + ", searches: " + searches + ", waiting: " + pending.size();
+	}
+
+	/**
+	 * The pair of start and goal cell.
+	 */
+	private static class Key {
+
+		private long start;
+		private long goal;
+
+		Key(long start, long goal) {
+			this.start = start;
+			this.goal = goal;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return start == other.start && goal == other.goal;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * Long.hashCode(start) + Long.hashCode(goal);
+		}
+	}
+
+	/**
+	 * A path or a requested search.
+	 */
+	private static class Entry {
+
+		/**
+		 * set while waiting for the search
+		 */
+		private Coordinate from, to;
+		private DefaultGraphPath<PfNode> path;
+		/**
+		 * the chunks the path passes
+		 */
+		private LongArray chunks;
+		private long frame;
+	}
+}
@@ -125,6 +125,64 @@ public class Recipe {
 		);
 	}
 
+	/**
+	 * Checks if the ingredients are contained in the first three slots.
+	 *
+	 * @param inventory the content of the inventory slots
+	 * @return
+	 */
+	public boolean canCraft(CollectibleType[] inventory){
+		if (inventory == null || inventory.length == 0 || ingredients.length > inventory.length) {
+			return false;
+		}
+		
+		int ing1 = -1;//slot number, -1 means not found in receipt
+		if (ingredients[0] == inventory[0]) {
+			ing1 = 0;
+		}
+		if (ingredients[0] == inventory[1]) {
+			ing1 = 1;
+		}
+		if (ingredients[0] == inventory[2]) {
+			ing1 = 2;
+		}
+
+		if (ingredients.length>1) {
+			int ing2 = -1;//not found in receipt
+			if (ing1 != -1 && ing1 != 0 && ingredients[1] == inventory[0]) {
+				ing2 = 0;
+			}
+			if (ing1 != 1 && ing1 != 1 && ingredients[1] == inventory[1]) {
+				ing2 = 1;
+			}
+			if (ing1 != 2 && ing1 != 2 && ingredients[1] == inventory[2]) {
+				ing2 = 2;
+			}
+
+			if (ingredients.length > 2) {
+				int ing3 = -1;//not found in receipt
+				if (ing1 != -1 && ing1 != 0 && ing2 != -1 && ing2 != 0 && ingredients[2] == inventory[0]) {
+					ing3 = 0;
+				}
+				if (ing1 != -1 && ing1 != 1 && ing2 != -1 && ing2 != 1 && ingredients[2] == inventory[1]) {
+					ing3 = 1;
+				}
+				if (ing1 != -1 && ing1 != 2 && ing2 != -1 && ing2 != 2 && ingredients[2] == inventory[2]) {
+					ing3 = 2;
+				}
+
+				if (ing1 != -1 && ing2 != -1 && ing3 != -1) {
+					return true;
+				}
+			} else if (ing1 != -1 && ing2 != -1) {
+				return true;
+			}
+		} else if (ing1 != -1) {
+			return true;
+		}
+		return false;
+	}
+
 	/**
 	 *
 	 * @return
@@ -0,0 +1,129 @@
+package com.bombinggames.caveland.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+import com.bombinggames.caveland.CavelandCVars;
+import com.bombinggames.caveland.gameobjects.EffectPool;
+import com.bombinggames.caveland.gameobjects.MovementOrders;
+
+/**
+ * Counts the draw calls, texture bindings and restarts of the world batch of
+ * the last frame. Only active in dev mode because the profiler wraps every gl
+ * call.
+ *
+ * @author Benedikt Vogler
+ */
+public class RenderStatistics {
+
+	private static RenderStatistics instance;
+
+	/**
+	 *
+	 * @return
+	 */
+	public static RenderStatistics getInstance() {
+		if (instance == null) {
+			instance = new RenderStatistics();
+		}
+		return instance;
+	}
+
+	private GLProfiler profiler;
+	private int drawCalls;
+	private int textureBindings;
+	private int shaderSwitches;
+	private int batchRestarts;
+	private int batchRestartsCounting;
+
+	private RenderStatistics() {
+	}
+
+	/**
+	 * Stores the counts of the last frame and starts counting again. Call
+	 * once per frame before rendering.
+	 */
+	public void update() {
+		boolean enabled = (boolean) CavelandCVars.devMode.getValue();
+		if (enabled && profiler == null) {
+			profiler = new GLProfiler(Gdx.graphics);
+		}
+		if (profiler == null) {
+			return;
+		}
+		if (enabled != profiler.isEnabled()) {
+			if (enabled) {
+				profiler.enable();
+			} else {
+				profiler.disable();
+			}
+		}
+		if (enabled) {
+			drawCalls = profiler.getDrawCalls();
+			textureBindings = profiler.getTextureBindings();
+			shaderSwitches = profiler.getShaderSwitches();
+			profiler.reset();
+		}
+		batchRestarts = batchRestartsCounting;
+		batchRestartsCounting = 0;
+	}
+
+	/**
+	 * Call if a batch is ended and begun again to change the bound textures.
+	 * Every restart flushes the batch.
+	 */
+	public void countBatchRestart() {
+		batchRestartsCounting++;
+	}
+
+	/**
+	 *
+	 * @return
+	 */
+	public boolean isEnabled() {
+		return profiler != null && profiler.isEnabled();
+	}
+
+	/**
+	 *
+	 * @return draw calls of the last frame
+	 */
+	public int getDrawCalls() {
+		return drawCalls;
+	}
+
+	/**
+	 *
+	 * @return
+	 */
+	public int getTextureBindings() {
+		return textureBindings;
+	}
+
+	/**
+	 *
+	 * @return
+	 */
+	public int getShaderSwitches() {
+		return shaderSwitches;
+	}
+
+	/**
+	 *
+	 * @return
+	 */
+	public int getBatchRestarts() {
+		return batchRestarts;
+	}
+
+	@Override
+	public String toString() {
+		return "draw calls: " + drawCalls
+			+ ", texture bindings: " + textureBindings
+			+ ", shader switches: " + shaderSwitches
+			+ ", batch restarts: " + batchRestarts
+			+ "\n" + EffectPool.getInstance()
+			+ "\n" + AiScheduler.getInstance()
+			+ "\n" + MovementOrders.getInstance()
+			+ "\n" + PathService.getInstance();
+	}
+}
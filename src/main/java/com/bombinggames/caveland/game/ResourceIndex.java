@@ -0,0 +1,335 @@
+package com.bombinggames.caveland.game;
+
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.LongArray;
+import com.bombinggames.wurfelengine.core.Controller;
+import com.bombinggames.wurfelengine.core.map.Chunk;
+import com.bombinggames.wurfelengine.core.map.Coordinate;
+import com.bombinggames.wurfelengine.core.map.Point;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+
+/**
+ * Positions of the mineable resource blocks per chunk. A chunk is scanned once
+ * when it is queried first while it is loaded. Robots reserve a block so that
+ * two robots do not mine the same one. Only blocks in sight are reserved, so
+ * that ore enclosed in rock is not held by a robot which can not reach it.
+ *
+ * @author Benedikt Vogler
+ */
+public class ResourceIndex implements BlockChanges.Listener {
+
+	/**
+	 * max distance of the line of sight check in blocks
+	 */
+	private static final float SIGHTDISTANCE = 12;
+	/**
+	 * at most this many candidates get a line of sight check per search
+	 */
+	private static final int MAXSIGHTCHECKS = 4;
+	private static ResourceIndex instance;
+
+	/**
+	 *
+	 * @return
+	 */
+	public static ResourceIndex getInstance() {
+		if (instance == null) {
+			instance = new ResourceIndex();
+		}
+		return instance;
+	}
+
+	/**
+	 *
+	 * @param id block id
+	 * @return true if robots can mine it
+	 */
+	public static boolean isResource(byte id) {
+		return id == CavelandBlocks.CLBlocks.COAL.getId()
+			|| id == CavelandBlocks.CLBlocks.IRONORE.getId()
+			|| id == CavelandBlocks.CLBlocks.CRYSTAL.getId()
+			|| id == CavelandBlocks.CLBlocks.SULFUR.getId();
+	}
+
+	private static long chunkKey(int chunkX, int chunkY) {
+		return ((long) chunkX << 32) | (chunkY & 0xffffffffL);
+	}
+
+	private static long key(int x, int y, int z) {
+		return ((long) (x & 0x1FFFFF) << 42) | ((long) (y & 0x1FFFFF) << 21) | (z & 0x1FFFFF);
+	}
+
+	private static int keyX(long key) {
+		return (int) ((key << 1) >> 43);
+	}
+
+	private static int keyY(long key) {
+		return (int) ((key << 22) >> 43);
+	}
+
+	private static int keyZ(long key) {
+		return (int) ((key << 43) >> 43);
+	}
+
+	/**
+	 * block keys of the resources per chunk
+	 */
+	private final HashMap<Long, LongArray> chunks = new HashMap<>(16);
+	/**
+	 * block key to the owner of the reservation
+	 */
+	private final HashMap<Long, Object> reservations = new HashMap<>(16);
+	private final int blocksX;
+	private final int blocksY;
+	private final int blocksZ;
+	private final Coordinate tmpCoord = new Coordinate(0, 0, 0);
+	/**
+	 * candidates of the running search
+	 */
+	private final LongArray candidates = new LongArray(false, 16);
+	private final FloatArray distances = new FloatArray(false, 16);
+
+	private ResourceIndex() {
+		blocksX = Chunk.getBlocksX();
+		blocksY = Chunk.getBlocksY();
+		blocksZ = Chunk.getBlocksZ();
+		BlockChanges.getInstance().addListener(this);
+	}
+
+	/**
+	 * Finds the nearest resource in sight which is not reserved by someone
+	 * else and reserves it.
+	 *
+	 * @param pos
+	 * @param radius in blocks
+	 * @param radiusZ in blocks
+	 * @param owner gets the reservation
+	 * @param except this block is skipped, can be null
+	 * @return the reserved block, null if there is none in range
+	 */
+	public Coordinate reserveNearest(Point pos, int radius, int radiusZ, Object owner, Coordinate except) {
+		Coordinate center = pos.toCoord();
+		long exceptKey = except == null ? -1 : key(except.getX(), except.getY(), except.getZ());
+		candidates.clear();
+		distances.clear();
+
+		int minChunkX = Math.floorDiv(center.getX() - radius, blocksX);
+		int maxChunkX = Math.floorDiv(center.getX() + radius, blocksX);
+		int minChunkY = Math.floorDiv(center.getY() - radius, blocksY);
+		int maxChunkY = Math.floorDiv(center.getY() + radius, blocksY);
+		for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+			for (int chunkY = minChunkY; chunkY <= maxChunkY; chunkY++) {
+				LongArray resources = getChunk(chunkX, chunkY);
+				if (resources == null) {
+					continue;
+				}
+				int i = 0;
+				while (i < resources.size) {
+					long key = resources.get(i);
+					int x = keyX(key);
+					int y = keyY(key);
+					int z = keyZ(key);
+					if (Math.abs(x - center.getX()) > radius
+						|| Math.abs(y - center.getY()) > radius
+						|| Math.abs(z - center.getZ()) > radiusZ
+					) {
+						i++;
+						continue;
+					}
+					tmpCoord.set(x, y, z);
+					//the block may have been changed without a notification
+					if (!isResource((byte) (Controller.getMap().getBlock(tmpCoord) & 255))) {
+						resources.removeIndex(i);
+						reservations.remove(key);
+						continue;
+					}
+					Object reservedBy = reservations.get(key);
+					if (key != exceptKey && (reservedBy == null || reservedBy == owner)) {
+						candidates.add(key);
+						distances.add(pos.distanceTo(tmpCoord));
+					}
+					i++;
+				}
+			}
+		}
+
+		//check the nearest candidates until one is in sight
+		for (int check = 0; check < MAXSIGHTCHECKS && candidates.size > 0; check++) {
+			int nearest = 0;
+			for (int i = 1; i < distances.size; i++) {
+				if (distances.get(i) < distances.get(nearest)) {
+					nearest = i;
+				}
+			}
+			long key = candidates.removeIndex(nearest);
+			distances.removeIndex(nearest);
+			tmpCoord.set(keyX(key), keyY(key), keyZ(key));
+			//the resource itself must not block the view
+			if (LineOfSight.getInstance().canSee(pos, tmpCoord.toPoint(), SIGHTDISTANCE, tmpCoord.getBlockId())) {
+				reservations.put(key, owner);
+				return new Coordinate(keyX(key), keyY(key), keyZ(key));
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Adds the resources in range which are not reserved to the list.
+	 *
+	 * @param pos
+	 * @param radius in blocks
+	 * @param radiusZ in blocks
+	 * @param list gets the free resources
+	 */
+	public void getFree(Point pos, int radius, int radiusZ, ArrayList<Coordinate> list) {
+		Coordinate center = pos.toCoord();
+		int minChunkX = Math.floorDiv(center.getX() - radius, blocksX);
+		int maxChunkX = Math.floorDiv(center.getX() + radius, blocksX);
+		int minChunkY = Math.floorDiv(center.getY() - radius, blocksY);
+		int maxChunkY = Math.floorDiv(center.getY() + radius, blocksY);
+		for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+			for (int chunkY = minChunkY; chunkY <= maxChunkY; chunkY++) {
+				LongArray resources = getChunk(chunkX, chunkY);
+				if (resources == null) {
+					continue;
+				}
+				for (int i = 0; i < resources.size; i++) {
+					long key = resources.get(i);
+					int x = keyX(key);
+					int y = keyY(key);
+					int z = keyZ(key);
+					if (Math.abs(x - center.getX()) <= radius
+						&& Math.abs(y - center.getY()) <= radius
+						&& Math.abs(z - center.getZ()) <= radiusZ
+						&& !reservations.containsKey(key)
+					) {
+						list.add(new Coordinate(x, y, z));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reserves a resource block.
+	 *
+	 * @param coord
+	 * @param owner
+	 * @return false if it is no resource or reserved by someone else
+	 */
+	public boolean reserve(Coordinate coord, Object owner) {
+		long key = key(coord.getX(), coord.getY(), coord.getZ());
+		Object reservedBy = reservations.get(key);
+		if (reservedBy != null) {
+			return reservedBy == owner;
+		}
+		if (!isResource(coord.getBlockId())) {
+			return false;
+		}
+		reservations.put(key, owner);
+		return true;
+	}
+
+	/**
+	 *
+	 * @param coord
+	 * @param owner
+	 * @return true if the block is still a resource reserved by the owner
+	 */
+	public boolean isReservedBy(Coordinate coord, Object owner) {
+		return reservations.get(key(coord.getX(), coord.getY(), coord.getZ())) == owner;
+	}
+
+	/**
+	 * Removes a reservation. Does nothing if someone else holds it.
+	 *
+	 * @param coord
+	 * @param owner
+	 */
+	public void release(Coordinate coord, Object owner) {
+		long key = key(coord.getX(), coord.getY(), coord.getZ());
+		if (reservations.get(key) == owner) {
+			reservations.remove(key);
+		}
+	}
+
+	/**
+	 * Adds a placed resource. Removes a destroyed block and its reservation.
+	 *
+	 * @param coord
+	 */
+	@Override
+	public void blockChanged(Coordinate coord) {
+		long key = key(coord.getX(), coord.getY(), coord.getZ());
+		LongArray resources = chunks.get(chunkKey(Math.floorDiv(coord.getX(), blocksX), Math.floorDiv(coord.getY(), blocksY)));
+		int block = Controller.getMap().getBlock(coord);
+		//a destroyed block has no health left
+		if (isResource((byte) (block & 255)) && block >> 16 > 0) {
+			if (resources != null && !resources.contains(key)) {
+				resources.add(key);
+			}
+		} else {
+			reservations.remove(key);
+			if (resources != null) {
+				resources.removeValue(key);
+			}
+		}
+	}
+
+	/**
+	 * Removes the index and every reservation. Call if the map is reloaded.
+	 */
+	public void clear() {
+		chunks.clear();
+		reservations.clear();
+	}
+
+	/**
+	 * Indexes the chunk if needed.
+	 *
+	 * @param chunkX
+	 * @param chunkY
+	 * @return null if the chunk is not loaded
+	 */
+	private LongArray getChunk(int chunkX, int chunkY) {
+		long chunkKey = chunkKey(chunkX, chunkY);
+		LongArray resources = chunks.get(chunkKey);
+		int left = chunkX * blocksX;
+		int top = chunkY * blocksY;
+		if (!tmpCoord.set(left, top, 0).isInMemoryAreaXY()) {
+			//unloaded chunks are indexed again when they are loaded
+			if (resources != null) {
+				chunks.remove(chunkKey);
+				dropReservations(resources);
+			}
+			return null;
+		}
+		if (resources != null) {
+			return resources;
+		}
+
+		resources = new LongArray(false, 16);
+		for (int x = left; x < left + blocksX; x++) {
+			for (int y = top; y < top + blocksY; y++) {
+				for (int z = 0; z < blocksZ; z++) {
+					if (isResource((byte) (Controller.getMap().getBlock(tmpCoord.set(x, y, z)) & 255))) {
+						resources.add(key(x, y, z));
+					}
+				}
+			}
+		}
+		chunks.put(chunkKey, resources);
+		return resources;
+	}
+
+	private void dropReservations(LongArray resources) {
+		Iterator<Long> iter = reservations.keySet().iterator();
+		while (iter.hasNext()) {
+			if (resources.contains(iter.next())) {
+				iter.remove();
+			}
+		}
+	}
+}
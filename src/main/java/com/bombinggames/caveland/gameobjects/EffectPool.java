@@ -0,0 +1,272 @@
+package com.bombinggames.caveland.gameobjects;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Pool;
+import com.bombinggames.wurfelengine.core.gameobjects.DestructionParticle;
+import com.bombinggames.wurfelengine.core.gameobjects.Particle;
+import com.bombinggames.wurfelengine.core.gameobjects.ParticleType;
+import com.bombinggames.wurfelengine.core.gameobjects.SimpleEntity;
+import com.bombinggames.wurfelengine.core.map.Point;
+
+/**
+ * Reuses short living effect entities like dust, dirt and hit sprites. An
+ * effect which ends is removed from the map and put back into the pool instead
+ * of being disposed. Every effect is reset when it is taken out of the pool.
+ *
+ * @author Benedikt Vogler
+ */
+public class EffectPool {
+
+	private static EffectPool instance;
+
+	/**
+	 *
+	 * @return
+	 */
+	public static EffectPool getInstance() {
+		if (instance == null) {
+			instance = new EffectPool();
+		}
+		return instance;
+	}
+
+	/**
+	 * amount of effects kept per type
+	 */
+	private static final int MAXPOOLED = 256;
+	private final Vector3 tmpMovement = new Vector3();
+	private int allocations;
+	private int reuses;
+
+	private final Pool<PooledParticle> particles = new Pool<PooledParticle>(32, MAXPOOLED) {
+		@Override
+		protected PooledParticle newObject() {
+			allocations++;
+			return new PooledParticle();
+		}
+	};
+
+	private final Pool<PooledDestructionParticle> destructionParticles = new Pool<PooledDestructionParticle>(32, MAXPOOLED) {
+		@Override
+		protected PooledDestructionParticle newObject() {
+			allocations++;
+			return new PooledDestructionParticle();
+		}
+	};
+
+	private final Pool<PooledSprite> sprites = new Pool<PooledSprite>(8, MAXPOOLED) {
+		@Override
+		protected PooledSprite newObject() {
+			allocations++;
+			return new PooledSprite();
+		}
+	};
+
+	private EffectPool() {
+	}
+
+	/**
+	 * Spawns a particle.
+	 *
+	 * @param id sprite id
+	 * @param ttl time to live in ms
+	 * @param type
+	 * @param color is copied, null for white
+	 * @param pos is copied
+	 * @return the spawned particle. Do not keep a reference after it ended.
+	 */
+	public Particle spawnParticle(byte id, float ttl, ParticleType type, Color color, Point pos) {
+		int free = particles.getFree();
+		PooledParticle particle = particles.obtain();
+		if (free > 0) {
+			reuses++;
+		}
+		particle.reset(id, ttl, type, color);
+		particle.spawn(pos.cpy());
+		return particle;
+	}
+
+	/**
+	 * Spawns a particle of a destroyed block or entity.
+	 *
+	 * @param id sprite id
+	 * @param pos is copied
+	 * @return the spawned particle. Do not keep a reference after it ended.
+	 */
+	public DestructionParticle spawnDestructionParticle(byte id, Point pos) {
+		int free = destructionParticles.getFree();
+		PooledDestructionParticle particle = destructionParticles.obtain();
+		if (free > 0) {
+			reuses++;
+		}
+		particle.reset(id);
+		particle.spawn(pos.cpy());
+		return particle;
+	}
+
+	/**
+	 * Spawns a sprite which is shown for some time.
+	 *
+	 * @param id sprite id
+	 * @param ttl time to live in ms
+	 * @param name
+	 * @param pos is copied
+	 * @return the spawned sprite. Do not keep a reference after it ended.
+	 */
+	public SimpleEntity spawnSprite(byte id, float ttl, String name, Point pos) {
+		int free = sprites.getFree();
+		PooledSprite sprite = sprites.obtain();
+		if (free > 0) {
+			reuses++;
+		}
+		sprite.reset(id, ttl, name);
+		sprite.spawn(pos.cpy());
+		return sprite;
+	}
+
+	/**
+	 *
+	 * @return amount of created effects
+	 */
+	public int getAllocations() {
+		return allocations;
+	}
+
+	/**
+	 *
+	 * @return amount of effects taken from the pool
+	 */
+	public int getReuses() {
+		return reuses;
+	}
+
+	/**
+	 *
+	 * @return amount of effects waiting in the pools
+	 */
+	public int getFree() {
+		return particles.getFree() + destructionParticles.getFree() + sprites.getFree();
+	}
+
+	/**
+	 * Removes every waiting effect.
+	 */
+	public void clear() {
+		particles.clear();
+		destructionParticles.clear();
+		sprites.clear();
+	}
+
+	@Override
+	public String toString() {
+		return "effects created: " + allocations + ", reused: " + reuses + ", pooled: " + getFree();
+	}
+
+	private class PooledParticle extends Particle {
+
+		private static final long serialVersionUID = 1L;
+		private final Color color = new Color();
+		private boolean pooled;
+
+		PooledParticle() {
+			super((byte) 22);
+			setSavePersistent(false);
+		}
+
+		void reset(byte id, float ttl, ParticleType type, Color color) {
+			pooled = false;
+			setSpriteId(id);
+			setTTL(ttl);
+			setType(type);
+			if (color == null) {
+				this.color.set(Color.WHITE);
+			} else {
+				this.color.set(color);
+			}
+			setColor(this.color);
+			setScaling(1);
+			setRotation(0);
+			setMovement(tmpMovement.setZero());
+		}
+
+		@Override
+		public void dispose() {
+			if (!pooled) {
+				pooled = true;
+				removeFromMap();
+				particles.free(this);
+			}
+		}
+	}
+
+	private class PooledDestructionParticle extends DestructionParticle {
+
+		private static final long serialVersionUID = 1L;
+		private boolean pooled;
+
+		PooledDestructionParticle() {
+			super((byte) 44);
+			setSavePersistent(false);
+		}
+
+		void reset(byte id) {
+			pooled = false;
+			setSpriteId(id);
+			setTTL(2000);
+			setScaling(1);
+			setRotation((float) Math.random() * 360);
+			setMovement(tmpMovement.set(
+				(float) (Math.random() - 0.5f) * 10.0f,
+				(float) (Math.random() - 0.5f) * 10.0f,
+				(float) Math.random() * 5f
+			));
+		}
+
+		@Override
+		public void dispose() {
+			if (!pooled) {
+				pooled = true;
+				removeFromMap();
+				destructionParticles.free(this);
+			}
+		}
+	}
+
+	private class PooledSprite extends SimpleEntity {
+
+		private static final long serialVersionUID = 1L;
+		private float timeTillEnd;
+		private boolean pooled;
+
+		PooledSprite() {
+			super((byte) 33);
+			setSavePersistent(false);
+		}
+
+		void reset(byte id, float ttl, String name) {
+			pooled = false;
+			setSpriteId(id);
+			setName(name);
+			timeTillEnd = ttl;
+		}
+
+		@Override
+		public void update(float dt) {
+			super.update(dt);
+			timeTillEnd -= dt;
+			if (timeTillEnd <= 0) {
+				dispose();
+			}
+		}
+
+		@Override
+		public void dispose() {
+			if (!pooled) {
+				pooled = true;
+				removeFromMap();
+				sprites.free(this);
+			}
+		}
+	}
+}
@@ -9,10 +9,12 @@ import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
+import com.bombinggames.caveland.CavelandCVars;
 import com.bombinggames.caveland.game.CLCamera;
 import com.bombinggames.caveland.game.CLGameView;
 import com.bombinggames.caveland.game.CavelandBlocks;
 import com.bombinggames.caveland.game.ChunkGenerator;
+import com.bombinggames.caveland.game.RenderStatistics;
 import com.bombinggames.caveland.gameobjects.collectibles.Collectible;
 import com.bombinggames.caveland.gameobjects.collectibles.CollectibleContainer;
 import com.bombinggames.caveland.gameobjects.collectibles.Inventory;
@@ -25,14 +27,12 @@ import com.bombinggames.wurfelengine.core.cvar.CVarSystemSave;
 import com.bombinggames.wurfelengine.core.gameobjects.AbstractEntity;
 import com.bombinggames.wurfelengine.core.gameobjects.AbstractGameObject;
 import com.bombinggames.wurfelengine.core.gameobjects.Controllable;
-import com.bombinggames.wurfelengine.core.gameobjects.DestructionParticle;
 import com.bombinggames.wurfelengine.core.gameobjects.MovableEntity;
 import com.bombinggames.wurfelengine.core.gameobjects.Particle;
 import com.bombinggames.wurfelengine.core.gameobjects.ParticleEmitter;
 import com.bombinggames.wurfelengine.core.gameobjects.ParticleType;
 import com.bombinggames.wurfelengine.core.gameobjects.PointLightSource;
 import com.bombinggames.wurfelengine.core.gameobjects.SimpleEntity;
-import com.bombinggames.wurfelengine.core.map.AbstractBlockLogicExtension;
 import com.bombinggames.wurfelengine.core.map.Chunk;
 import com.bombinggames.wurfelengine.core.map.Coordinate;
 import com.bombinggames.wurfelengine.core.map.Point;
@@ -66,6 +66,11 @@ public class Ejira extends CLMovableEntity implements Controllable, HasTeam {
 	private transient static TextureAtlas spritesheet;
 	private transient static Texture textureDiff;
 	private transient static Texture textureNormal;
+	/**
+	 * a bit brigher then default
+	 */
+	private static final Color OVERLAYCOLOR = new Color(0.8f, 0.8f, 0.8f, 1f);
+	private static final Color DUSTCOLOR = new Color(0.4f, 0.4f, 0.05f, 0.5f);
 		
 	/**
 	 * loads the spritesheets for the custom player
@@ -76,11 +81,25 @@ public class Ejira extends CLMovableEntity implements Controllable, HasTeam {
 			spritesheet = WE.getAsset("com/bombinggames/caveland/playerSheet.txt");
 		}
 		textureDiff = spritesheet.getTextures().first();
-		if (WE.getCVars().getValueB("LEnormalMapRendering")) {
+		if (CavelandCVars.NORMALMAPRENDERING.get()) {
 			textureNormal = WE.getAsset("com/bombinggames/caveland/playerSheetNormal.png");
 		}
 	}
 
+	/**
+	 * Loads the normal map if normal map rendering got enabled after the
+	 * sheet was loaded.
+	 */
+	public static void reloadNormalMap() {
+		if (spritesheet != null && textureNormal == null && CavelandCVars.NORMALMAPRENDERING.get()) {
+			try {
+				textureNormal = WE.getAsset("com/bombinggames/caveland/playerSheetNormal.png");
+			} catch (FileNotFoundException ex) {
+				Gdx.app.error("Ejira", "normal map of player sheet not found");
+			}
+		}
+	}
+
 	/**
 	 * Returns a sprite texture.
 	 *
@@ -127,6 +146,7 @@ public class Ejira extends CLMovableEntity implements Controllable, HasTeam {
 	private transient float loadAttack = Float.NEGATIVE_INFINITY;
 	private transient final float LOAD_THRESHOLD = 300;//300ms until loading starts
 	private transient Interactable nearestInteractable;
+	private transient InteractableQuery interactableQuery;
 
 	/**
 	 * the current playing sprite value */
@@ -169,10 +189,20 @@ public class Ejira extends CLMovableEntity implements Controllable, HasTeam {
 	 */
 	private PointLightSource lightsource;
 	private transient AimBand interactionAimband;
+	/**
+	 * reused every frame
+	 */
+	private transient GameSpaceSprite bodySprite;
+	private transient GameSpaceSprite overlaySprite;
 	/**
 	 * Orientation of the sprite. Does not turn isntantly like the orientation.
 	 */
 	private final Vector2 spriteOrientation = new Vector2(1, 0);
+	/**
+	 * reused for the dust of every step
+	 */
+	private final Point tmpDustPos = new Point(0, 0, 0);
+	private final Vector3 tmpDustMovement = new Vector3();
 	private boolean jetpackOn;
 	
 	/**
@@ -185,7 +215,7 @@ public class Ejira extends CLMovableEntity implements Controllable, HasTeam {
 		setName("Ejira");
 		setSoundGrass("step");
 		setJumpingSound("urfJump");
-		setFriction((float) WE.getCVars().get("playerfriction").getValue());
+		setFriction((float) CavelandCVars.playerFriction.getValue());
 		setDimensionZ((int) (RenderCell.GAME_EDGELENGTH*1.4f));
 		setMass(60f);
 		
@@ -263,7 +293,7 @@ public class Ejira extends CLMovableEntity implements Controllable, HasTeam {
 				}
 			} else {
 				if (usedLoadAttackInAir)
-					setFriction((float) WE.getCVars().get("playerfriction").getValue());
+					setFriction((float) CavelandCVars.playerFriction.getValue());
 				usedLoadAttackInAir = false;
 			}
 
@@ -278,7 +308,7 @@ public class Ejira extends CLMovableEntity implements Controllable, HasTeam {
 				//some redundant code from movable to have a custom animation
 				if (playAnimation) {
 					if (action == 'w') {
-						animationCycle += dt * getSpeed() * (float) WE.getCVars().get("walkingAnimationSpeedCorrection").getValue();//multiply by factor to make the animation fit the movement speed
+						animationCycle += dt * getSpeed() * (float) CavelandCVars.walkingAnimationSpeedCorrection.getValue();//multiply by factor to make the animation fit the movement speed
 					} else {
 						animationCycle += dt * 5;
 					}
@@ -386,46 +416,12 @@ public class Ejira extends CLMovableEntity implements Controllable, HasTeam {
 			}
 
 			//update interactable focus
-			//check entitys
-			LinkedList<Interactable> nearbyInteractable = getPosition().getEntitiesNearbyHorizontal(
-				GAME_EDGELENGTH * 2,
-				Interactable.class
-			);
-			
-			//check nearby blocks
-			final Coordinate origin = getPosition().toCoord();
-			final Coordinate tmp = getPosition().toCoord();
-			for (int x = -2; x < 2; x++) {
-				for (int y = -2; y < 2; y++) {
-					for (int z = -2; z < 2; z++) {
-						AbstractBlockLogicExtension logic = tmp.set(origin).add(x, y, z).getLogic();
-						if (
-							logic != null
-							&& logic instanceof Interactable
-							&& tmp.distanceTo(getPosition()) <= GAME_EDGELENGTH * 2
-						) {
-							nearbyInteractable.add((Interactable) logic);
-						}
-					}
-				}
+			if (interactableQuery == null) {
+				interactableQuery = new InteractableQuery();
 			}
-			
-			//remove not interactable objects
-			nearbyInteractable.removeIf((Interactable t) -> !t.interactable() || t.interactableOnlyWithPickup());
-
-			//sort to find nearest object
-			if (!nearbyInteractable.isEmpty()) {
-				nearbyInteractable.sort((Interactable o1, Interactable o2) -> {
-					if (o1.getPosition().distanceTo(getPosition()) < o2.getPosition().distanceTo(getPosition()))
-						return -1;
-					else if (o1.getPosition().distanceTo(getPosition()) == o2.getPosition().distanceTo(getPosition()))
-						return 0;
-					else
-						return 1;
-				});
-				
-				//check if a different one
-				nearestInteractable = nearbyInteractable.get(0);
+			Interactable nearest = interactableQuery.findNearest(getPosition());
+			if (nearest != null) {
+				nearestInteractable = nearest;
 				showInteractButton(Interactable.RT, nearestInteractable.getPosition());
 			} else if (nearestInteractable != null) {
 				hideInteractButton();
@@ -433,7 +429,7 @@ public class Ejira extends CLMovableEntity implements Controllable, HasTeam {
 			}
 
 			//if collecting a backpack
-			LinkedList<CollectibleContainer> backpacksOnCoord = origin.getEntitiesInside(CollectibleContainer.class);
+			LinkedList<CollectibleContainer> backpacksOnCoord = getPosition().toCoord().getEntitiesInside(CollectibleContainer.class);
 			CollectibleContainer backpack=null;
 			if (backpacksOnCoord.size()>0)
 				backpack = backpacksOnCoord.get(0);
@@ -473,14 +469,14 @@ public class Ejira extends CLMovableEntity implements Controllable, HasTeam {
 			
 			//refill
 			if ( isOnGround() && jetPackTime <= 0){
-				jetPackTime = WE.getCVars().getValueF("jetpackMaxTime");
+				jetPackTime = CavelandCVars.JETPACKMAXTIME.get();
 			}
 
 			//update emitter
 			if (jetpackOn) {
 				//limit speed to prevent mega jumps
-				if (getMovement().z < WE.getCVars().getValueF("jetpackMaxSpeed")) {
-					addMovement(new Vector3(0, 0, dt * WE.getCVars().getValueF("jetpackPower")));
+				if (getMovement().z < CavelandCVars.JETPACKMAXSPEED.get()) {
+					addMovement(new Vector3(0, 0, dt * CavelandCVars.JETPACKPOWER.get()));
 				}
 				emitter.setActive(true);
 				emitter2.setActive(true);
@@ -533,66 +529,80 @@ public class Ejira extends CLMovableEntity implements Controllable, HasTeam {
 
 	@Override
 	public void render(GameView view) {
-		if (!WE.getCVars().getValueB("ignorePlayer") && textureNormal != null) {
+		if (!CavelandCVars.IGNOREPLAYER.get() && textureDiff != null) {
 			SpriteBatchWithZAxis batch = view.getSpriteBatchWorld();
-			batch.end();//inject new batch here
+			//the batch binds only unit 0 by itself, so the normal map needs a restart of the batch
+			boolean bindNormal = textureNormal != null && CavelandCVars.NORMALMAPRENDERING.get();
+			if (bindNormal) {
+				batch.end();//inject new batch here
+				RenderStatistics.getInstance().countBatchRestart();
 
-			//bind normal map to texture unit 1
-			if (WE.getCVars().getValueB("LEnormalMapRendering")) {
+				//bind normal map to texture unit 1
 				textureNormal.bind(1);
-			}
+				textureDiff.bind(0);
 
-			textureDiff.bind(0);
+				batch.begin();
+			}
+			
+			AtlasRegion texture = getSprite(action, spriteNum);
+			if (bodySprite == null) {
+				bodySprite = new GameSpaceSprite(texture);
+			} else {
+				bodySprite.setRegion(texture);
+				bodySprite.setSize(texture.getRegionWidth(), texture.getRegionHeight());
+			}
+			bodySprite.setOrigin(
+				texture.originalWidth/2 - texture.offsetX,
+				VIEW_HEIGHT2 - texture.offsetY
+			);
+			bodySprite.setColor(getColor());
 
-			batch.begin();
-				AtlasRegion texture = getSprite(action, spriteNum);
-				GameSpaceSprite sprite = new GameSpaceSprite(texture);
-				sprite.setOrigin(
-					texture.originalWidth/2 - texture.offsetX,
-					VIEW_HEIGHT2 - texture.offsetY
-				);
-				//sprite.scale(get);
-				sprite.setColor(getColor());
-
-				sprite.setPosition(
-					getPoint().getX(),
-					getPoint().getY(),
-					getPoint().getZ()
-					- 100 //only this player sprite has an offset because it has overize
-				);
-				sprite.draw(batch);
+			bodySprite.setPosition(
+				getPoint().getX(),
+				getPoint().getY(),
+				getPoint().getZ()
+				- 100 //only this player sprite has an offset because it has overize
+			);
+			bodySprite.draw(batch);
 
-				//overlay
-				if (loadAttack > LOAD_THRESHOLD || performingPowerAttack) {//loading or perfomring loadattack
-					AtlasRegion overlayTexture;
-					if (action=='i'){
-						overlayTexture = getSprite('o', spriteNum);
-					} else {
-						overlayTexture = getSprite('s', spriteNumOverlay);
-					}
+			//overlay
+			if (loadAttack > LOAD_THRESHOLD || performingPowerAttack) {//loading or perfomring loadattack
+				AtlasRegion overlayTexture;
+				if (action=='i'){
+					overlayTexture = getSprite('o', spriteNum);
+				} else {
+					overlayTexture = getSprite('s', spriteNumOverlay);
+				}
 
-					GameSpaceSprite overlaySprite = new GameSpaceSprite(overlayTexture);
+				if (overlaySprite == null) {
+					overlaySprite = new GameSpaceSprite(overlayTexture);
 					overlaySprite.scale(1f);//saved at half size, so must scale by 2 to fit
-					overlaySprite.setColor(new Color(0.8f, 0.8f, 0.8f, 1f));//a bit brigher then default
-
-					overlaySprite.setPosition(
-						getPosition().getX(),
-						getPosition().getY()+ RenderCell.GAME_DIAGLENGTH2,//center
-						getPoint().getZ()+100
-					);
-					overlaySprite.draw(batch);
+					overlaySprite.setColor(OVERLAYCOLOR);
+				} else {
+					overlaySprite.setRegion(overlayTexture);
+					overlaySprite.setSize(overlayTexture.getRegionWidth(), overlayTexture.getRegionHeight());
 				}
-			batch.end();
 
-			//bind normal map to texture unit 1
-			if (WE.getCVars().getValueB("LEnormalMapRendering")) {
-				AbstractGameObject.getTextureNormal().bind(1);
+				overlaySprite.setPosition(
+					getPosition().getX(),
+					getPosition().getY()+ RenderCell.GAME_DIAGLENGTH2,//center
+					getPoint().getZ()+100
+				);
+				overlaySprite.draw(batch);
 			}
+			
+			if (bindNormal) {
+				batch.end();
+				RenderStatistics.getInstance().countBatchRestart();
 
-			//bind diffuse color to texture unit 0
-			//important that we specify 0 otherwise we'll still be bound to glActiveTexture(GL_TEXTURE1)
-			AbstractGameObject.getTextureDiffuse().bind(0);
-			batch.begin();
+				//bind normal map to texture unit 1
+				AbstractGameObject.getTextureNormal().bind(1);
+
+				//bind diffuse color to texture unit 0
+				//important that we specify 0 otherwise we'll still be bound to glActiveTexture(GL_TEXTURE1)
+				AbstractGameObject.getTextureDiffuse().bind(0);
+				batch.begin();
+			}
 		}
 	}
 
@@ -726,7 +736,7 @@ public class Ejira extends CLMovableEntity implements Controllable, HasTeam {
 				addToHor(13f);//add 13 m/s in move direction
 
 			//start timer
-			timeTillImpact = WE.getCVars().getValueF("PlayerTimeTillImpact");
+			timeTillImpact = CavelandCVars.PLAYERTIMETILLIMPACT.get();
 			attackDamage = damage;
 
 			if (!usedLoadAttackInAir){
@@ -783,14 +793,13 @@ public class Ejira extends CLMovableEntity implements Controllable, HasTeam {
 						else
 							WE.SOUND.play("impact");
 						//one particle
-						new DestructionParticle((byte) 44).spawn(aimCoord.toPoint());
+						EffectPool.getInstance().spawnDestructionParticle((byte) 44, aimCoord.toPoint());
 					}
 				} else {
 					//indestructible by hand
 					WE.SOUND.play("impact");//todo different sound
 					//spawn particle
-					Particle dirt = (Particle) new Particle((byte)22).spawn(aimCoord.toPoint().add(0, 0, 30));
-					dirt.setTTL(400);
+					Particle dirt = EffectPool.getInstance().spawnParticle((byte) 22, 400, ParticleType.REGULAR, null, aimCoord.toPoint().add(0, 0, 30));
 					dirt.addMovement(new Vector3(
 						(float) (Math.random()-0.5f)*10.0f,
 						(float) (Math.random()-0.5f)*10.0f,
@@ -804,7 +813,7 @@ public class Ejira extends CLMovableEntity implements Controllable, HasTeam {
 
 	@Override
 	public void takeDamage(byte value) {
-		if (!WE.getCVars().getValueB("godmode")) {
+		if (!CavelandCVars.GODMODE.get()) {
 			super.takeDamage(value);
 			WE.SOUND.play("urfHurt");
 			if (getCamera() != null && getCamera() instanceof CLCamera) {
@@ -891,7 +900,7 @@ public class Ejira extends CLMovableEntity implements Controllable, HasTeam {
 			playAnimation('i');
 			WE.SOUND.play("release");
 			if (!isOnGround()) {
-				setFriction((float) WE.getCVars().get("playerfriction").getValue()/3f);
+				setFriction((float) CavelandCVars.playerFriction.getValue()/3f);
 				addMovement(new Vector3(getOrientation().cpy().scl(30),-3f));
 			} else {
 				addToHor(40f);
@@ -972,19 +981,18 @@ public class Ejira extends CLMovableEntity implements Controllable, HasTeam {
 	@Override
 	public void step() {
 		super.step();
-		Particle dust = (Particle) new Particle(
+		Particle dust = EffectPool.getInstance().spawnParticle(
 			(byte) 22,
-			700f
-		).spawn(
-			getPosition().cpy().add(
+			700f,
+			ParticleType.SMOKE,
+			DUSTCOLOR,
+			tmpDustPos.set(getPosition()).add(
 				(float) (40*Math.random()-20),
 				(float) (40*Math.random()-20),
 				0
 			)
 		);
-		dust.setType(ParticleType.SMOKE);
-		dust.setColor(new Color(0.4f, 0.4f, 0.05f, 0.5f));
-		dust.addMovement(new Vector3(
+		dust.addMovement(tmpDustMovement.set(
 				-getMovementHor().x*0.1f,
 				-getMovementHor().y*0.1f,
 				RenderCell.GAME_EDGELENGTH / 500f
@@ -1183,7 +1191,7 @@ public class Ejira extends CLMovableEntity implements Controllable, HasTeam {
 		super.handleMessage(msg);
 		if (msg.message == Events.damage.getId()) {
 			byte damage = ((Byte) msg.extraInfo);
-			if (!WE.getCVars().getValueB("godmode"))
+			if (!CavelandCVars.GODMODE.get())
 				takeDamage(damage);
 			if (getHealth() <= 0) {
 				die();
@@ -1,7 +1,7 @@
 package com.bombinggames.caveland.gameobjects;
 
 import com.bombinggames.caveland.game.CLGameView;
-import com.bombinggames.caveland.game.ChunkGenerator;
+import com.bombinggames.caveland.game.CaveGraph;
 import com.bombinggames.caveland.gameobjects.logicblocks.LiftLogic;
 import com.bombinggames.wurfelengine.core.Controller;
 import com.bombinggames.wurfelengine.core.gameobjects.AbstractEntity;
@@ -46,14 +46,14 @@ public class ExitPortal extends Portal implements Interactable {
 				if (spawnCooldown > 0)
 					spawnCooldown -= dt;
 				
-				//if a player is not nearby
-				if (getPosition().getEntitiesNearby(RenderCell.GAME_EDGELENGTH * 13, Ejira.class).isEmpty() && spawnCooldown <= 0) {
+				//if a player is not nearby but can get here soon
+				if (spawnCooldown <= 0 && getPosition().getEntitiesNearby(RenderCell.GAME_EDGELENGTH * 13, Ejira.class).isEmpty()) {
 					spawnCooldown += 5000;//only spawn every 5 seconds
 					
+					CaveGraph.Room room = CaveGraph.getInstance().getRoom(getPosition().toCoord());
+					boolean spawn = room != null && !room.isSurface() && CaveGraph.getInstance().allowsSpawning(room);
 					//spawn enemies
-					while (spawnedList.size() < 3) {
-						Coordinate coord = getPosition().toCoord();
-						int cavenumber = ChunkGenerator.getCaveNumber(coord.getX(), coord.getY(), 4);
+					while (spawn && spawnedList.size() < 3) {
 						Robot robot;
 						if (Math.random() > 0.5f) {
 							robot = new SpiderRobot();
@@ -61,7 +61,7 @@ public class ExitPortal extends Portal implements Interactable {
 							robot = new Robot();
 						}
 						robot.spawn(
-							ChunkGenerator.getCaveCenter(cavenumber).add(
+							room.getCenter().add(
 								(int) (Math.random() * 4 - 2),
 								(int) (Math.random() * 4 - 2),
 								2
@@ -30,12 +30,11 @@
  */
 package com.bombinggames.caveland.gameobjects;
 
-import com.badlogic.gdx.ai.msg.MessageManager;
 import com.badlogic.gdx.ai.msg.Telegram;
 import com.badlogic.gdx.ai.msg.Telegraph;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
-import com.bombinggames.wurfelengine.core.Events;
+import com.bombinggames.caveland.game.AiScheduler;
 import com.bombinggames.wurfelengine.core.gameobjects.AbstractEntity;
 import com.bombinggames.wurfelengine.core.gameobjects.Component;
 import com.bombinggames.wurfelengine.core.gameobjects.MovableEntity;
@@ -80,6 +79,7 @@ public class IdleAI implements Telegraph, Serializable, Component {
 		if (body.hasPosition()) {
 			if (home == null) {
 				home = body.getPosition().cpy();
+				timeTillMove = AiScheduler.getInstance().nextPhase();
 			}
 
 			if (timeTillMove > 0) {
@@ -87,8 +87,12 @@ public class IdleAI implements Telegraph, Serializable, Component {
 			}
 
 			//generate new movement goal
-			if (timeTillMove <= 0 && body.getComponents(MoveToAi.class) == null) {
+			if (timeTillMove <= 0
+				&& body.getComponents(MoveToAi.class) == null
+				&& AiScheduler.getInstance().allowThink()
+			) {
 				timeTillMove = 1500;
+				long start = System.nanoTime();
 
 				Point target;
 				//only 100 trials
@@ -117,14 +121,9 @@ public class IdleAI implements Telegraph, Serializable, Component {
 				
 				if (i < 100){
 					body.setSpeedHorizontal(2);
-					MessageManager.getInstance().dispatchMessage(
-						0,
-						this,
-						body,
-						Events.moveTo.getId(),
-						target
-					);
+					MovementOrders.getInstance().moveTo(body, target);
 				}
+				AiScheduler.getInstance().thought(System.nanoTime() - start);
 			}
 		}
 	}
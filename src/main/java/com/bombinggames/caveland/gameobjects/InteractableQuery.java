@@ -0,0 +1,108 @@
+package com.bombinggames.caveland.gameobjects;
+
+import com.bombinggames.wurfelengine.core.gameobjects.AbstractEntity;
+import com.bombinggames.wurfelengine.core.map.AbstractBlockLogicExtension;
+import com.bombinggames.wurfelengine.core.map.Coordinate;
+import com.bombinggames.wurfelengine.core.map.Point;
+import static com.bombinggames.wurfelengine.core.map.rendering.RenderCell.GAME_DIAGLENGTH;
+import static com.bombinggames.wurfelengine.core.map.rendering.RenderCell.GAME_EDGELENGTH;
+import java.util.ArrayList;
+import java.util.LinkedList;
+
+/**
+ * Finds the nearest interactable entity or block of a player. The candidates
+ * are gathered in a radius a bit larger than needed and reused while the
+ * player stays in the same cell, so most frames only check the few
+ * candidates.
+ *
+ * @author Benedikt Vogler
+ */
+public class InteractableQuery {
+
+	/**
+	 * interaction range
+	 */
+	private static final float RADIUS = GAME_EDGELENGTH * 2;
+	/**
+	 * entities are gathered in a larger radius because they may move
+	 */
+	private static final float MARGIN = GAME_DIAGLENGTH;
+	/**
+	 * gather entities again after this amount of frames even if the player
+	 * stays in the cell
+	 */
+	private static final int REFRESHFRAMES = 10;
+
+	private final ArrayList<Interactable> candidates = new ArrayList<>(8);
+	private final Coordinate cell = new Coordinate(0, 0, 0);
+	private final Coordinate tmp = new Coordinate(0, 0, 0);
+	private boolean gathered;
+	private int framesTillRefresh;
+
+	/**
+	 *
+	 * @param pos position of the player
+	 * @return null if nothing is in range
+	 */
+	public Interactable findNearest(Point pos) {
+		Coordinate coord = pos.toCoord();
+		framesTillRefresh--;
+		if (!gathered
+			|| framesTillRefresh <= 0
+			|| coord.getX() != cell.getX() || coord.getY() != cell.getY() || coord.getZ() != cell.getZ()
+		) {
+			gather(pos, coord);
+		}
+
+		Interactable nearest = null;
+		float nearestDistance = Float.MAX_VALUE;
+		for (Interactable candidate : candidates) {
+			if (!candidate.interactable() || candidate.interactableOnlyWithPickup()) {
+				continue;
+			}
+			if (candidate instanceof AbstractEntity) {
+				AbstractEntity entity = (AbstractEntity) candidate;
+				if (!entity.hasPosition() || entity.shouldBeDisposed() || entity.getPosition().distanceToHorizontal(pos) > RADIUS) {
+					continue;
+				}
+			} else if (candidate instanceof AbstractBlockLogicExtension && !((AbstractBlockLogicExtension) candidate).isValid()) {
+				continue;
+			}
+			float distance = candidate.getPosition().distanceTo(pos);
+			//entities are in range by horizontal distance, blocks by distance
+			if (distance < nearestDistance && (distance <= RADIUS || candidate instanceof AbstractEntity)) {
+				nearest = candidate;
+				nearestDistance = distance;
+			}
+		}
+		return nearest;
+	}
+
+	/**
+	 * Forces gathering the candidates with the next query.
+	 */
+	public void invalidate() {
+		gathered = false;
+	}
+
+	private void gather(Point pos, Coordinate coord) {
+		gathered = true;
+		framesTillRefresh = REFRESHFRAMES;
+		cell.set(coord);
+		candidates.clear();
+		LinkedList<Interactable> entities = pos.getEntitiesNearbyHorizontal(RADIUS + MARGIN, Interactable.class);
+		candidates.addAll(entities);
+
+		//blocks do not move, so the cube around the cell is enough
+		for (int x = -2; x < 2; x++) {
+			for (int y = -2; y < 2; y++) {
+				for (int z = -2; z < 2; z++) {
+					AbstractBlockLogicExtension logic = tmp.set(coord).add(x, y, z).getLogic();
+					if (logic instanceof Interactable) {
+						candidates.add((Interactable) logic);
+					}
+				}
+			}
+		}
+	}
+}
@@ -36,6 +36,8 @@ import com.badlogic.gdx.ai.msg.Telegram;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.bombinggames.caveland.game.CavelandBlocks;
+import com.bombinggames.caveland.gameobjects.logicblocks.BlockCompanion;
+import com.bombinggames.caveland.gameobjects.logicblocks.CompanionRegistry;
 import com.bombinggames.wurfelengine.core.Events;
 import com.bombinggames.wurfelengine.core.gameobjects.AbstractEntity;
 import com.bombinggames.wurfelengine.core.gameobjects.Component;
@@ -46,6 +48,7 @@ import com.bombinggames.wurfelengine.core.map.Chunk;
 import com.bombinggames.wurfelengine.core.map.Coordinate;
 import com.bombinggames.wurfelengine.core.map.Point;
 import com.bombinggames.wurfelengine.core.map.rendering.RenderCell;
+import java.io.IOException;
 import java.util.LinkedList;
 
 /**
@@ -53,12 +56,16 @@ import java.util.LinkedList;
  *
  * @author Benedikt Vogler
  */
-public class LiftBasket extends MovableEntity {
+public class LiftBasket extends MovableEntity implements BlockCompanion {
 
 	private static final long serialVersionUID = 1L;
 	private int movementDir;
 	private MovableEntity passenger;
 	private transient MovableEntity leavingPassenger;
+	/**
+	 * key of the block this entity belongs to
+	 */
+	private Long linkedBlock;
 
 	public LiftBasket() {
 		super((byte) 25, (byte) 0);
@@ -214,6 +221,25 @@ public class LiftBasket extends MovableEntity {
 		super.dispose();
 	}
 
+	@Override
+	public void setLinkedBlock(Long key) {
+		linkedBlock = key;
+	}
+
+	/**
+	 * links itself again with the lift
+	 *
+	 * @param stream
+	 * @throws IOException
+	 * @throws ClassNotFoundException
+	 */
+	private void readObject(java.io.ObjectInputStream stream) throws IOException, ClassNotFoundException {
+		stream.defaultReadObject();
+		if (linkedBlock != null) {
+			CompanionRegistry.getInstance().restore(linkedBlock, this);
+		}
+	}
+
 	class BackSprite extends SimpleEntity implements Component {
 
 		private static final long serialVersionUID = 1L;
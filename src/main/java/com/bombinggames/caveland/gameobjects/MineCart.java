@@ -6,6 +6,7 @@ import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.bombinggames.caveland.game.CLGameView;
 import com.bombinggames.caveland.game.CavelandBlocks;
+import com.bombinggames.caveland.game.EntityCodec;
 import com.bombinggames.caveland.gameobjects.collectibles.Collectible;
 import com.bombinggames.caveland.gameobjects.collectibles.CollectibleType;
 import com.bombinggames.caveland.gameobjects.logicblocks.BoosterLogic;
@@ -17,11 +18,14 @@ import com.bombinggames.wurfelengine.core.gameobjects.EntityShadow;
 import com.bombinggames.wurfelengine.core.gameobjects.MovableEntity;
 import com.bombinggames.wurfelengine.core.gameobjects.PointLightSource;
 import com.bombinggames.wurfelengine.core.gameobjects.SimpleEntity;
+import com.bombinggames.wurfelengine.core.map.AbstractBlockLogicExtension;
+import com.bombinggames.wurfelengine.core.map.Coordinate;
 import com.bombinggames.wurfelengine.core.map.Point;
 import com.bombinggames.wurfelengine.core.map.rendering.RenderCell;
 import static com.bombinggames.wurfelengine.core.map.rendering.RenderCell.GAME_EDGELENGTH;
 import static com.bombinggames.wurfelengine.core.map.rendering.RenderCell.GAME_EDGELENGTH2;
 import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.ArrayList;
 
 /**
@@ -34,8 +38,8 @@ public class MineCart extends MovableEntity implements Interactable {
 	/**
 	 * in m/s
 	 */
-	private static final float MAXSPEED = 6;
-	private static final float BOOSTERSPEED = 20;
+	static final float MAXSPEED = 6;
+	static final float BOOSTERSPEED = 20;
 	/**
 	 * the height of the bottom plate
 	 */
@@ -46,13 +50,42 @@ public class MineCart extends MovableEntity implements Interactable {
 	 */
 	private final transient static float FRONTOFFSET = 63;
 
-	private MovableEntity passenger;
-	private ArrayList<MovableEntity> content = new ArrayList<>(5);
+	/**
+	 * not saved, the passenger enters again after loading
+	 */
+	private transient MovableEntity passenger;
+	/**
+	 * saved with the {@link EntityCodec} if possible
+	 */
+	private transient ArrayList<MovableEntity> content = new ArrayList<>(5);
 	private transient float rollingCycle;
 	private transient long isPlayingSound;
 	private transient SimpleEntity back;
 	private transient SimpleEntity front;
 	private transient PointLightSource lightsource;
+	/**
+	 * reused while following the rails
+	 */
+	private transient Vector2 tmpOrientation;
+	private transient Vector3 tmpTrack;
+	private transient Vector3 tmpRampMovement;
+	private transient Point tmpFront;
+	private transient Vector3 tmpHit;
+	/**
+	 * the entities hit in front, reused every frame
+	 */
+	private transient ArrayList<MovableEntity> hitEntities;
+	/**
+	 * the booster below the cart, computed again when the cart enters another
+	 * cell
+	 */
+	private transient Coordinate boosterCoord;
+	private transient Vector3 boosterCenter;
+	/**
+	 * position on the rail network while far away from the players, null if
+	 * fully simulated
+	 */
+	private transient RailNetwork.Cursor railCursor;
 	//private transient boolean passengerTeleported;
 
 	/**
@@ -63,6 +96,17 @@ public class MineCart extends MovableEntity implements Interactable {
 		setMass(40);
 		setName("Minecart");
 		setOrientation(new Vector2(1, 1));
+		createScratch();
+	}
+	
+	private void createScratch() {
+		tmpOrientation = new Vector2();
+		tmpTrack = new Vector3();
+		tmpRampMovement = new Vector3();
+		tmpFront = new Point(0, 0, 0);
+		tmpHit = new Vector3();
+		hitEntities = new ArrayList<>(4);
+		boosterCenter = new Vector3();
 	}
 
 	@Override
@@ -90,6 +134,9 @@ public class MineCart extends MovableEntity implements Interactable {
 
 	@Override
 	public void update(float dt) {
+		if (hasPosition() && simulateFarAway(dt)) {
+			return;
+		}
 		super.update(dt);
 		
 		Point pos = getPosition();
@@ -112,91 +159,27 @@ public class MineCart extends MovableEntity implements Interactable {
 				lightsource.enable();
 				setFriction(0.001f);
 
-				switch (value) {
-					case 0://straight left bottom to top right
-					case 6:
-						setOrientation(
-							new Vector2(
-								getMovement().y >= 0 && getMovement().x <= 0 ? -1 : 1,
-								getMovement().y >= 0 && getMovement().x <= 0 ? 1 : -1
-							).nor()
-						);
-						//move on y=-x
-						float x = pos.getDistanceToCellCenterX();
-						pos.setToCenterOfCell().add(
-							x,
-							-x,
-							pos.getDistanceToCellCenterZ()
-						);
-						break;
-					case 1:
-					case 7:
-						setOrientation(
-							new Vector2(
-								getMovement().y >= 0 && getMovement().x >= 0 ? 1 : -1,
-								getMovement().y >= 0 && getMovement().x >= 0 ? 1 : -1
-							).nor()
-						);
-						//move on y=-x
-						x = pos.getDistanceToCellCenterX();
-						pos.setToCenterOfCell().add(x,
-							x,
-							pos.getDistanceToCellCenterZ());
-						break;
-					//curve
-					case 3:
-					case 5:
-						int dirY;
-						if (
-							getMovement().y > 0//moving down
-							|| (getMovement().y == 0 && pos.getY() - pos.toCoord().toPoint().getY() < 0)
-						) {//on top and moving down
-							dirY = 1;
-						} else {
-							dirY = -1;
-						}
-
-						setOrientation(
-							new Vector2(
-								0,
-								dirY//coming from top right
-							).nor()
-						);
-
-						//the thing moved now put it back on the track
-//				float percentageOfCurve = 0;
-//				getPosition().y
-						//percentageOfCurve += getMovementHor().len()*RenderCell.GAME_EDGELENGTH/(Math.PI*RenderCell.GAME_EDGELENGTH2);//divide by quaarter of circle outline
-						//left or right side offset
-						int offset = -1;
-						if (value == 5) {
-							offset = 1;
-						}
-						Vector3 circularVec = getPosition().cpy().sub(//0P
-							getPosition().toCoord().toPoint().add(offset * RenderCell.GAME_DIAGLENGTH2, 0, 0)//0C
-						).nor().scl(RenderCell.GAME_EDGELENGTH2);//movement is on radius of half of the block
-
-						pos.setToCenterOfCell().add(circularVec.add(offset * RenderCell.GAME_DIAGLENGTH2, 0, 0));
-						break;
-					case 2:
-					case 4:
-						setOrientation(
-							new Vector2(
-								getMovement().x > 0 || (getMovement().x == 0 && pos.getDistanceToCellCenterX() < 0) ? 1 : -1,//coming from left
-								0
-							).nor()
-						);
-
-						offset = 1;
-						if (value == 4) {
-							offset = -1;
-						}
-						circularVec = getPosition().cpy().sub(//0P
-							getPosition().toCoord().toPoint().add(0, offset * RenderCell.GAME_DIAGLENGTH2, 0)//0C
-						).nor().scl(RenderCell.GAME_EDGELENGTH2);//movement is on radius of half of the block
-
-						pos.setToCenterOfCell().add(circularVec.add(0, offset * RenderCell.GAME_DIAGLENGTH2, 0));
-						break;
+				RailSegment segment = RailSegment.get(value);
+				Vector3 movement = getMovement();
+				float x = pos.getDistanceToCellCenterX();
+				float y = pos.getDistanceToCellCenterY();
+				if (segment.orient(movement.x, movement.y, x, y, tmpOrientation)) {
+					setOrientation(tmpOrientation);
+				}
+				if (segment.getShape() == RailSegment.STRAIGHT) {
+					//move on y=-x or y=x
+					pos.setToCenterOfCell().add(
+						x,
+						segment.straightY(x),
+						pos.getDistanceToCellCenterZ()
+					);
+				} else if (segment.snapToCurve(
+					x,
+					y,
+					pos.getZ() - (float) Math.floor(pos.getZ() / GAME_EDGELENGTH) * GAME_EDGELENGTH,
+					tmpTrack
+				)) {
+					pos.setToCenterOfCell().add(tmpTrack);
 				}
 
 				//start moving?
@@ -208,8 +191,8 @@ public class MineCart extends MovableEntity implements Interactable {
 
 					//booster
 					if ((block & 255) == CavelandBlocks.CLBlocks.RAILSBOOSTER.getId()) {
-						if (getPosition().toCoord().getLogic() instanceof BoosterLogic
-							&& ((BoosterLogic) getPosition().toCoord().getLogic()).isEnabled()) {
+						AbstractBlockLogicExtension logic = getBoosterLogic(pos);
+						if (logic instanceof BoosterLogic && ((BoosterLogic) logic).isEnabled()) {
 							setSpeedHorizontal(BOOSTERSPEED);
 						} else {
 							setSpeedHorizontal(0);
@@ -221,31 +204,20 @@ public class MineCart extends MovableEntity implements Interactable {
 					}
 				}
 
-				//jump on ramp
-				if (
-					   value == 6 && getMovementHor().x > 0
-					|| value == 7 && getMovementHor().y < 0
-					|| value == 8 && getMovementHor().x < 0
-					|| value == 9 && getMovementHor().y > 0
-				) {
-					setMovement(new Vector3(getMovementHor().nor(), 0.8f).nor().scl(getMovement().len()*0.9f));
-				}
-				//roll down?
-				if (value == 6 && getMovementHor().x <= 0) {
-					setOrientation(new Vector2(-1, 1).nor());
-					setSpeedHorizontal(MAXSPEED);
-				}
-				if (value == 7 && getMovementHor().x >= 0) {
-					setOrientation(new Vector2(1, 1).nor());
-					setSpeedHorizontal(MAXSPEED);
-				}
-				if (value == 8 && getMovementHor().x >= 0) {
-					setOrientation(new Vector2(1, -1).nor());
-					setSpeedHorizontal(MAXSPEED);
-				}
-				if (value == 9 && getMovementHor().x <= 0) {
-					setOrientation(new Vector2(-1, -1).nor());
-					setSpeedHorizontal(MAXSPEED);
+				if (segment.isRamp()) {
+					movement = getMovement();
+					//jump on ramp
+					if (segment.jumps(movement.x, movement.y)) {
+						float speed = movement.len();
+						tmpRampMovement.set(movement.x, movement.y, 0).nor();
+						tmpRampMovement.z = 0.8f;
+						setMovement(tmpRampMovement.nor().scl(speed * 0.9f));
+					}
+					//roll down?
+					if (segment.rollDown(getMovement().x, tmpOrientation)) {
+						setOrientation(tmpOrientation);
+						setSpeedHorizontal(MAXSPEED);
+					}
 				}
 			} else {//offroad
 				lightsource.disable();
@@ -305,7 +277,8 @@ public class MineCart extends MovableEntity implements Interactable {
 				front.setSpriteValue((byte) 4);
 			}
 
-			rollingCycle += getMovementHor().len() * GAME_EDGELENGTH * dt / 1000f;//save change in distance in this sprite, distance*m/s
+			Vector3 movement = getMovement();
+			rollingCycle += (float) Math.sqrt(movement.x * movement.x + movement.y * movement.y) * GAME_EDGELENGTH * dt / 1000f;//save change in distance in this sprite, distance*m/s
 			rollingCycle %= GAME_EDGELENGTH / 4; //cycle each 0.25m
 			if (rollingCycle >= GAME_EDGELENGTH / 8) {//new sprite half of the circle length
 				front.setSpriteValue((byte) (front.getSpriteValue() + 1)); //next step in animation
@@ -313,6 +286,57 @@ public class MineCart extends MovableEntity implements Interactable {
 		}
 	}
 
+	/**
+	 * Moves the cart along the rail network without physics if no player is
+	 * near.
+	 *
+	 * @param dt
+	 * @return false if the cart must be fully simulated
+	 */
+	private boolean simulateFarAway(float dt) {
+		RailNetwork network = RailNetwork.getInstance();
+		if (passenger != null || !network.isFarAway(getPosition())) {
+			leaveRailNetwork();
+			return false;
+		}
+		if (railCursor == null) {
+			if (getSpeedHor() <= 0) {
+				return false;
+			}
+			railCursor = network.place(getPosition(), getOrientation(), getSpeedHor());
+			if (railCursor == null) {
+				return false;
+			}
+			if (isPlayingSound != 0) {
+				WE.SOUND.stop("wagon", isPlayingSound);
+				isPlayingSound = 0;
+			}
+		}
+		if (!network.advance(railCursor, dt, getPosition(), tmpOrientation)) {
+			leaveRailNetwork();
+			return false;
+		}
+		setOrientation(tmpOrientation);
+		if (back.shouldBeDisposed() || front.shouldBeDisposed()) {
+			dispose();
+			return true;
+		}
+		back.getPosition().set(getPosition());
+		front.getPosition().set(getPosition()).add(0, FRONTOFFSET, 0);
+		return true;
+	}
+
+	/**
+	 * Continues with the full simulation with the speed on the rail network.
+	 */
+	private void leaveRailNetwork() {
+		if (railCursor != null) {
+			setOrientation(tmpOrientation);
+			setSpeedHorizontal(railCursor.getSpeed());
+			railCursor = null;
+		}
+	}
+
 	/**
 	 * the passengers must enter by themself
 	 *
@@ -434,11 +458,54 @@ public class MineCart extends MovableEntity implements Interactable {
 	 * @throws IOException
 	 * @throws ClassNotFoundException
 	 */
+	@SuppressWarnings("unchecked")
 	private void readObject(java.io.ObjectInputStream stream) throws IOException, ClassNotFoundException {
-		stream.defaultReadObject(); //fills fld1 and fld2;
+		ObjectInputStream.GetField fields = stream.readFields();
+		if (fields.getObjectStreamClass().getField("content") != null) {
+			//saved before the codec was used
+			passenger = (MovableEntity) fields.get("passenger", null);
+			content = (ArrayList<MovableEntity>) fields.get("content", null);
+		} else {
+			EntityCodec.Reader in = new EntityCodec.Reader(stream);
+			int size = in.data().readByte();
+			content = new ArrayList<>(5);
+			for (int i = 0; i < size; i++) {
+				if (in.data().readBoolean()) {
+					content.add((MovableEntity) in.readEntity());
+				} else {
+					content.add((MovableEntity) stream.readObject());
+				}
+			}
+		}
+		if (content == null) {
+			content = new ArrayList<>(5);
+		}
+		createScratch();
 		createBackAndFront();
 	}
 
+	/**
+	 * Writes the content with the {@link EntityCodec}. Content without a
+	 * codec is serialised.
+	 *
+	 * @param stream
+	 * @throws IOException
+	 */
+	private void writeObject(java.io.ObjectOutputStream stream) throws IOException {
+		stream.defaultWriteObject();
+		EntityCodec.Writer out = new EntityCodec.Writer(stream);
+		out.data().writeByte(content.size());
+		for (MovableEntity entity : content) {
+			boolean codec = EntityCodec.canWrite(entity);
+			out.data().writeBoolean(codec);
+			if (codec) {
+				out.writeEntity(entity);
+			} else {
+				stream.writeObject(entity);
+			}
+		}
+	}
+
 	@Override
 	public boolean interactable() {
 		return (passenger == null);
@@ -449,14 +516,37 @@ public class MineCart extends MovableEntity implements Interactable {
 		return false;
 	}
 
+	/**
+	 * The logic of the booster block at the position.
+	 *
+	 * @param pos on a booster
+	 * @return
+	 */
+	private AbstractBlockLogicExtension getBoosterLogic(Point pos) {
+		float centerX = pos.getX() - pos.getDistanceToCellCenterX();
+		float centerY = pos.getY() - pos.getDistanceToCellCenterY();
+		float centerZ = pos.getZ() - pos.getDistanceToCellCenterZ();
+		//cells are much further apart than one unit
+		if (boosterCoord == null
+			|| Math.abs(centerX - boosterCenter.x) > 1
+			|| Math.abs(centerY - boosterCenter.y) > 1
+			|| Math.abs(centerZ - boosterCenter.z) > 1
+		) {
+			boosterCoord = pos.toCoord();
+			boosterCenter.set(centerX, centerY, centerZ);
+		}
+		return boosterCoord.getLogic();
+	}
+
 	private void checkCollisionInFront() {
 		if (getSpeed() > 0) {
-			Iterable<MovableEntity> entitiesInFront;
-			entitiesInFront = getPosition().cpy().add(getOrientation().scl(80)).getEntitiesNearby(RenderCell.GAME_EDGELENGTH2, MovableEntity.class);
-			for (MovableEntity ent : entitiesInFront) {
+			tmpFront.set(getPosition()).add(getOrientation().x * 80, getOrientation().y * 80, 0);
+			TeamIndex.getInstance().getNearby(tmpFront, RenderCell.GAME_EDGELENGTH2, MovableEntity.class, hitEntities);
+			for (int i = 0; i < hitEntities.size(); i++) {
+				MovableEntity ent = hitEntities.get(i);
 				if (this != ent) {//don't collide with itself
 					ent.setMovement(
-						new Vector3(
+						tmpHit.set(
 							(float) (getMovement().x + Math.random() * 0.5f - 0.25f),
 							(float) (getMovement().y + Math.random() * 0.5f - 0.25f),
 							(float) Math.random()
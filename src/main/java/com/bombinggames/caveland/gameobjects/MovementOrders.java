@@ -0,0 +1,238 @@
+package com.bombinggames.caveland.gameobjects;
+
+import com.badlogic.gdx.ai.msg.MessageManager;
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.bombinggames.caveland.game.CaveGraph;
+import com.bombinggames.caveland.game.PathService;
+import com.bombinggames.wurfelengine.core.Events;
+import com.bombinggames.wurfelengine.core.gameobjects.MovableEntity;
+import com.bombinggames.wurfelengine.core.gameobjects.MoveToAi;
+import com.bombinggames.wurfelengine.core.map.Coordinate;
+import com.bombinggames.wurfelengine.core.map.PfNode;
+import com.bombinggames.wurfelengine.core.map.Point;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+/**
+ * Collects the {@link Events#moveTo} and {@link Events#standStill} orders an
+ * entity gives to itself. Only the last order of an entity in a frame is sent,
+ * with {@link #flush()}. An order is dropped if it repeats the last sent one:
+ * a moveTo to the same cell while the entity is still walking, or a
+ * standStill while it stands. A moveTo into another cave room leads to the portal
+ * on the way. If the {@link PathService} knows a path to the target a
+ * {@link Robot} walks to the next cell of the path. Robots give their orders
+ * again while thinking so they continue from there. While the path is
+ * searched or if there is none they walk straight.
+ *
+ * @author Benedikt Vogler
+ */
+public class MovementOrders {
+
+	private static final int NONE = 0;
+	private static final int MOVETO = 1;
+	private static final int STANDSTILL = 2;
+	private static MovementOrders instance;
+
+	/**
+	 *
+	 * @return
+	 */
+	public static MovementOrders getInstance() {
+		if (instance == null) {
+			instance = new MovementOrders();
+		}
+		return instance;
+	}
+
+	private final IdentityHashMap<MovableEntity, Order> orders = new IdentityHashMap<>(32);
+	private final ArrayList<Order> queue = new ArrayList<>(32);
+	private int dispatched;
+	private int coalesced;
+	private int lastDispatched;
+	private int lastCoalesced;
+
+	private MovementOrders() {
+	}
+
+	/**
+	 * Lets the entity walk to the target.
+	 *
+	 * @param entity
+	 * @param target
+	 */
+	public void moveTo(MovableEntity entity, Point target) {
+		queue(entity, MOVETO, target);
+	}
+
+	/**
+	 * Stops the walking of the entity.
+	 *
+	 * @param entity
+	 */
+	public void standStill(MovableEntity entity) {
+		queue(entity, STANDSTILL, null);
+	}
+
+	private void queue(MovableEntity entity, int kind, Point target) {
+		Order order = orders.get(entity);
+		if (order == null) {
+			order = new Order(entity);
+			orders.put(entity, order);
+		}
+		if (order.queuedKind != NONE) {
+			//an earlier order of this frame is replaced
+			coalesced++;
+		} else {
+			queue.add(order);
+		}
+		order.queuedKind = kind;
+		order.queuedTarget = target;
+	}
+
+	/**
+	 * Sends the orders of this frame. Call once per frame after the entities
+	 * are updated.
+	 */
+	public void flush() {
+		for (Order order : queue) {
+			int kind = order.queuedKind;
+			Point target = order.queuedTarget;
+			order.queuedKind = NONE;
+			order.queuedTarget = null;
+			if (!order.entity.hasPosition()) {
+				coalesced++;
+				continue;
+			}
+			boolean walking = order.entity.getComponents(MoveToAi.class) != null;
+			if (kind == MOVETO) {
+				Coordinate cell = target.toCoord();
+				Coordinate from = order.entity.getPosition().toCoord();
+				//walking can not leave the cave room
+				Coordinate waypoint = CaveGraph.getInstance().getWaypoint(from, cell);
+				if (waypoint != cell) {
+					cell = waypoint;
+					target = waypoint.toPoint();
+				}
+				if (order.entity instanceof Robot) {
+					PfNode next = nextNode(PathService.getInstance().find(from, cell), from);
+					if (next != null) {
+						cell = next;
+						target = next.toPoint();
+					}
+				}
+				if (order.sentKind == MOVETO && walking
+					&& cell.getX() == order.x && cell.getY() == order.y && cell.getZ() == order.z
+				) {
+					coalesced++;
+					continue;
+				}
+				order.x = cell.getX();
+				order.y = cell.getY();
+				order.z = cell.getZ();
+				MessageManager.getInstance().dispatchMessage(
+					order.entity,
+					order.entity,
+					Events.moveTo.getId(),
+					target
+				);
+			} else {
+				if (order.sentKind == STANDSTILL && !walking) {
+					coalesced++;
+					continue;
+				}
+				MessageManager.getInstance().dispatchMessage(
+					order.entity,
+					order.entity,
+					Events.standStill.getId()
+				);
+			}
+			order.sentKind = kind;
+			dispatched++;
+		}
+		queue.clear();
+		lastDispatched = dispatched;
+		lastCoalesced = coalesced;
+		dispatched = 0;
+		coalesced = 0;
+	}
+
+	/**
+	 *
+	 * @param path
+	 * @param from
+	 * @return the first cell of the path which is not the start, null if there
+	 * is none
+	 */
+	private static PfNode nextNode(DefaultGraphPath<PfNode> path, Coordinate from) {
+		if (path == null) {
+			return null;
+		}
+		for (int i = 0; i < path.getCount(); i++) {
+			PfNode node = path.get(i);
+			if (node.getX() != from.getX() || node.getY() != from.getY() || node.getZ() != from.getZ()) {
+				return node;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Call if the entity is removed.
+	 *
+	 * @param entity
+	 */
+	public void forget(MovableEntity entity) {
+		Order order = orders.remove(entity);
+		if (order != null && order.queuedKind != NONE) {
+			queue.remove(order);
+		}
+	}
+
+	/**
+	 * Removes every order. Call if the map is reloaded.
+	 */
+	public void clear() {
+		orders.clear();
+		queue.clear();
+	}
+
+	/**
+	 *
+	 * @return sent orders in the last frame
+	 */
+	public int getDispatched() {
+		return lastDispatched;
+	}
+
+	/**
+	 *
+	 * @return dropped orders in the last frame
+	 */
+	public int getCoalesced() {
+		return lastCoalesced;
+	}
+
+	@Override
+	public String toString() {
+		return "movement orders sent: " + lastDispatched + ", dropped: " + lastCoalesced;
+	}
+
+	/**
+	 * The last sent and the queued order of an entity.
+	 */
+	private static class Order {
+
+		private final MovableEntity entity;
+		private int sentKind;
+		/**
+		 * cell of the last sent moveTo
+		 */
+		private int x, y, z;
+		private int queuedKind;
+		private Point queuedTarget;
+
+		Order(MovableEntity entity) {
+			this.entity = entity;
+		}
+	}
+}
@@ -31,7 +31,7 @@
 package com.bombinggames.caveland.gameobjects;
 
 import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
-import com.bombinggames.wurfelengine.core.Controller;
+import com.bombinggames.caveland.game.PathService;
 import com.bombinggames.wurfelengine.core.gameobjects.AbstractEntity;
 import com.bombinggames.wurfelengine.core.gameobjects.SimpleEntity;
 import com.bombinggames.wurfelengine.core.map.Coordinate;
@@ -51,6 +51,10 @@ public class PathfindingTest extends SimpleEntity {
 	private SimpleEntity end;
 	private final ArrayList<AimBand> aimBandList = new ArrayList<>(10);
 	private AimBand directAimBand;
+	/**
+	 * the path shown with the aim bands
+	 */
+	private transient DefaultGraphPath<PfNode> shownPath;
 
 	/**
 	 *
@@ -81,19 +85,21 @@ public class PathfindingTest extends SimpleEntity {
 			}
 
 			//end.getPosition().setValues(getPosition()).ad
-			//transform to aimbands
-			Coordinate last = getPosition().toCoord();
-			aimBandList.forEach(aimBand -> aimBand.dispose());
-			aimBandList.clear();
-
-			DefaultGraphPath<PfNode> path = Controller.getMap().findPath(
+			DefaultGraphPath<PfNode> path = PathService.getInstance().find(
 				getPosition().toCoord(), end.getPosition().toCoord()
 			);
-			for (PfNode coord : path) {
-				AimBand newAimband = new AimBand(last, coord);
-				addComponent(newAimband);
-				last = coord;
-				aimBandList.add(newAimband);
+			//transform to aimbands if there is a new path
+			if (path != null && path != shownPath) {
+				shownPath = path;
+				Coordinate last = getPosition().toCoord();
+				aimBandList.forEach(aimBand -> aimBand.dispose());
+				aimBandList.clear();
+				for (PfNode coord : path) {
+					AimBand newAimband = new AimBand(last, coord);
+					addComponent(newAimband);
+					last = coord;
+					aimBandList.add(newAimband);
+				}
 			}
 		}
 	}
@@ -0,0 +1,524 @@
+package com.bombinggames.caveland.gameobjects;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.bombinggames.caveland.game.BlockChanges;
+import com.bombinggames.caveland.game.CavelandBlocks;
+import com.bombinggames.caveland.gameobjects.logicblocks.BoosterLogic;
+import com.bombinggames.wurfelengine.core.Controller;
+import com.bombinggames.wurfelengine.core.map.AbstractBlockLogicExtension;
+import com.bombinggames.wurfelengine.core.map.Coordinate;
+import com.bombinggames.wurfelengine.core.map.Point;
+import com.bombinggames.wurfelengine.core.map.rendering.RenderCell;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * A graph of the rails. Connected rail blocks are joined into segments when a
+ * cart needs them. Carts far away from the players move along the segments
+ * without physics or collisions and switch back to the full simulation when a
+ * player comes near.
+ *
+ * @author Benedikt Vogler
+ */
+public class RailNetwork implements BlockChanges.Listener {
+
+	private static RailNetwork instance;
+
+	/**
+	 *
+	 * @return
+	 */
+	public static RailNetwork getInstance() {
+		if (instance == null) {
+			instance = new RailNetwork();
+		}
+		return instance;
+	}
+
+	/**
+	 * carts nearer to a player than this are fully simulated
+	 */
+	private static final float LODDISTANCE = RenderCell.GAME_EDGELENGTH * 14;
+	/**
+	 * distance from the center of a cell to the middle of a side
+	 */
+	private static final float SIDE = RenderCell.GAME_DIAGLENGTH2 / 2f;
+	private static final float STRAIGHTLENGTH = RenderCell.GAME_EDGELENGTH;
+	private static final float CURVELENGTH = MathUtils.PI / 2f * RenderCell.GAME_EDGELENGTH2;
+	/**
+	 * the two sides connected by a rail value, the first is the upper end of
+	 * a ramp
+	 */
+	private static final int[][] SIDES = new int[][]{
+		{1, 5}, {3, 7}, {3, 5}, {5, 7}, {1, 7}, {1, 3}, {1, 5}, {7, 3}, {5, 1}, {3, 7}
+	};
+	/**
+	 * segments are not longer so that a change does not rebuild a whole base
+	 */
+	private static final int MAXSEGMENTLENGTH = 64;
+
+	private static long key(int x, int y, int z) {
+		return ((long) (x & 0x1FFFFF) << 42) | ((long) (y & 0x1FFFFF) << 21) | (z & 0x1FFFFF);
+	}
+
+	private static long key(Coordinate coord) {
+		return key(coord.getX(), coord.getY(), coord.getZ());
+	}
+
+	private static float sideX(int side) {
+		return side == 1 || side == 3 ? SIDE : -SIDE;
+	}
+
+	private static float sideY(int side) {
+		return side == 3 || side == 5 ? SIDE : -SIDE;
+	}
+
+	private final HashMap<Long, Node> nodes = new HashMap<>(256);
+	private final Coordinate tmpCoord = new Coordinate(0, 0, 0);
+	private final Point[] viewers = new Point[2];
+	private int segments;
+	/**
+	 * marks the nodes visited while building a segment
+	 */
+	private int stamp;
+
+	private RailNetwork() {
+		BlockChanges.getInstance().addListener(this);
+	}
+
+	/**
+	 * Carts near these points are fully simulated. Call every frame.
+	 *
+	 * @param player1
+	 * @param player2 can be null
+	 */
+	public void setViewers(Ejira player1, Ejira player2) {
+		viewers[0] = player1 != null && player1.hasPosition() ? player1.getPosition() : null;
+		viewers[1] = player2 != null && player2.hasPosition() ? player2.getPosition() : null;
+	}
+
+	/**
+	 *
+	 * @param pos
+	 * @return true if no player is near
+	 */
+	public boolean isFarAway(Point pos) {
+		if (viewers[0] == null && viewers[1] == null) {
+			return false;
+		}
+		for (Point viewer : viewers) {
+			if (viewer != null && viewer.distanceToHorizontal(pos) < LODDISTANCE) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Places a cart on the graph.
+	 *
+	 * @param pos position of the cart
+	 * @param orientation the cart moves to the side which matches best
+	 * @param speed in m/s
+	 * @return null if not on rails
+	 */
+	public Cursor place(Point pos, Vector2 orientation, float speed) {
+		Coordinate coord = pos.toCoord();
+		Node node = getNode(coord);
+		if (node == null) {
+			return null;
+		}
+		Segment segment = getSegment(node);
+		int[] sides = SIDES[node.value];
+		//move to the side in the direction of the orientation
+		boolean toSecond = orientation.x * sideX(sides[1]) + orientation.y * sideY(sides[1])
+			> orientation.x * sideX(sides[0]) + orientation.y * sideY(sides[0]);
+		int exit = toSecond ? sides[1] : sides[0];
+		Cursor cursor = new Cursor();
+		cursor.segment = segment;
+		cursor.forward = segment.nodes[node.index].forwardSide == exit;
+		cursor.index = node.index;
+		cursor.distance = segment.start[node.index] + segment.length(node.index) / 2;
+		cursor.speed = speed;
+		return cursor;
+	}
+
+	/**
+	 * Moves a cart along the rails.
+	 *
+	 * @param cursor
+	 * @param dt time in ms
+	 * @param out the new position
+	 * @param orientation the new orientation
+	 * @return false if the cart left the rails or stopped, then it must be
+	 * simulated
+	 */
+	public boolean advance(Cursor cursor, float dt, Point out, Vector2 orientation) {
+		if (!cursor.segment.valid) {
+			return false;
+		}
+		float way = cursor.speed * RenderCell.GAME_EDGELENGTH * dt / 1000f;
+		while (way > 0) {
+			Segment segment = cursor.segment;
+			float end = cursor.forward ? segment.start[cursor.index] + segment.length(cursor.index) : segment.start[cursor.index];
+			float left = Math.abs(end - cursor.distance);
+			if (way < left) {
+				cursor.distance += cursor.forward ? way : -way;
+				way = 0;
+			} else {
+				way -= left;
+				cursor.distance = end;
+				if (!nextNode(cursor)) {
+					return false;
+				}
+				if (cursor.speed <= 0) {
+					break;//stopped at a booster
+				}
+			}
+		}
+		position(cursor, out, orientation);
+		//a standing cart waits in the full simulation
+		return cursor.speed > 0;
+	}
+
+	/**
+	 * Moves the cursor to the start of the next node.
+	 *
+	 * @return false if the rails end
+	 */
+	private boolean nextNode(Cursor cursor) {
+		Segment segment = cursor.segment;
+		int next = cursor.index + (cursor.forward ? 1 : -1);
+		if (next >= 0 && next < segment.nodes.length) {
+			cursor.index = next;
+		} else {
+			//leave the segment, this may be a junction
+			Node last = segment.nodes[cursor.index];
+			int side = cursor.forward ? last.forwardSide : last.backwardSide;
+			Node node = getConnected(last, side);
+			if (node == null) {
+				return false;
+			}
+			segment = getSegment(node);
+			cursor.segment = segment;
+			cursor.index = node.index;
+			cursor.forward = node.backwardSide == (side + 4) % 8;
+			cursor.distance = cursor.forward ? segment.start[node.index] : segment.start[node.index] + segment.length(node.index);
+		}
+		Node node = segment.nodes[cursor.index];
+		if (node.booster) {
+			tmpCoord.set(node.coord);
+			AbstractBlockLogicExtension logic = tmpCoord.getLogic();
+			if (logic instanceof BoosterLogic && ((BoosterLogic) logic).isEnabled()) {
+				cursor.speed = MineCart.BOOSTERSPEED;
+			} else {
+				cursor.speed = 0;
+			}
+		} else if (cursor.speed < MineCart.MAXSPEED) {
+			cursor.speed = MineCart.MAXSPEED;
+		}
+		return true;
+	}
+
+	private void position(Cursor cursor, Point out, Vector2 orientation) {
+		Node node = cursor.segment.nodes[cursor.index];
+		float t = (cursor.distance - cursor.segment.start[cursor.index]) / cursor.segment.length(cursor.index);
+		int from = node.backwardSide;
+		int to = node.forwardSide;
+		if (!cursor.forward) {
+			t = 1 - t;
+			from = node.forwardSide;
+			to = node.backwardSide;
+		}
+		float x;
+		float y;
+		if ((from + 4) % 8 == to) {
+			//straight
+			x = MathUtils.lerp(sideX(from), sideX(to), t);
+			y = MathUtils.lerp(sideY(from), sideY(to), t);
+			orientation.set(sideX(to) - sideX(from), sideY(to) - sideY(from)).nor();
+		} else {
+			//around the corner between both sides
+			float cornerX = sideX(from) + sideX(to);
+			float cornerY = sideY(from) + sideY(to);
+			float startAngle = MathUtils.atan2(sideY(from) - cornerY, sideX(from) - cornerX);
+			float endAngle = MathUtils.atan2(sideY(to) - cornerY, sideX(to) - cornerX);
+			float delta = endAngle - startAngle;
+			if (delta > MathUtils.PI) {
+				delta -= MathUtils.PI2;
+			} else if (delta < -MathUtils.PI) {
+				delta += MathUtils.PI2;
+			}
+			float angle = startAngle + delta * t;
+			x = cornerX + MathUtils.cos(angle) * RenderCell.GAME_EDGELENGTH2;
+			y = cornerY + MathUtils.sin(angle) * RenderCell.GAME_EDGELENGTH2;
+			//tangent
+			orientation.set(-MathUtils.sin(angle) * Math.signum(delta), MathUtils.cos(angle) * Math.signum(delta));
+		}
+		float z = 0;
+		if (node.ramp) {
+			//the first side is the upper end
+			z = RenderCell.GAME_EDGELENGTH * (from == SIDES[node.value][0] ? 1 - t : t);
+		}
+		out.set(node.centerX + x, node.centerY + y, node.centerZ + z);
+	}
+
+	/**
+	 *
+	 * @param coord
+	 * @return null if there are no rails
+	 */
+	private Node getNode(Coordinate coord) {
+		long key = key(coord);
+		Node node = nodes.get(key);
+		if (node != null) {
+			return node;
+		}
+		if (!coord.isInMemoryAreaXY()) {
+			return null;
+		}
+		int block = Controller.getMap().getBlock(coord);
+		byte id = (byte) (block & 255);
+		byte value = (byte) ((block >> 8) & 255);
+		if ((id != CavelandBlocks.CLBlocks.RAILS.getId() && id != CavelandBlocks.CLBlocks.RAILSBOOSTER.getId())
+			|| value < 0 || value >= SIDES.length) {
+			return null;
+		}
+		node = new Node(coord.cpy(), value, id == CavelandBlocks.CLBlocks.RAILSBOOSTER.getId());
+		nodes.put(key, node);
+		return node;
+	}
+
+	/**
+	 * Finds the rails behind a side of a node which lead back.
+	 *
+	 * @param node
+	 * @param side
+	 * @return null if the rails end
+	 */
+	private Node getConnected(Node node, int side) {
+		int back = (side + 4) % 8;
+		int[] sides = SIDES[node.value];
+		tmpCoord.set(node.coord).goToNeighbour(side);
+		if (node.ramp && side == sides[0]) {
+			tmpCoord.add(0, 0, 1);//up the ramp
+		}
+		Node neighbour = getNode(tmpCoord);
+		if (neighbour != null && neighbour.hasSide(back)) {
+			return neighbour;
+		}
+		//down a ramp
+		tmpCoord.set(node.coord).goToNeighbour(side).add(0, 0, -1);
+		neighbour = getNode(tmpCoord);
+		if (neighbour != null && neighbour.ramp && SIDES[neighbour.value][0] == back) {
+			return neighbour;
+		}
+		return null;
+	}
+
+	/**
+	 * Joins the node with the connected nodes in both directions.
+	 *
+	 * @param start
+	 * @return
+	 */
+	private Segment getSegment(Node start) {
+		if (start.segment != null && start.segment.valid) {
+			return start.segment;
+		}
+		ArrayList<Node> forward = new ArrayList<>(16);
+		ArrayList<Node> backward = new ArrayList<>(16);
+		int[] sides = SIDES[start.value];
+		start.backwardSide = sides[0];
+		start.forwardSide = sides[1];
+		start.segment = null;
+		stamp++;
+		start.stamp = stamp;
+		collect(start, start.forwardSide, forward);
+		collect(start, start.backwardSide, backward);
+
+		Node[] chain = new Node[backward.size() + 1 + forward.size()];
+		int i = 0;
+		for (int j = backward.size() - 1; j >= 0; j--) {
+			Node node = backward.get(j);
+			//walked backwards, so the sides are swapped
+			int side = node.forwardSide;
+			node.forwardSide = node.backwardSide;
+			node.backwardSide = side;
+			chain[i++] = node;
+		}
+		chain[i++] = start;
+		for (Node node : forward) {
+			chain[i++] = node;
+		}
+		Segment segment = new Segment(chain);
+		segments++;
+		return segment;
+	}
+
+	/**
+	 * Walks along the rails and adds the nodes which connect both ways and
+	 * are not in a segment yet. The forward side of every added node points
+	 * away from the start.
+	 */
+	private void collect(Node from, int side, ArrayList<Node> out) {
+		Node current = from;
+		int exit = side;
+		while (out.size() < MAXSEGMENTLENGTH) {
+			Node next = getConnected(current, exit);
+			if (next == null || next.stamp == stamp || (next.segment != null && next.segment.valid)) {
+				return;
+			}
+			//a node which is the end of another track starts a junction
+			int entry = (exit + 4) % 8;
+			int[] sides = SIDES[next.value];
+			next.backwardSide = entry;
+			next.forwardSide = sides[0] == entry ? sides[1] : sides[0];
+			if (getConnected(next, entry) != current) {
+				return;
+			}
+			next.stamp = stamp;
+			out.add(next);
+			current = next;
+			exit = next.forwardSide;
+		}
+	}
+
+	/**
+	 * Call if a block changed. Drops the segments near it.
+	 *
+	 * @param coord
+	 */
+	@Override
+	public void blockChanged(Coordinate coord) {
+		for (int z = -1; z <= 1; z++) {
+			invalidateNode(tmpCoord.set(coord).add(0, 0, z));
+			for (int side = 1; side < 8; side += 2) {
+				invalidateNode(tmpCoord.set(coord).add(0, 0, z).goToNeighbour(side));
+			}
+		}
+	}
+
+	private void invalidateNode(Coordinate coord) {
+		Node node = nodes.remove(key(coord));
+		if (node != null && node.segment != null && node.segment.valid) {
+			node.segment.valid = false;
+			for (Node member : node.segment.nodes) {
+				member.segment = null;
+			}
+		}
+	}
+
+	/**
+	 * Removes the whole graph. Call if the map is reloaded.
+	 */
+	public void clear() {
+		for (Node node : nodes.values()) {
+			if (node.segment != null) {
+				node.segment.valid = false;
+			}
+		}
+		nodes.clear();
+	}
+
+	/**
+	 *
+	 * @return amount of built segments
+	 */
+	public int getBuiltSegments() {
+		return segments;
+	}
+
+	/**
+	 *
+	 * @return amount of known rail blocks
+	 */
+	public int size() {
+		return nodes.size();
+	}
+
+	/**
+	 * The position of a cart on the graph.
+	 */
+	public static class Cursor {
+
+		private Segment segment;
+		private int index;
+		private boolean forward;
+		/**
+		 * from the start of the segment
+		 */
+		private float distance;
+		private float speed;
+
+		/**
+		 *
+		 * @return in m/s
+		 */
+		public float getSpeed() {
+			return speed;
+		}
+	}
+
+	private static class Node {
+
+		private final Coordinate coord;
+		private final byte value;
+		private final boolean booster;
+		private final boolean ramp;
+		private final float centerX;
+		private final float centerY;
+		private final float centerZ;
+		private Segment segment;
+		private int index;
+		private int stamp;
+		/**
+		 * the side to the next node in the segment
+		 */
+		private int forwardSide;
+		private int backwardSide;
+
+		Node(Coordinate coord, byte value, boolean booster) {
+			this.coord = coord;
+			this.value = value;
+			this.booster = booster;
+			this.ramp = value >= 6;
+			Point center = coord.toPoint();
+			centerX = center.getX();
+			centerY = center.getY();
+			centerZ = center.getZ();
+		}
+
+		boolean hasSide(int side) {
+			return SIDES[value][0] == side || SIDES[value][1] == side;
+		}
+	}
+
+	private static class Segment {
+
+		private final Node[] nodes;
+		/**
+		 * distance from the start of the segment to the start of each node
+		 */
+		private final float[] start;
+		private boolean valid = true;
+
+		Segment(Node[] nodes) {
+			this.nodes = nodes;
+			start = new float[nodes.length];
+			float distance = 0;
+			for (int i = 0; i < nodes.length; i++) {
+				nodes[i].segment = this;
+				nodes[i].index = i;
+				start[i] = distance;
+				distance += length(i);
+			}
+		}
+
+		float length(int index) {
+			Node node = nodes[index];
+			return (node.forwardSide + 4) % 8 == node.backwardSide ? STRAIGHTLENGTH : CURVELENGTH;
+		}
+	}
+}
@@ -0,0 +1,204 @@
+package com.bombinggames.caveland.gameobjects;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.math.Vector3;
+import com.bombinggames.wurfelengine.core.map.rendering.RenderCell;
+
+/**
+ * The shape of a rail block per value. Used by the {@link MineCart} to follow
+ * the track. The methods write into given vectors and do not allocate.
+ *
+ * <table summary="rail values">
+ * <tr><td>0, 6</td><td>straight on y=-x, 6 is a ramp</td></tr>
+ * <tr><td>1, 7</td><td>straight on y=x, 7 is a ramp</td></tr>
+ * <tr><td>2, 4</td><td>curve around a center above or below</td></tr>
+ * <tr><td>3, 5</td><td>curve around a center left or right</td></tr>
+ * <tr><td>8, 9</td><td>ramps</td></tr>
+ * </table>
+ *
+ * @author Benedikt Vogler
+ */
+public class RailSegment {
+
+	/**
+	 * the track does not move the cart
+	 */
+	public static final int NONE = 0;
+	/**
+	 * straight track
+	 */
+	public static final int STRAIGHT = 1;
+	/**
+	 * quarter circle
+	 */
+	public static final int CURVE = 2;
+
+	private static final float DIAG = (float) Math.sqrt(0.5);
+	private static final RailSegment[] SEGMENTS = new RailSegment[]{
+		new RailSegment(STRAIGHT, -1, 0, 0, 0, 0, 0, 0),
+		new RailSegment(STRAIGHT, 1, 0, 0, 0, 0, 0, 0),
+		new RailSegment(CURVE, 0, 0, RenderCell.GAME_DIAGLENGTH2, 0, 0, 0, 0),
+		new RailSegment(CURVE, 0, -RenderCell.GAME_DIAGLENGTH2, 0, 0, 0, 0, 0),
+		new RailSegment(CURVE, 0, 0, -RenderCell.GAME_DIAGLENGTH2, 0, 0, 0, 0),
+		new RailSegment(CURVE, 0, RenderCell.GAME_DIAGLENGTH2, 0, 0, 0, 0, 0),
+		new RailSegment(STRAIGHT, -1, 0, 0, 1, 0, 1, 1),
+		new RailSegment(STRAIGHT, 1, 0, 0, 0, -1, -1, 1),
+		new RailSegment(NONE, 0, 0, 0, -1, 0, -1, -1),
+		new RailSegment(NONE, 0, 0, 0, 0, 1, 1, -1)
+	};
+	private static final RailSegment OTHER = new RailSegment(NONE, 0, 0, 0, 0, 0, 0, 0);
+
+	/**
+	 *
+	 * @param value block value of the rails
+	 * @return never null
+	 */
+	public static RailSegment get(byte value) {
+		if (value < 0 || value >= SEGMENTS.length) {
+			return OTHER;
+		}
+		return SEGMENTS[value];
+	}
+
+	private final int shape;
+	/**
+	 * y = slope * x for straight tracks
+	 */
+	private final int slope;
+	private final float centerX;
+	private final float centerY;
+	/**
+	 * movement direction which jumps off the ramp, zero if no ramp
+	 */
+	private final int jumpX;
+	private final int jumpY;
+	/**
+	 * the cart rolls down if the horizontal movement is not in this x direction
+	 */
+	private final int rollX;
+	/**
+	 * roll down to this y direction, orientation x is -rollX
+	 */
+	private final int rollY;
+
+	private RailSegment(int shape, int slope, float centerX, float centerY, int jumpX, int jumpY, int rollX, int rollY) {
+		this.shape = shape;
+		this.slope = slope;
+		this.centerX = centerX;
+		this.centerY = centerY;
+		this.jumpX = jumpX;
+		this.jumpY = jumpY;
+		this.rollX = rollX;
+		this.rollY = rollY;
+	}
+
+	/**
+	 *
+	 * @return {@link #NONE}, {@link #STRAIGHT} or {@link #CURVE}
+	 */
+	public int getShape() {
+		return shape;
+	}
+
+	/**
+	 *
+	 * @return true if this is a ramp
+	 */
+	public boolean isRamp() {
+		return rollY != 0;
+	}
+
+	/**
+	 * Computes the orientation on the track.
+	 *
+	 * @param movementX
+	 * @param movementY
+	 * @param relX position relative to the center of the cell
+	 * @param relY position relative to the center of the cell
+	 * @param out the normalized orientation
+	 * @return false if the track does not change the orientation
+	 */
+	public boolean orient(float movementX, float movementY, float relX, float relY, Vector2 out) {
+		switch (shape) {
+			case STRAIGHT:
+				if (slope < 0) {
+					if (movementY >= 0 && movementX <= 0) {
+						out.set(-DIAG, DIAG);
+					} else {
+						out.set(DIAG, -DIAG);
+					}
+				} else if (movementY >= 0 && movementX >= 0) {
+					out.set(DIAG, DIAG);
+				} else {
+					out.set(-DIAG, -DIAG);
+				}
+				return true;
+			case CURVE:
+				if (centerX != 0) {
+					//coming from top right
+					out.set(0, movementY > 0 || (movementY == 0 && relY < 0) ? 1 : -1);
+				} else {
+					//coming from left
+					out.set(movementX > 0 || (movementX == 0 && relX < 0) ? 1 : -1, 0);
+				}
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * Puts a position on a curve back on the track.
+	 *
+	 * @param relX position relative to the center of the cell
+	 * @param relY position relative to the center of the cell
+	 * @param relZ height over the bottom of the cell
+	 * @param out the position on the track relative to the center of the
+	 * cell
+	 * @return false if this is not a curve
+	 */
+	public boolean snapToCurve(float relX, float relY, float relZ, Vector3 out) {
+		if (shape != CURVE) {
+			return false;
+		}
+		//movement is on radius of half of the block
+		out.set(relX - centerX, relY - centerY, relZ).nor().scl(RenderCell.GAME_EDGELENGTH2);
+		out.x += centerX;
+		out.y += centerY;
+		return true;
+	}
+
+	/**
+	 *
+	 * @param x distance to the center of the cell in x direction
+	 * @return the y offset on a straight track
+	 */
+	public float straightY(float x) {
+		return slope * x;
+	}
+
+	/**
+	 *
+	 * @param movementX
+	 * @param movementY
+	 * @return true if the cart jumps off the ramp
+	 */
+	public boolean jumps(float movementX, float movementY) {
+		return jumpX * movementX > 0 || jumpY * movementY > 0;
+	}
+
+	/**
+	 * Computes the orientation when the cart rolls down the ramp.
+	 *
+	 * @param movementX
+	 * @param out normalized orientation
+	 * @return false if the cart does not roll down
+	 */
+	public boolean rollDown(float movementX, Vector2 out) {
+		if (!isRamp() || rollX * movementX > 0) {
+			return false;
+		}
+		out.set(-rollX * DIAG, rollY * DIAG);
+		return true;
+	}
+}
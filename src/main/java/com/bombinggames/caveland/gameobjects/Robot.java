@@ -4,16 +4,17 @@ import com.badlogic.gdx.ai.msg.MessageManager;
 import com.badlogic.gdx.ai.msg.Telegram;
 import com.badlogic.gdx.ai.msg.Telegraph;
 import com.badlogic.gdx.math.Vector2;
+import com.bombinggames.caveland.game.AiScheduler;
+import com.bombinggames.caveland.game.EntityCodec;
 import com.bombinggames.wurfelengine.WE;
 import com.bombinggames.wurfelengine.core.Events;
-import com.bombinggames.wurfelengine.core.gameobjects.DestructionParticle;
-import com.bombinggames.wurfelengine.core.gameobjects.EntityAnimation;
 import com.bombinggames.wurfelengine.core.gameobjects.MovableEntity;
-import com.bombinggames.wurfelengine.core.gameobjects.SimpleEntity;
 import com.bombinggames.wurfelengine.core.map.Point;
 import com.bombinggames.wurfelengine.core.map.rendering.RenderCell;
-import java.util.Collection;
-import java.util.Iterator;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 
 /**
  * A robot which can be evil or friendly.
@@ -42,20 +43,33 @@ public class Robot extends MovableEntity implements Telegraph, HasTeam{
 	 * in m/s
 	 */
 	private transient float movementSpeed = 2;
+	/**
+	 * the phase is set when the first update runs
+	 */
+	private transient boolean thinkScheduled;
+	private transient float timeTillThink;
+	private transient float timeSinceThink;
+	/**
+	 * true while moving to the target
+	 */
+	private transient boolean chasing;
 	
-	private float energy = 1000;
+	/**
+	 * saved with the {@link EntityCodec}
+	 */
+	private transient float energy = 1000;
 	/**
 	 * countdown while the attack ins in progress. Used for animation.
 	 */
-	private float attackInProgess = 0;
+	private transient float attackInProgess = 0;
 	/**
 	 * what kind of robot
 	 */
-	private int type = 0;
+	private transient int type = 0;
 	/**
 	 * 0 is neutral, 1 is PC, 2 is player
 	 */
-	private int teamId;
+	private transient int teamId;
 	
 	/**
 	 *
@@ -114,46 +128,64 @@ public class Robot extends MovableEntity implements Telegraph, HasTeam{
 		}
 		
 		if (hasPosition() && getPosition().isInMemoryAreaXY()) {
-			//follow the target
-			if (enemyTarget != null && enemyTarget.hasPosition()) {
-				if (getPosition().distanceTo(enemyTarget) > RenderCell.GAME_EDGELENGTH * 1.5f) {
-					MessageManager.getInstance().dispatchMessage(this,
-						this,
-						Events.moveTo.getId(),
-						enemyTarget.getPosition()
-					);
-					setSpeedHorizontal(movementSpeed);
-				} else {
-					MessageManager.getInstance().dispatchMessage(
-						this,
-						this,
-						Events.standStill.getId()
-					);
+			if (!thinkScheduled) {
+				thinkScheduled = true;
+				timeTillThink = AiScheduler.getInstance().nextPhase();
+			}
+			timeSinceThink += dt;
+			timeTillThink -= dt;
+			if (timeTillThink <= 0 && AiScheduler.getInstance().allowThink()) {
+				timeTillThink += AiScheduler.getInstance().getInterval();
+				if (timeTillThink < 0) {
+					timeTillThink = 0;
 				}
+				long start = System.nanoTime();
+				think(timeSinceThink);
+				AiScheduler.getInstance().thought(System.nanoTime() - start);
+				timeSinceThink = 0;
+			}
 
-				//attack
-				if (attackInProgess == 0) {
-					performAttack();
-				}
-			} else {
-				enemyTarget = null;
+			if (chasing) {
+				setSpeedHorizontal(movementSpeed);
+			}
+
+			//attack
+			if (enemyTarget != null && enemyTarget.hasPosition() && attackInProgess == 0) {
+				performAttack();
 			}
 
 			energy = ((int) (energy + dt));
+		}
+	}
 
-			//find nearby target if there is none
-			if (enemyTarget == null && getTeamId() != 0) {
-				Collection<HasTeam> nearbyWithFaction = getPosition().getEntitiesNearbyHorizontal(RenderCell.GAME_DIAGLENGTH * 4, HasTeam.class);
-				if (!nearbyWithFaction.isEmpty()) {
-					Iterator<HasTeam> it = nearbyWithFaction.iterator();
-					while (it.hasNext()) {
-						HasTeam next = it.next();
-						if (next instanceof MovableEntity && next.getTeamId() != getTeamId()) {
-							enemyTarget = (MovableEntity) next;
-						}
-					}
-				}
+	/**
+	 * Makes the decisions like searching a target. Called by
+	 * {@link #update(float)} in the interval of the {@link AiScheduler}.
+	 *
+	 * @param dt time since the last call in ms
+	 */
+	protected void think(float dt) {
+		chasing = false;
+		//follow the target
+		if (enemyTarget != null && enemyTarget.hasPosition()) {
+			if (getPosition().distanceTo(enemyTarget) > RenderCell.GAME_EDGELENGTH * 1.5f) {
+				MovementOrders.getInstance().moveTo(this, enemyTarget.getPosition());
+				chasing = true;
+			} else {
+				MovementOrders.getInstance().standStill(this);
 			}
+		} else {
+			enemyTarget = null;
+		}
+
+		//find nearby target if there is none
+		if (enemyTarget == null && getTeamId() != 0) {
+			enemyTarget = TeamIndex.getInstance().getNearestHostile(
+				getPosition(),
+				RenderCell.GAME_DIAGLENGTH * 4,
+				getTeamId(),
+				MovableEntity.class
+			);
 		}
 	}
 
@@ -199,11 +231,7 @@ public class Robot extends MovableEntity implements Telegraph, HasTeam{
 		if (energy >= 1000) {
 			energy = 0;//reset
 			if (enemyTarget != null && getPosition().distanceTo(enemyTarget) < RenderCell.GAME_EDGELENGTH * 2f) {
-				SimpleEntity hit = (SimpleEntity) new SimpleEntity((byte) 33).spawn(enemyTarget.getPosition().cpy());
-				hit.addComponent(
-					new EntityAnimation(new int[]{300}, true, false)
-				);
-				hit.setName("hit sprite");
+				EffectPool.getInstance().spawnSprite((byte) 33, 300, "hit sprite", enemyTarget.getPosition());
 				MessageManager.getInstance().dispatchMessage(this,
 					enemyTarget,
 					Events.damage.getId(),
@@ -220,6 +248,7 @@ public class Robot extends MovableEntity implements Telegraph, HasTeam{
 	@Override
 	public void removeFromMap() {
 		super.removeFromMap();
+		MovementOrders.getInstance().forget(this);
 		WE.SOUND.stop(RUNNINGSOUND, runningSound);
 		runningSound = 0;
 	}
@@ -231,9 +260,9 @@ public class Robot extends MovableEntity implements Telegraph, HasTeam{
 			byte damage = ((Byte) msg.extraInfo);
 			takeDamage(damage);
 			if (getHealth() <= 0) {
-				new DestructionParticle((byte) 34).spawn(getPosition().toPoint());
-				new DestructionParticle((byte) 35).spawn(getPosition().toPoint());
-				new DestructionParticle((byte) 36).spawn(getPosition().toPoint());
+				EffectPool.getInstance().spawnDestructionParticle((byte) 34, getPosition());
+				EffectPool.getInstance().spawnDestructionParticle((byte) 35, getPosition());
+				EffectPool.getInstance().spawnDestructionParticle((byte) 36, getPosition());
 
 				if (teamId != 2) {
 					new Money().spawn(getPosition().toPoint());
@@ -299,4 +328,43 @@ public class Robot extends MovableEntity implements Telegraph, HasTeam{
 			setSpriteValue((byte) (getSpriteValue() + 56));
 		}
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Writes the fields of the robot with the {@link EntityCodec}.
+	 *
+	 * @param stream
+	 * @throws IOException
+	 */
+	private void writeObject(java.io.ObjectOutputStream stream) throws IOException {
+		stream.defaultWriteObject();
+		DataOutput out = new EntityCodec.Writer(stream).data();
+		out.writeFloat(energy);
+		out.writeFloat(attackInProgess);
+		out.writeByte(type);
+		out.writeByte(teamId);
+	}
+
+	/**
+	 * overrides deserialisation
+	 *
+	 * @param stream
+	 * @throws IOException
+	 * @throws ClassNotFoundException
+	 */
+	private void readObject(java.io.ObjectInputStream stream) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = stream.readFields();
+		if (fields.getObjectStreamClass().getField("energy") != null) {
+			//saved before the codec was used
+			energy = fields.get("energy", 1000f);
+			attackInProgess = fields.get("attackInProgess", 0f);
+			type = fields.get("type", 0);
+			teamId = fields.get("teamId", 0);
+		} else {
+			DataInput in = new EntityCodec.Reader(stream).data();
+			energy = in.readFloat();
+			attackInProgess = in.readFloat();
+			type = in.readByte();
+			teamId = in.readByte();
+		}
+	}
+}
@@ -30,12 +30,11 @@
  */
 package com.bombinggames.caveland.gameobjects;
 
-import com.badlogic.gdx.ai.msg.MessageManager;
 import com.badlogic.gdx.math.Vector3;
 import com.bombinggames.caveland.game.CavelandBlocks;
+import com.bombinggames.caveland.game.ResourceIndex;
 import com.bombinggames.caveland.gameobjects.collectibles.Collectible;
 import com.bombinggames.wurfelengine.WE;
-import com.bombinggames.wurfelengine.core.Events;
 import com.bombinggames.wurfelengine.core.gameobjects.MoveToAi;
 import com.bombinggames.wurfelengine.core.map.Coordinate;
 import com.bombinggames.wurfelengine.core.map.Point;
@@ -51,6 +50,14 @@ import java.util.LinkedList;
 public class SpiderRobot extends Robot{
 	
 	private static final long serialVersionUID = 2L;
+	/**
+	 * time between two searches in the resource index in ms
+	 */
+	private static final float SEARCHINTERVAL = 500;
+	/**
+	 * a block which got no hit for this time in ms is given up
+	 */
+	private static final float GIVEUPTIME = 15000;
 	
 	private transient long walkingSound;
 	private transient Laserdot laserdot;
@@ -61,6 +68,15 @@ public class SpiderRobot extends Robot{
 	private transient Coordinate workingBlock;
 	private transient Coordinate storage;
 	private transient Collectible carry;
+	private transient float searchCooldown;
+	/**
+	 * time since the last hit on the working block
+	 */
+	private transient float workingTime;
+	/**
+	 * the last block which could not be reached
+	 */
+	private transient Coordinate givenUp;
 
 	/**
 	 *
@@ -80,109 +96,56 @@ public class SpiderRobot extends Robot{
 		}
 		
 		if (hasPosition()) {
-			boolean hadNoBlock = false;
-			if (workingBlock == null || workingBlock.getBlockId()== 0) {
-				hadNoBlock = true;
-			}
 			updateSight(dt);
-			//validate workingBlock
-			if (workingBlock != null) {
-				byte id = workingBlock.getBlockId();
-				if (id == 0) {
+			//validate workingBlock, destroyed blocks lose the reservation
+			if (workingBlock != null && !ResourceIndex.getInstance().isReservedBy(workingBlock, this)) {
+				workingBlock = null;
+			}
+			//give up blocks which can not be reached
+			if (workingBlock != null && carry == null) {
+				workingTime += dt;
+				if (workingTime > GIVEUPTIME) {
+					ResourceIndex.getInstance().release(workingBlock, this);
+					givenUp = workingBlock;
 					workingBlock = null;
-				} else {
-					if (!(id == CavelandBlocks.CLBlocks.COAL.getId()
-						|| id == CavelandBlocks.CLBlocks.IRONORE.getId()
-						|| id == CavelandBlocks.CLBlocks.CRYSTAL.getId()
-						|| id == CavelandBlocks.CLBlocks.SULFUR.getId())
-					) {
-						workingBlock = null;
-					}
 				}
-				//had no blok but now has
-				if (hadNoBlock && workingBlock != null) {
-					WE.SOUND.play("robotWeep", getPosition());
-				}
-			} else {
-				enableScanner();
 			}
 			
 			if (carry != null) {
 				//move carry to storage
 				carry.setPosition(getPosition().cpy());
-				if (storage != null) {
-					if (getComponents(MoveToAi.class) == null) {
-						MessageManager.getInstance().dispatchMessage(
-							this,
-							this,
-							Events.moveTo.getId(),
-							storage.toPoint()
-						);
+				//drop carry
+				if (storage != null && getPosition().toCoord().equals(storage)) {
+					//verify flags existence
+					LinkedList<DropSpaceFlag> flagsnearby = storage.getEntitiesInside(DropSpaceFlag.class);
+					if (flagsnearby.isEmpty()) {
+						storage = null;
 					}
-
-					//drop carry
-					if (getPosition().toCoord().equals(storage)) {
-						//verify flags existence
-						LinkedList<DropSpaceFlag> flagsnearby = storage.getEntitiesInside(DropSpaceFlag.class);
-						if (flagsnearby.isEmpty()) {
-							storage = null;
-						}
-						//place them on storage
-						if (storage != null) {
-							carry.setHidden(false);
-							carry.allowPickup();
-							carry.setPosition(storage);
-							carry = null;
-							MessageManager.getInstance().dispatchMessage(
-								this,
-								this,
-								Events.standStill.getId()
-							);
-						}
+					//place them on storage
+					if (storage != null) {
+						carry.setHidden(false);
+						carry.allowPickup();
+						carry.setPosition(storage);
+						carry = null;
+						MovementOrders.getInstance().standStill(this);
 					}
-				} else {
-					enableScanner();
 				}
-			} else {
+			} else if (workingBlock != null
+				&& getPosition().distanceTo(workingBlock) < RenderCell.GAME_EDGELENGTH*1.8f
+				&& performAttack()
+			) {
 				//gather resources
-				if (workingBlock != null) {
-					//if nearby
-					if (getPosition().distanceTo(workingBlock) < RenderCell.GAME_EDGELENGTH*1.8f) {
-						MessageManager.getInstance().dispatchMessage(
-							this,
-							this,
-							Events.standStill.getId()
-						);
-						if (performAttack()) {
-							workingBlock.damage((byte) 1);
-							WE.SOUND.play("impact", getPosition());
-							int block = workingBlock.getBlock();
-							if ((block & 255) != 0 && ((block >> 16) & 255) % 8 == 0) {
-								carry = CavelandBlocks.getLoot((byte) (block & 255)).createInstance();
-								carry.spawn(getPosition().cpy());
-								//carry.setHidden(true);
-								carry.preventPickup();
-							}
-						}
-					} else {
-						Point moveToBlock = workingBlock.toPoint();
-						//if block is below move away
-						if (workingBlock.getZ() < getPosition().toCoord().getZ()) {
-							moveToBlock = workingBlock.cpy().add(1, 0, 0).toPoint();
-						}
-						MessageManager.getInstance().dispatchMessage(
-							this,
-							this,
-							Events.moveTo.getId(),
-							moveToBlock
-						);
-					}
+				workingTime = 0;
+				workingBlock.damage((byte) 1);
+				WE.SOUND.play("impact", getPosition());
+				int block = workingBlock.getBlock();
+				if ((block & 255) != 0 && ((block >> 16) & 255) % 8 == 0) {
+					carry = CavelandBlocks.getLoot((byte) (block & 255)).createInstance();
+					carry.spawn(getPosition().cpy());
+					//carry.setHidden(true);
+					carry.preventPickup();
 				}
 			}
-			
-			if (storage != null && workingBlock != null) {
-				disableScanner();
-			}
 
 			//sound
 			if (getMovementHor().len2() > 0 && isOnGround()) {
@@ -195,26 +158,59 @@ public class SpiderRobot extends Robot{
 			}
 		}
 	}
-	
-	protected ArrayList<Coordinate> nearbyResources(){
-		ArrayList<Coordinate> coordList = new ArrayList<>(2);
-		
-		for (int x = -4; x < 4; x++) {
-			for (int y = -4; y < 4; y++) {
-				for (int z = -2; z < 2; z++) {
-					Coordinate tmpCoord = getPosition().toCoord().add(x, y, z);
-					byte id = tmpCoord.getBlockId();
-					if ((id == CavelandBlocks.CLBlocks.COAL.getId()
-						|| id == CavelandBlocks.CLBlocks.IRONORE.getId()
-						|| id == CavelandBlocks.CLBlocks.CRYSTAL.getId()
-						|| id == CavelandBlocks.CLBlocks.SULFUR.getId())
-						&& getPosition().canSee(tmpCoord.toPoint(), 12)
-					) {
-						coordList.add(tmpCoord);
-					}
+
+	@Override
+	protected void think(float dt) {
+		super.think(dt);
+		if (workingBlock == null) {
+			searchCooldown -= dt;
+			if (searchCooldown <= 0) {
+				searchCooldown = SEARCHINTERVAL;
+				workingBlock = ResourceIndex.getInstance().reserveNearest(getPosition(), 4, 2, this, givenUp);
+				if (workingBlock != null) {
+					workingTime = 0;
+					WE.SOUND.play("robotWeep", getPosition());
+				}
+			}
+		}
+		if (workingBlock == null) {
+			enableScanner();
+		}
+
+		if (carry != null) {
+			if (storage != null) {
+				if (getComponents(MoveToAi.class) == null) {
+					MovementOrders.getInstance().moveTo(this, storage.toPoint());
+				}
+			} else {
+				enableScanner();
+			}
+		} else if (workingBlock != null) {
+			//if nearby
+			if (getPosition().distanceTo(workingBlock) < RenderCell.GAME_EDGELENGTH*1.8f) {
+				MovementOrders.getInstance().standStill(this);
+			} else {
+				Point moveToBlock = workingBlock.toPoint();
+				//if block is below move away
+				if (workingBlock.getZ() < getPosition().toCoord().getZ()) {
+					moveToBlock = workingBlock.cpy().add(1, 0, 0).toPoint();
 				}
+				MovementOrders.getInstance().moveTo(this, moveToBlock);
 			}
 		}
+
+		if (storage != null && workingBlock != null) {
+			disableScanner();
+		}
+	}
+	
+	/**
+	 * 
+	 * @return resources in range which no robot works on
+	 */
+	protected ArrayList<Coordinate> nearbyResources(){
+		ArrayList<Coordinate> coordList = new ArrayList<>(2);
+		ResourceIndex.getInstance().getFree(getPosition(), 4, 2, coordList);
 		return coordList;
 	}
 
@@ -233,6 +229,10 @@ public class SpiderRobot extends Robot{
 		if (carry != null) {
 			carry.allowPickup();
 		}
+		if (workingBlock != null) {
+			ResourceIndex.getInstance().release(workingBlock, this);
+			workingBlock = null;
+		}
 		super.removeFromMap();
 	}
 	
@@ -309,22 +309,14 @@ public class SpiderRobot extends Robot{
 
 			//find block to work on
 			byte id = laserdot.getPosition().getBlockId();
-			if (id != 0) {
-				if (id == CavelandBlocks.CLBlocks.COAL.getId()
-					|| id == CavelandBlocks.CLBlocks.IRONORE.getId()
-					|| id == CavelandBlocks.CLBlocks.CRYSTAL.getId()
-					|| id == CavelandBlocks.CLBlocks.SULFUR.getId()
-				) {
-					if (workingBlock == null || workingBlock.getBlockId()== 0) {
-						workingBlock = laserdot.getPosition().toCoord();
-						//go to resources
-						MessageManager.getInstance().dispatchMessage(
-							this,
-							this,
-							Events.moveTo.getId(),
-							laserdot.getPosition().cpy()
-						);
-					}
+			if (workingBlock == null && ResourceIndex.isResource(id)) {
+				Coordinate coord = laserdot.getPosition().toCoord();
+				if (!coord.equals(givenUp) && ResourceIndex.getInstance().reserve(coord, this)) {
+					workingBlock = coord;
+					workingTime = 0;
+					WE.SOUND.play("robotWeep", getPosition());
+					//go to resources
+					MovementOrders.getInstance().moveTo(this, laserdot.getPosition().cpy());
 				}
 			}
 		}
@@ -0,0 +1,262 @@
+package com.bombinggames.caveland.gameobjects;
+
+import com.badlogic.gdx.Gdx;
+import com.bombinggames.wurfelengine.core.Controller;
+import com.bombinggames.wurfelengine.core.gameobjects.MovableEntity;
+import com.bombinggames.wurfelengine.core.map.Point;
+import com.bombinggames.wurfelengine.core.map.rendering.RenderCell;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * A grid of the movable entities, rebuilt once per frame on the first query.
+ * Turrets and robots look up their targets here and mine carts the entities
+ * they hit instead of scanning every entity of the map.
+ *
+ * @author Benedikt Vogler
+ */
+public class TeamIndex {
+
+	/**
+	 * edge length of a bucket in game space, the usual search radius
+	 */
+	private static final float BUCKETSIZE = RenderCell.GAME_DIAGLENGTH * 4;
+	/**
+	 * team ids are 0, 1 and 2
+	 * @see HasTeam#getTeamId()
+	 */
+	private static final int TEAMS = 3;
+	private static TeamIndex instance;
+
+	/**
+	 *
+	 * @return
+	 */
+	public static TeamIndex getInstance() {
+		if (instance == null) {
+			instance = new TeamIndex();
+		}
+		return instance;
+	}
+
+	/**
+	 * one grid per team and one with every movable entity at index
+	 * {@link #TEAMS}
+	 */
+	@SuppressWarnings("unchecked")
+	private final HashMap<Long, ArrayList<MovableEntity>>[] buckets = new HashMap[TEAMS + 1];
+	private long builtFrame = -1;
+	/**
+	 * squared distances of the result, used for sorting
+	 */
+	private float[] distances = new float[16];
+
+	private TeamIndex() {
+		for (int i = 0; i < buckets.length; i++) {
+			buckets[i] = new HashMap<>(32);
+		}
+	}
+
+	private static long key(int bucketX, int bucketY) {
+		return ((long) bucketX << 32) | (bucketY & 0xffffffffL);
+	}
+
+	private void rebuildIfNeeded() {
+		long frame = Gdx.graphics.getFrameId();
+		if (frame == builtFrame) {
+			return;
+		}
+		builtFrame = frame;
+		//keep the lists to avoid garbage
+		for (HashMap<Long, ArrayList<MovableEntity>> grid : buckets) {
+			if (grid.size() > 512) {
+				//forget buckets of areas visited long ago
+				grid.clear();
+			}
+			for (ArrayList<MovableEntity> list : grid.values()) {
+				list.clear();
+			}
+		}
+		for (MovableEntity entity : Controller.getMap().getEntitys(MovableEntity.class)) {
+			if (entity.hasPosition() && !entity.shouldBeDisposed()) {
+				Point pos = entity.getPosition();
+				long key = key(
+					(int) Math.floor(pos.getX() / BUCKETSIZE),
+					(int) Math.floor(pos.getY() / BUCKETSIZE)
+				);
+				buckets[TEAMS].computeIfAbsent(key, k -> new ArrayList<>(4)).add(entity);
+				if (entity instanceof HasTeam) {
+					int team = ((HasTeam) entity).getTeamId();
+					if (team >= 0 && team < TEAMS) {
+						buckets[team].computeIfAbsent(key, k -> new ArrayList<>(4)).add(entity);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Forces a rebuild with the next query. Call if entities were added or
+	 * removed in this frame and the result must contain them.
+	 */
+	public void invalidate() {
+		builtFrame = -1;
+	}
+
+	/**
+	 * Finds the entities of other teams in a horizontal radius, sorted by
+	 * distance.
+	 *
+	 * @param <T>
+	 * @param pos center of the search
+	 * @param radius horizontal radius in game space
+	 * @param teamId own team. Every other team is hostile.
+	 * @param filter only entities of this class
+	 * @param out the result is written into this list. Gets cleared.
+	 * @return the out list
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends MovableEntity> ArrayList<T> getHostilesNearby(Point pos, float radius, int teamId, Class<T> filter, ArrayList<T> out) {
+		rebuildIfNeeded();
+		out.clear();
+		int minX = (int) Math.floor((pos.getX() - radius) / BUCKETSIZE);
+		int maxX = (int) Math.floor((pos.getX() + radius) / BUCKETSIZE);
+		int minY = (int) Math.floor((pos.getY() - radius) / BUCKETSIZE);
+		int maxY = (int) Math.floor((pos.getY() + radius) / BUCKETSIZE);
+		float radius2 = radius * radius;
+		for (int team = 0; team < TEAMS; team++) {
+			if (team == teamId) {
+				continue;
+			}
+			for (int x = minX; x <= maxX; x++) {
+				for (int y = minY; y <= maxY; y++) {
+					ArrayList<MovableEntity> bucket = buckets[team].get(key(x, y));
+					if (bucket == null) {
+						continue;
+					}
+					for (MovableEntity entity : bucket) {
+						if (!filter.isInstance(entity) || !entity.hasPosition()) {
+							continue;
+						}
+						float dx = entity.getPosition().getX() - pos.getX();
+						float dy = entity.getPosition().getY() - pos.getY();
+						float dist2 = dx * dx + dy * dy;
+						if (dist2 <= radius2) {
+							//insertion sort, the result is small
+							int size = out.size();
+							if (size == distances.length) {
+								distances = Arrays.copyOf(distances, size * 2);
+							}
+							int i = size;
+							while (i > 0 && distances[i - 1] > dist2) {
+								distances[i] = distances[i - 1];
+								i--;
+							}
+							distances[i] = dist2;
+							out.add(i, (T) entity);
+						}
+					}
+				}
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * Finds every entity in a radius, e.g. to push them away. The result is
+	 * not sorted.
+	 *
+	 * @param <T>
+	 * @param pos center of the search
+	 * @param radius radius in game space, not only horizontal
+	 * @param filter only entities of this class
+	 * @param out the result is written into this list. Gets cleared.
+	 * @return the out list
+	 */
+	public <T extends MovableEntity> ArrayList<T> getNearby(Point pos, float radius, Class<T> filter, ArrayList<T> out) {
+		rebuildIfNeeded();
+		out.clear();
+		int minX = (int) Math.floor((pos.getX() - radius) / BUCKETSIZE);
+		int maxX = (int) Math.floor((pos.getX() + radius) / BUCKETSIZE);
+		int minY = (int) Math.floor((pos.getY() - radius) / BUCKETSIZE);
+		int maxY = (int) Math.floor((pos.getY() + radius) / BUCKETSIZE);
+		float radius2 = radius * radius;
+		for (int x = minX; x <= maxX; x++) {
+			for (int y = minY; y <= maxY; y++) {
+				ArrayList<MovableEntity> bucket = buckets[TEAMS].get(key(x, y));
+				if (bucket == null) {
+					continue;
+				}
+				for (MovableEntity entity : bucket) {
+					if (!filter.isInstance(entity) || !entity.hasPosition()) {
+						continue;
+					}
+					float dx = entity.getPosition().getX() - pos.getX();
+					float dy = entity.getPosition().getY() - pos.getY();
+					float dz = entity.getPosition().getZ() - pos.getZ();
+					if (dx * dx + dy * dy + dz * dz <= radius2) {
+						out.add(filter.cast(entity));
+					}
+				}
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * The nearest entity of another team.
+	 *
+	 * @param <T>
+	 * @param pos
+	 * @param radius horizontal radius in game space
+	 * @param teamId own team
+	 * @param filter
+	 * @return null if none in the radius
+	 */
+	public <T extends MovableEntity> T getNearestHostile(Point pos, float radius, int teamId, Class<T> filter) {
+		rebuildIfNeeded();
+		T nearest = null;
+		float nearestDist2 = radius * radius;
+		int minX = (int) Math.floor((pos.getX() - radius) / BUCKETSIZE);
+		int maxX = (int) Math.floor((pos.getX() + radius) / BUCKETSIZE);
+		int minY = (int) Math.floor((pos.getY() - radius) / BUCKETSIZE);
+		int maxY = (int) Math.floor((pos.getY() + radius) / BUCKETSIZE);
+		for (int team = 0; team < TEAMS; team++) {
+			if (team == teamId) {
+				continue;
+			}
+			for (int x = minX; x <= maxX; x++) {
+				for (int y = minY; y <= maxY; y++) {
+					ArrayList<MovableEntity> bucket = buckets[team].get(key(x, y));
+					if (bucket == null) {
+						continue;
+					}
+					for (MovableEntity entity : bucket) {
+						if (!filter.isInstance(entity) || !entity.hasPosition()) {
+							continue;
+						}
+						float dx = entity.getPosition().getX() - pos.getX();
+						float dy = entity.getPosition().getY() - pos.getY();
+						float dist2 = dx * dx + dy * dy;
+						if (dist2 <= nearestDist2) {
+							nearestDist2 = dist2;
+							nearest = filter.cast(entity);
+						}
+					}
+				}
+			}
+		}
+		return nearest;
+	}
+
+	/**
+	 * Removes every entity. Call if the map is reloaded.
+	 */
+	public void clear() {
+		for (HashMap<Long, ArrayList<MovableEntity>> grid : buckets) {
+			grid.clear();
+		}
+		builtFrame = -1;
+	}
+}
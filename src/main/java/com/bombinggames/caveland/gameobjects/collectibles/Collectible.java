@@ -1,6 +1,7 @@
 package com.bombinggames.caveland.gameobjects.collectibles;
 
 import com.badlogic.gdx.math.Vector3;
+import com.bombinggames.caveland.game.EntityCodec;
 import com.bombinggames.caveland.gameobjects.CLMovableEntity;
 import com.bombinggames.wurfelengine.core.gameobjects.AbstractGameObject;
 import com.bombinggames.wurfelengine.core.gameobjects.EntityAnimation;
@@ -16,6 +17,28 @@ import java.io.Serializable;
 public class Collectible extends CLMovableEntity implements Serializable {
 
 	private static final long serialVersionUID = 2L;
+	/**
+	 * Writes the type and the fields of the collectible. The class is
+	 * restored from the type.
+	 */
+	public static final EntityCodec.Codec<Collectible> CODEC = new EntityCodec.Codec<Collectible>() {
+		@Override
+		public void write(Collectible entity, EntityCodec.Writer out) throws IOException {
+			out.writeString(entity.def.name());
+			entity.writeFields(out);
+		}
+
+		@Override
+		public Collectible read(EntityCodec.Reader in) throws IOException {
+			CollectibleType type = CollectibleType.fromValue(in.readString());
+			if (type == null) {
+				throw new IOException("Unknown collectible type");
+			}
+			Collectible collectible = type.createInstance();
+			collectible.readFields(in);
+			return collectible;
+		}
+	};
 
 	private boolean preventPickup;
 	private transient CollectibleType def;
@@ -135,6 +158,37 @@ public class Collectible extends CLMovableEntity implements Serializable {
 		return def.name();
 	}
 
+	/**
+	 *
+	 * @return true if the item has state besides its type, then it is not
+	 * stored as an amount in a compact container
+	 * @see CollectibleContainer#enableCompactStorage()
+	 */
+	public boolean hasState() {
+		return false;
+	}
+
+	/**
+	 * Writes the fields for the {@link #CODEC}. Subclasses with own state
+	 * add their fields.
+	 *
+	 * @param out
+	 * @throws IOException
+	 */
+	protected void writeFields(EntityCodec.Writer out) throws IOException {
+		out.data().writeBoolean(preventPickup);
+	}
+
+	/**
+	 * Reads the fields written by {@link #writeFields(EntityCodec.Writer)}.
+	 *
+	 * @param in
+	 * @throws IOException
+	 */
+	protected void readFields(EntityCodec.Reader in) throws IOException {
+		preventPickup = in.data().readBoolean();
+	}
+
 	/**
 	 * overrides deserialisation
 	 *
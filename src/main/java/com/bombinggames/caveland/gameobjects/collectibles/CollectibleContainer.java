@@ -32,10 +32,16 @@
 package com.bombinggames.caveland.gameobjects.collectibles;
 
 import com.badlogic.gdx.ai.msg.Telegram;
+import com.bombinggames.caveland.game.EntityCodec;
+import com.bombinggames.caveland.gameobjects.logicblocks.BlockCompanion;
+import com.bombinggames.caveland.gameobjects.logicblocks.CompanionRegistry;
 import com.bombinggames.wurfelengine.core.gameobjects.AbstractEntity;
 import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -43,21 +49,53 @@ import java.util.Optional;
  *
  * @author Benedikt Vogler
  */
-public class CollectibleContainer extends AbstractEntity {
+public class CollectibleContainer extends AbstractEntity implements BlockCompanion {
 
 	private static final long serialVersionUID = 2L;
 
-	private final int ownerHash;
+	/**
+	 * one item per type, returned when looking into a compact container
+	 */
+	private static final EnumMap<CollectibleType, Collectible> PROTOTYPES = new EnumMap<>(CollectibleType.class);
+
+	/**
+	 *
+	 * @param type
+	 * @return the shared item of this type, never spawned
+	 */
+	private static Collectible prototype(CollectibleType type) {
+		Collectible prototype = PROTOTYPES.get(type);
+		if (prototype == null) {
+			prototype = type.createInstance();
+			PROTOTYPES.put(type, prototype);
+		}
+		return prototype;
+	}
+
+	/**
+	 * the fields are saved with the {@link EntityCodec}
+	 */
+	private transient int ownerHash;
 	private transient Optional<Object> owner;
 	/**
-	 * links to items
+	 * links to items. Saved with the {@link EntityCodec} and not saved by the map.
+	 * If compact only the items with state.
 	 */
-	private final ArrayList<Collectible> content = new ArrayList<>(3);
+	private transient ArrayList<Collectible> content = new ArrayList<>(3);
 	/**
 	 * experimental feature. may cause problems when leaving the game and the
 	 * saving. todo
 	 */
-	private boolean releaseContentOnDestroy = true;
+	private transient boolean releaseContentOnDestroy = true;
+	/**
+	 * The amount per type if the content is stored compact. Then {@link #content} is empty. null if not compact.
+	 */
+	private transient EnumMap<CollectibleType, Integer> counts;
+	private transient int countsTotal;
+	/**
+	 * key of the block this entity belongs to
+	 */
+	private transient Long linkedBlock;
 
 	/**
 	 * using the default backpack sprite
@@ -115,6 +153,10 @@ public class CollectibleContainer extends AbstractEntity {
 	 * @return
 	 */
 	public boolean add(Collectible collectible) {
+		if (counts != null && !collectible.hasState()) {
+			addCompact(collectible);
+			return true;
+		}
 		if (!collectible.hasPosition()) {
 			collectible.spawn(getPosition().cpy());
 		}
@@ -122,6 +164,7 @@ public class CollectibleContainer extends AbstractEntity {
 		collectible.preventPickup();
 		collectible.setFloating(true);
 		collectible.setColiding(false);
+		collectible.setSavePersistent(false);//saved by the container
 		collectible.setPosition(getPosition().cpy());
 		content.add(collectible);
 		return true;
@@ -134,6 +177,10 @@ public class CollectibleContainer extends AbstractEntity {
 	 * @return
 	 */
 	public boolean addFront(Collectible collectible) {
+		if (counts != null && !collectible.hasState()) {
+			addCompact(collectible);
+			return true;
+		}
 		if (!collectible.hasPosition()) {
 			collectible.spawn(getPosition().cpy());
 		}
@@ -141,19 +188,107 @@ public class CollectibleContainer extends AbstractEntity {
 		collectible.preventPickup();
 		collectible.setFloating(true);
 		collectible.setColiding(false);
+		collectible.setSavePersistent(false);//saved by the container
 		collectible.setPosition(getPosition().cpy());
 		content.add(0, collectible);
 		return true;
 	}
 
+	/**
+	 * Only the amount of the type is stored. The entity is disposed.
+	 * @param collectible 
+	 */
+	private void addCompact(Collectible collectible) {
+		counts.merge(collectible.getType(), 1, Integer::sum);
+		countsTotal++;
+		collectible.dispose();
+	}
+	
+	/**
+	 * Stores only the amount of each type instead of the entities. The
+	 * collectibles are created again when retrieved. Items with state, like a
+	 * lit flint, stay entities after the amounts. The order of the content is
+	 * not kept. Use for containers with many items which are not displayed.
+	 *
+	 * @see Collectible#hasState()
+	 */
+	public void enableCompactStorage() {
+		if (counts != null) {
+			return;
+		}
+		counts = new EnumMap<>(CollectibleType.class);
+		countsTotal = 0;
+		Iterator<Collectible> iter = content.iterator();
+		while (iter.hasNext()) {
+			Collectible collectible = iter.next();
+			if (!collectible.hasState()) {
+				iter.remove();
+				addCompact(collectible);
+			}
+		}
+	}
+	
+	/**
+	 *
+	 * @return true if only the amounts are stored
+	 * @see #enableCompactStorage() 
+	 */
+	public boolean isCompact() {
+		return counts != null;
+	}
+	
+	/**
+	 * The type at this position if the content is compact. Types are ordered
+	 * by their declaration, the items with state follow.
+	 * @param index
+	 * @return null if out of bounds or an item with state
+	 */
+	private CollectibleType getCompactType(int index) {
+		for (Map.Entry<CollectibleType, Integer> entry : counts.entrySet()) {
+			if (index < entry.getValue()) {
+				return entry.getKey();
+			}
+			index -= entry.getValue();
+		}
+		return null;
+	}
+	
+	/**
+	 * Removes one of this type from the compact storage.
+	 * @param def
+	 * @return false if not contained
+	 */
+	private boolean removeCompact(CollectibleType def) {
+		Integer amount = counts.get(def);
+		if (amount == null) {
+			return false;
+		}
+		if (amount <= 1) {
+			counts.remove(def);
+		} else {
+			counts.put(def, amount - 1);
+		}
+		countsTotal--;
+		return true;
+	}
+	
 	/**
 	 * Get the n't collectible from inventory.
 	 *
 	 * @param index
-	 * @return can return null
+	 * @return can return null. <b>If stored as an amount in a compact
+	 * container this is an item shared by every container, which is not
+	 * spawned. Do not modify it.</b> Use
+	 * {@link #retrieveCollectible(int)} to take it out.
 	 */
 	public Collectible get(int index) {
-		if (content.size() > index) {
+		if (counts != null) {
+			if (index < countsTotal) {
+				return prototype(getCompactType(index));
+			}
+			index -= countsTotal;
+		}
+		if (index >= 0 && content.size() > index) {
 			return content.get(index);
 		} else {
 			return null;
@@ -166,6 +301,9 @@ public class CollectibleContainer extends AbstractEntity {
 	 * @return
 	 */
 	public int size() {
+		if (counts != null) {
+			return countsTotal + content.size();
+		}
 		return content.size();
 	}
 
@@ -176,8 +314,15 @@ public class CollectibleContainer extends AbstractEntity {
 	 * @return
 	 */
 	public Collectible retrieveCollectible(int pos) {
-		if (content.size() > pos) {
+		if (counts != null) {
+			if (pos < countsTotal) {
+				return retrieveCollectible(getCompactType(pos));
+			}
+			pos -= countsTotal;
+		}
+		if (pos >= 0 && content.size() > pos) {
 			Collectible collectible = content.remove(pos);
+			collectible.setSavePersistent(true);
 			collectible.setFloating(false);
 			collectible.allowPickup();
 			collectible.setHidden(false);
@@ -196,6 +341,9 @@ public class CollectibleContainer extends AbstractEntity {
 	 * @return
 	 */
 	public Collectible retrieveCollectibleReference(int pos) {
+		if (counts != null && pos < countsTotal) {
+			return retrieveCollectibleReference(getCompactType(pos));
+		}
 		Collectible collectible = retrieveCollectible(pos);
 		if (collectible != null) {
 			collectible.removeFromMap();
@@ -212,9 +360,17 @@ public class CollectibleContainer extends AbstractEntity {
 	 * @see #retrieveCollectible(int)
 	 */
 	public Collectible retrieveCollectible(CollectibleType def) {
+		if (counts != null && removeCompact(def)) {
+			Collectible collectible = def.createInstance();
+			if (hasPosition()) {
+				collectible.spawn(getPosition().cpy());
+			}
+			return collectible;
+		}
 		Collectible collectible = getCollectible(def);
 		if (collectible != null) {
 			content.remove(collectible);
+			collectible.setSavePersistent(true);
 			collectible.setFloating(false);
 			collectible.allowPickup();
 			collectible.setColiding(true);
@@ -231,9 +387,13 @@ public class CollectibleContainer extends AbstractEntity {
 	 * @return
 	 */
 	public Collectible retrieveCollectibleReference(CollectibleType def) {
+		if (counts != null && removeCompact(def)) {
+			return def.createInstance();
+		}
 		Collectible collectible = getCollectible(def);
 		if (collectible != null) {
 			content.remove(collectible);
+			collectible.setSavePersistent(true);
 			collectible.removeFromMap();
 		}
 		return collectible;
@@ -244,18 +404,20 @@ public class CollectibleContainer extends AbstractEntity {
 	 * first occurence.
 	 *
 	 * @param def
-	 * @return
+	 * @return <b>if stored as an amount in a compact container this is an
+	 * item shared by every container, which is not spawned. Do not modify
+	 * it.</b>
 	 */
 	public Collectible getCollectible(CollectibleType def) {
-		Iterator<Collectible> iter = content.iterator();
-		Collectible collectible = null;
-		while (iter.hasNext()) {
-			collectible = iter.next();
+		if (counts != null && counts.containsKey(def)) {
+			return prototype(def);
+		}
+		for (Collectible collectible : content) {
 			if (collectible.getType().equals(def)) {
-				break;
+				return collectible;
 			}
 		}
-		return collectible;
+		return null;
 	}
 
 	/**
@@ -266,6 +428,9 @@ public class CollectibleContainer extends AbstractEntity {
 	 */
 	public int count(CollectibleType def) {
 		int counter = 0;
+		if (counts != null) {
+			counter = counts.getOrDefault(def, 0);
+		}
 		for (AbstractEntity children : content) {
 			if (children instanceof Collectible && ((Collectible) children).getType() == def) {
 				counter++;
@@ -274,6 +439,23 @@ public class CollectibleContainer extends AbstractEntity {
 		return counter;
 	}
 
+	/**
+	 * Removes one item of this type and disposes it. Does not create an entity if the storage is compact.
+	 * @param def
+	 * @return true if an item was removed
+	 */
+	public boolean consume(CollectibleType def) {
+		if (counts != null && removeCompact(def)) {
+			return true;
+		}
+		Collectible collectible = retrieveCollectibleReference(def);
+		if (collectible != null) {
+			collectible.dispose();
+			return true;
+		}
+		return false;
+	}
+
 	/**
 	 * Updates the items in the slots.
 	 *
@@ -288,8 +470,16 @@ public class CollectibleContainer extends AbstractEntity {
 		);
 		if (hasPosition()) {
 			//put every child at the position if the container
-			for (AbstractEntity item : content) {
+			for (Collectible item : content) {
 				if (item != null) {
+					if (!item.hasPosition()) {
+						//loaded by the codec
+						item.spawn(getPosition().cpy());
+						item.setHidden(true);
+						item.setFloating(true);
+						item.setColiding(false);
+						item.setSavePersistent(false);
+					}
 					item.setPosition(getPosition().cpy());
 				}
 			}
@@ -299,7 +489,7 @@ public class CollectibleContainer extends AbstractEntity {
 
 	@Override
 	public boolean shouldBeDisposed() {
-		return (!owner.isPresent() && content.isEmpty()) || super.shouldBeDisposed();
+		return (!owner.isPresent() && size() == 0) || super.shouldBeDisposed();
 	}
 
 	/**
@@ -324,12 +514,53 @@ public class CollectibleContainer extends AbstractEntity {
 	 * @throws IOException
 	 * @throws ClassNotFoundException
 	 */
+	@SuppressWarnings("unchecked")
 	private void readObject(java.io.ObjectInputStream stream) throws IOException, ClassNotFoundException {
-		stream.defaultReadObject();
+		ObjectInputStream.GetField fields = stream.readFields();
+		if (fields.getObjectStreamClass().getField("ownerHash") != null) {
+			//saved before the fields were written with the codec
+			ownerHash = fields.get("ownerHash", 0);
+			releaseContentOnDestroy = fields.get("releaseContentOnDestroy", true);
+			counts = (EnumMap<CollectibleType, Integer>) fields.get("counts", null);
+			countsTotal = fields.get("countsTotal", 0);
+			linkedBlock = (Long) fields.get("linkedBlock", null);
+			content = (ArrayList<Collectible>) fields.get("content", null);
+			if (content != null) {
+				//saved before the codec was used, the items are saved by the map too
+				for (Collectible collectible : content) {
+					collectible.setSavePersistent(false);
+				}
+			} else {
+				content = new ArrayList<>(3);
+				new EntityCodec.Reader(stream).readEntities(Collectible.class, content);
+			}
+		} else {
+			EntityCodec.Reader in = new EntityCodec.Reader(stream);
+			ownerHash = in.data().readInt();
+			releaseContentOnDestroy = in.data().readBoolean();
+			linkedBlock = in.data().readBoolean() ? in.data().readLong() : null;
+			int types = in.data().readByte();
+			if (types >= 0) {
+				counts = new EnumMap<>(CollectibleType.class);
+				for (int i = 0; i < types; i++) {
+					CollectibleType type = CollectibleType.fromValue(in.readString());
+					int amount = in.data().readInt();
+					if (type != null) {
+						counts.put(type, amount);
+						countsTotal += amount;
+					}
+				}
+			}
+			content = new ArrayList<>(3);
+			in.readEntities(Collectible.class, content);
+		}
 		//show as bagif no ownerHash
 		owner = Optional.empty();
-		if (ownerHash == 0) {//had no owner
-			if (content == null || content.isEmpty()) {
+		if (linkedBlock != null) {
+			//belongs to a block, which takes it again
+			CompanionRegistry.getInstance().restore(linkedBlock, this);
+		} else if (ownerHash == 0) {//had no owner
+			if ((content == null || content.isEmpty()) && countsTotal == 0) {
 				dispose();
 			} else {
 				setHidden(false);
@@ -341,6 +572,33 @@ public class CollectibleContainer extends AbstractEntity {
 		}
 	}
 
+	/**
+	 * Writes the fields and the content with the {@link EntityCodec}. The
+	 * compact amounts reference the type names of the stream.
+	 *
+	 * @param stream
+	 * @throws IOException
+	 */
+	private void writeObject(java.io.ObjectOutputStream stream) throws IOException {
+		stream.defaultWriteObject();
+		EntityCodec.Writer out = new EntityCodec.Writer(stream);
+		out.data().writeInt(ownerHash);
+		out.data().writeBoolean(releaseContentOnDestroy);
+		out.data().writeBoolean(linkedBlock != null);
+		if (linkedBlock != null) {
+			out.data().writeLong(linkedBlock);
+		}
+		//-1 if not compact
+		out.data().writeByte(counts == null ? -1 : counts.size());
+		if (counts != null) {
+			for (Map.Entry<CollectibleType, Integer> entry : counts.entrySet()) {
+				out.writeString(entry.getKey().name());
+				out.data().writeInt(entry.getValue());
+			}
+		}
+		out.writeEntities(content);
+	}
+
 	/**
 	 * makes the content appear in the world if configured
 	 */
@@ -355,13 +613,18 @@ public class CollectibleContainer extends AbstractEntity {
 			for (Collectible col : content) {
 				col.dispose();
 			}
+			if (counts != null) {
+				counts.clear();
+				countsTotal = 0;
+			}
 		}
 		super.removeFromMap();
 	}
 
 	/**
 	 *
-	 * @return
+	 * @return only the items with state if compact
+	 * @see #isCompact() 
 	 */
 	public ArrayList<Collectible> getContent() {
 		return content;
@@ -375,4 +638,9 @@ public class CollectibleContainer extends AbstractEntity {
 	public void setOwner(Object owner) {
 		this.owner=Optional.of(owner);
 	}
+
+	@Override
+	public void setLinkedBlock(Long key) {
+		linkedBlock = key;
+	}
 }
@@ -4,6 +4,7 @@ import com.badlogic.gdx.graphics.Color;
 import com.bombinggames.caveland.game.ActionBox;
 import com.bombinggames.caveland.game.ActionBox.BoxModes;
 import com.bombinggames.caveland.game.ActionBox.SelectionOption;
+import com.bombinggames.caveland.game.BlockChanges;
 import com.bombinggames.caveland.game.CLGameView;
 import com.bombinggames.caveland.game.CavelandBlocks;
 import com.bombinggames.caveland.game.CavelandBlocks.CLBlocks;
@@ -44,6 +45,7 @@ public class ConstructionKit extends Collectible implements Interactable {
 				
 		//spawn construction site
 		coord.setBlock((byte) 11);
+		BlockChanges.getInstance().changed(coord);
 		ConstructionSite constructionSiteLogic = (ConstructionSite) Controller.getMap().getLogic(coord);
 		constructionSiteLogic.setResult(id, (byte) 0);
 		WE.SOUND.play("metallic", coord);
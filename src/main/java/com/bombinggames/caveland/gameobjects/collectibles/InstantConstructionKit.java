@@ -36,15 +36,19 @@ import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.bombinggames.caveland.game.ActionBox;
 import com.bombinggames.caveland.game.ActionBox.SelectionOption;
+import com.bombinggames.caveland.game.BlockChanges;
 import com.bombinggames.caveland.game.CLGameView;
 import com.bombinggames.caveland.game.CavelandBlocks;
+import com.bombinggames.caveland.game.EntityCodec;
 import com.bombinggames.caveland.gameobjects.Ejira;
 import com.bombinggames.caveland.gameobjects.Interactable;
 import com.bombinggames.wurfelengine.WE;
 import com.bombinggames.wurfelengine.core.gameobjects.AbstractEntity;
 import com.bombinggames.wurfelengine.core.gameobjects.EntityBlock;
 import com.bombinggames.wurfelengine.core.gameobjects.MovableEntity;
+import com.bombinggames.wurfelengine.core.map.Coordinate;
 import com.bombinggames.wurfelengine.core.map.Point;
+import java.io.IOException;
 
 /**
  * Instantly creates an object without spawning a construction site.
@@ -156,10 +160,12 @@ public class InstantConstructionKit extends Collectible implements Interactable
 			box.setConfirmAction((SelectionOption result, AbstractEntity actor1) -> {
 				amountLeft--;
 				//spawn rails
-				actor1.getPosition().toCoord().setBlock(
+				Coordinate coord = actor1.getPosition().toCoord();
+				coord.setBlock(
 					resultBlockId,
 					result.id
 				);
+				BlockChanges.getInstance().changed(coord);
 				WE.SOUND.play("metallic");
 				if (preview != null) {
 					preview.dispose();
@@ -256,6 +262,27 @@ public class InstantConstructionKit extends Collectible implements Interactable
 		}
 	}
 
+	@Override
+	public boolean hasState() {
+		return true;
+	}
+
+	@Override
+	protected void writeFields(EntityCodec.Writer out) throws IOException {
+		super.writeFields(out);
+		out.data().writeInt(amountLeft);
+		out.data().writeByte(lastDir);
+	}
+
+	@Override
+	protected void readFields(EntityCodec.Reader in) throws IOException {
+		super.readFields(in);
+		if (in.getVersion() >= 2) {
+			amountLeft = in.data().readInt();
+			lastDir = in.data().readByte();
+		}
+	}
+
 	@Override
 	public boolean interactable() {
 		return getPosition().getBlock()==0;
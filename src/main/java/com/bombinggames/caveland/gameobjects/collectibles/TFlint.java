@@ -3,6 +3,7 @@ package com.bombinggames.caveland.gameobjects.collectibles;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.Vector3;
 import com.bombinggames.caveland.game.CLGameView;
+import com.bombinggames.caveland.game.EntityCodec;
 import com.bombinggames.caveland.gameobjects.Interactable;
 import com.bombinggames.wurfelengine.WE;
 import com.bombinggames.wurfelengine.core.gameobjects.AbstractEntity;
@@ -12,6 +13,7 @@ import com.bombinggames.wurfelengine.core.gameobjects.ParticleEmitter;
 import com.bombinggames.wurfelengine.core.gameobjects.ParticleType;
 import com.bombinggames.wurfelengine.core.map.Point;
 import com.bombinggames.wurfelengine.core.map.rendering.RenderCell;
+import java.io.IOException;
 
 /**
  *
@@ -103,5 +105,24 @@ public class TFlint extends Collectible implements Interactable {
 		super.dispose();
 		sparksGenerator.dispose();
 	}
+
+	@Override
+	public boolean hasState() {
+		return true;
+	}
+
+	@Override
+	protected void writeFields(EntityCodec.Writer out) throws IOException {
+		super.writeFields(out);
+		out.data().writeFloat(timer);
+		out.data().writeBoolean(lit);
+	}
+
+	@Override
+	protected void readFields(EntityCodec.Reader in) throws IOException {
+		super.readFields(in);
+		timer = in.data().readFloat();
+		lit = in.data().readBoolean();
+	}
 	
 }
@@ -31,9 +31,11 @@
  */
 package com.bombinggames.caveland.gameobjects.collectibles;
 
+import com.bombinggames.caveland.game.BlockChanges;
 import com.bombinggames.caveland.game.CLGameView;
 import com.bombinggames.caveland.gameobjects.Interactable;
 import com.bombinggames.wurfelengine.core.gameobjects.AbstractEntity;
+import com.bombinggames.wurfelengine.core.map.Coordinate;
 
 /**
  *
@@ -59,7 +61,9 @@ public class TorchCollectible extends Collectible implements Interactable {
 
 	@Override
 	public void interact(CLGameView view, AbstractEntity actor) {
-		actor.getPosition().toCoord().setBlock((byte) 13);
+		Coordinate coord = actor.getPosition().toCoord();
+		coord.setBlock((byte) 13);
+		BlockChanges.getInstance().changed(coord);
 		dispose();//dispose tool kit
 	}
 	
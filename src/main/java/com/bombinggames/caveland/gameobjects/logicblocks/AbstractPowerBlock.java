@@ -1,9 +1,6 @@
 package com.bombinggames.caveland.gameobjects.logicblocks;
 
-import com.badlogic.gdx.Gdx;
-import com.bombinggames.wurfelengine.core.Controller;
 import com.bombinggames.wurfelengine.core.map.AbstractBlockLogicExtension;
-import com.bombinggames.wurfelengine.core.map.Coordinate;
 
 /**
  * A block which can popagate power thrugh the map
@@ -12,9 +9,10 @@ import com.bombinggames.wurfelengine.core.map.Coordinate;
  */
 public abstract class AbstractPowerBlock extends AbstractBlockLogicExtension {
 
-	private long lastUpdateFrame;
-	private boolean power;
-	private boolean initalized = false;
+	/**
+	 * the entry in the power network, null if not registered
+	 */
+	private PowerNetwork.Node node;
 
 	/**
 	 *
@@ -22,172 +20,47 @@ public abstract class AbstractPowerBlock extends AbstractBlockLogicExtension {
 	 */
 	@Override
 	public void update(float dt) {
-		if (!initalized) {
-			initalized = true;
-			hasPowerPropagate();
+		if (node == null) {
+			PowerNetwork.getInstance().add(this);
 		}
 	}
 
-	/**
-	 *
-	 * @return true if has power
-	 */
-	protected boolean hasPowerPropagate() {
-		//stop recursion to avoid circles
-		if (lastUpdateFrame == Gdx.graphics.getFrameId()) {
-			return power;
-		}
-
-		lastUpdateFrame = Gdx.graphics.getFrameId();
-		power = false;//set back to off
-
-		//neighbor nodes which are without power
-		AbstractPowerBlock a = null;
-		AbstractPowerBlock b = null;
-		AbstractPowerBlock c = null;
-		AbstractPowerBlock d = null;
-
-		//system has changed so propagate changes
-		AbstractPowerBlock powerBlock = getConnectedNodes(1);
-		if (powerBlock != null) {
-			if (powerBlock.hasPowerPropagate()) {
-				power = true;
-			} else {
-				a = powerBlock;
-			}
-		}
-
-		powerBlock = getConnectedNodes(3);
-		if (powerBlock != null) {
-			if (powerBlock.hasPowerPropagate()) {
-				power = true;
-			} else {
-				b = powerBlock;
-			}
-		}
-
-		powerBlock = getConnectedNodes(5);
-		if (powerBlock != null) {
-			if (powerBlock.hasPowerPropagate()) {
-				power = true;
-			} else {
-				c = powerBlock;
-			}
-		}
-
-		powerBlock = getConnectedNodes(7);
-		if (powerBlock != null) {
-			if (powerBlock.hasPowerPropagate()) {
-				power = true;
-			} else {
-				d = powerBlock;
-			}
-		}
-
-		//if destroyed stop pushing the power
-		if (!isValid()) {
-			power = false;
-		}
-
-		//if got power not push power to neighbor nodes without power
-		if (power) {
-			if (a != null) {
-				a.pushPower();
-			}
-			if (b != null) {
-				b.pushPower();
-			}
-			if (c != null) {
-				c.pushPower();
-			}
-			if (d != null) {
-				d.pushPower();
-			}
-		}
+	void setNode(PowerNetwork.Node node) {
+		this.node = node;
+	}
 
-		return power;
+	PowerNetwork.Node getNode() {
+		return node;
 	}
 
 	/**
 	 * Returns if has power
-	 * @return true if has power
+	 * @return true if connected to a power source
+	 * @see PowerNetwork
 	 */
 	public boolean hasPower() {
-		return power;
+		return node != null && node.hasPower();
 	}
 
 	/**
-	 * recursive power pushing method. Every connected objects gets power.
+	 * Does this block feed the grid it is connected to?
+	 * @return 
 	 */
-	public void pushPower() {
-		power = true;//give power
-		
-		//pass power
-		AbstractPowerBlock powerBlock = getConnectedNodes(1);
-		if (powerBlock != null) {
-			if (!powerBlock.hasPower()) {
-				powerBlock.pushPower();
-			}
-		}
-
-		powerBlock = getConnectedNodes(3);
-		if (powerBlock != null) {
-			if (!powerBlock.hasPower()) {
-				powerBlock.pushPower();
-			}
-		}
-
-		powerBlock = getConnectedNodes(5);
-		if (powerBlock != null) {
-			if (!powerBlock.hasPower()) {
-				powerBlock.pushPower();
-			}
-		}
-
-		powerBlock = getConnectedNodes(7);
-		if (powerBlock != null) {
-			if (!powerBlock.hasPower()) {
-				powerBlock.pushPower();
-			}
-		}
+	public boolean isPowerSource() {
+		return false;
 	}
 
-	/**
-	 * Returns conncted nodes to this block
-	 * @param id neighbor id
-	 * @return
-	 * @see Coordinate#goToNeighbour(int) 
-	 */
-	public AbstractPowerBlock getConnectedNodes(int id) {
-		Coordinate neigh = getPosition().cpy().goToNeighbour(id);
-		//load chunk if out of bounds
-		if (!neigh.isInMemoryAreaXY()) {
-			Controller.getMap().loadChunk(neigh);
-		}
-
-		//return connected block
-		AbstractBlockLogicExtension logic = neigh.getLogic();
-		if (outgoingConnection(id)
-			&& logic instanceof AbstractPowerBlock
-			&& ((AbstractPowerBlock) logic).outgoingConnection((id + 4) % 8)//opposite side
-			) {
-			return (AbstractPowerBlock) logic;
-		} else {
-			return null;
-		}
-	}
-	
 	/**
 	 * Has this block an cable connection to a neighbor?
 	 * @param id the neighbor id
+	 * @see com.bombinggames.wurfelengine.core.map.Coordinate#goToNeighbour(int)
 	 * @return true if has conncetion
 	 */
 	public abstract boolean outgoingConnection(int id);
 	
 	@Override
 	public void dispose() {
-		power = false;
-		hasPowerPropagate();
+		PowerNetwork.getInstance().remove(this);
 	}
 
 }
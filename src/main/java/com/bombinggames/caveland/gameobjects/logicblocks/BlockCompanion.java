@@ -0,0 +1,18 @@
+package com.bombinggames.caveland.gameobjects.logicblocks;
+
+/**
+ * An entity which belongs to a logic block and is saved with the map. It
+ * stores the key of the block so that it can link itself again in the
+ * {@link CompanionRegistry} when it is loaded.
+ *
+ * @author Benedikt Vogler
+ */
+public interface BlockCompanion {
+
+	/**
+	 *
+	 * @param key the key of the block in the {@link CompanionRegistry}, null
+	 * if not linked
+	 */
+	public void setLinkedBlock(Long key);
+}
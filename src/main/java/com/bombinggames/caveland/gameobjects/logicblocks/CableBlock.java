@@ -41,7 +41,12 @@ public class CableBlock extends AbstractPowerBlock{
 	@Override
 	public void setValue(byte value) {
 		super.setValue(value);
+		int oldType = type;
 		type = value/2;
+		//the connections changed
+		if (type != oldType && getNode() != null) {
+			PowerNetwork.getInstance().update(this);
+		}
 	}
 	
 	@Override
@@ -32,6 +32,7 @@
 package com.bombinggames.caveland.gameobjects.logicblocks;
 
 import com.bombinggames.caveland.game.ActionBox;
+import com.bombinggames.caveland.game.BlockChanges;
 import com.bombinggames.caveland.game.CLGameView;
 import com.bombinggames.caveland.game.CavelandBlocks.CLBlocks;
 import com.bombinggames.caveland.game.ChunkGenerator;
@@ -120,6 +121,7 @@ public class CaveEntryBlockLogic extends AbstractBlockLogicExtension implements
 				.setConfirmAction((ActionBox.SelectionOption result, AbstractEntity actor1) -> {
 					Coordinate top = getPosition().cpy().add(0, 0, 1);
 					top.setBlock(CLBlocks.CONSTRUCTIONSITE.getId());
+					BlockChanges.getInstance().changed(top);
 					ConstructionSite constructionSiteLogic = (ConstructionSite) Controller.getMap().getLogic(top);
 					constructionSiteLogic.setResult(CLBlocks.LIFT.getId());
 					WE.SOUND.play("metallic", actor.getPosition());
@@ -0,0 +1,124 @@
+package com.bombinggames.caveland.gameobjects.logicblocks;
+
+import com.bombinggames.wurfelengine.core.gameobjects.AbstractEntity;
+import com.bombinggames.wurfelengine.core.map.Coordinate;
+import java.util.HashMap;
+
+/**
+ * Links logic blocks with their entity, e.g. the oven with its container. The
+ * logic is created new every time a chunk is loaded, so it looks up its
+ * entity here instead of searching the entities of the map. Entities
+ * implementing {@link BlockCompanion} save the link and restore it when they
+ * are loaded.
+ *
+ * @author Benedikt Vogler
+ */
+public class CompanionRegistry {
+
+	private static CompanionRegistry instance;
+
+	/**
+	 *
+	 * @return
+	 */
+	public static CompanionRegistry getInstance() {
+		if (instance == null) {
+			instance = new CompanionRegistry();
+		}
+		return instance;
+	}
+
+	/**
+	 *
+	 * @param coord
+	 * @return the key of the block
+	 */
+	public static long key(Coordinate coord) {
+		return ((long) (coord.getX() & 0x1FFFFF) << 42)
+			| ((long) (coord.getY() & 0x1FFFFF) << 21)
+			| (coord.getZ() & 0x1FFFFF);
+	}
+
+	private final HashMap<Long, AbstractEntity> companions = new HashMap<>(32);
+
+	private CompanionRegistry() {
+	}
+
+	/**
+	 * Links an entity with a block. Replaces the previous entity of this
+	 * block.
+	 *
+	 * @param block
+	 * @param companion
+	 */
+	public void link(Coordinate block, AbstractEntity companion) {
+		long key = key(block);
+		companions.put(key, companion);
+		if (companion instanceof BlockCompanion) {
+			((BlockCompanion) companion).setLinkedBlock(key);
+		}
+	}
+
+	/**
+	 * Links a loaded entity again.
+	 *
+	 * @param key the saved key
+	 * @param companion
+	 */
+	public void restore(long key, AbstractEntity companion) {
+		companions.put(key, companion);
+	}
+
+	/**
+	 *
+	 * @param <T>
+	 * @param block
+	 * @param type
+	 * @return null if there is no entity of this type linked or if it got
+	 * disposed. An entity which only asks to be disposed, e.g. an empty
+	 * container without an owner, stays linked until it is removed from the
+	 * map, so that the block can take it again.
+	 */
+	public <T extends AbstractEntity> T get(Coordinate block, Class<T> type) {
+		long key = key(block);
+		AbstractEntity companion = companions.get(key);
+		if (companion == null) {
+			return null;
+		}
+		if (companion.shouldBeDisposed() && !companion.hasPosition()) {
+			companions.remove(key);
+			return null;
+		}
+		if (!type.isInstance(companion)) {
+			return null;
+		}
+		return type.cast(companion);
+	}
+
+	/**
+	 * Removes the link if this entity is linked with the block.
+	 *
+	 * @param block
+	 * @param companion
+	 */
+	public void unlink(Coordinate block, AbstractEntity companion) {
+		if (companions.remove(key(block), companion) && companion instanceof BlockCompanion) {
+			((BlockCompanion) companion).setLinkedBlock(null);
+		}
+	}
+
+	/**
+	 * Removes every link. Call if the map is reloaded.
+	 */
+	public void clear() {
+		companions.clear();
+	}
+
+	/**
+	 *
+	 * @return amount of links
+	 */
+	public int size() {
+		return companions.size();
+	}
+}
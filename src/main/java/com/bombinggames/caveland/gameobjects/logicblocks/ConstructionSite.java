@@ -32,6 +32,7 @@
 package com.bombinggames.caveland.gameobjects.logicblocks;
 
 import com.bombinggames.caveland.game.ActionBox;
+import com.bombinggames.caveland.game.BlockChanges;
 import com.bombinggames.caveland.game.CLGameView;
 import com.bombinggames.caveland.game.CavelandBlocks;
 import com.bombinggames.caveland.gameobjects.Ejira;
@@ -182,6 +183,7 @@ public class ConstructionSite extends AbstractBlockLogicExtension implements Int
 		}
 
 		getPosition().toCoord().setBlock(result, resultValue);
+		BlockChanges.getInstance().changed(getPosition());
 		container.dispose();
 		WE.SOUND.play("construct");
 		return true;
@@ -2,6 +2,7 @@ package com.bombinggames.caveland.gameobjects.logicblocks;
 
 import com.badlogic.gdx.ai.msg.Telegram;
 import com.badlogic.gdx.ai.msg.Telegraph;
+import com.bombinggames.caveland.game.BlockChanges;
 import com.bombinggames.caveland.game.CLGameView;
 import com.bombinggames.caveland.game.CavelandBlocks;
 import com.bombinggames.caveland.gameobjects.Interactable;
@@ -37,7 +38,11 @@ public class LiftLogic extends AbstractBlockLogicExtension implements Interactab
 		if (portal != null) {
 			Coordinate ground = portal.getExitPortal().getGround();
 			if (basket == null) {
-				basket = new LiftBasket();
+				basket = CompanionRegistry.getInstance().get(getPosition(), LiftBasket.class);
+				if (basket == null) {
+					basket = new LiftBasket();
+					CompanionRegistry.getInstance().link(getPosition(), basket);
+				}
 			}
 			if (!basket.hasPosition()) {
 				basket.spawn(getPosition().toPoint());
@@ -45,6 +50,7 @@ public class LiftLogic extends AbstractBlockLogicExtension implements Interactab
 
 			if (ground.getBlockId() != CavelandBlocks.CLBlocks.LIFT_Ground.getId()) {
 				ground.setBlock(CavelandBlocks.CLBlocks.LIFT_Ground.getId());
+				BlockChanges.getInstance().changed(ground);
 			}
 			
 			
@@ -78,8 +84,10 @@ public class LiftLogic extends AbstractBlockLogicExtension implements Interactab
 	@Override
 	public void dispose() {
 		if (basket != null) {
+			CompanionRegistry.getInstance().unlink(getPosition(), basket);
 			basket.dispose();
 		}
+		//baskets of old saves are not linked
 		getPosition().getEntitiesNearbyHorizontal(RenderCell.GAME_EDGELENGTH2, LiftBasket.class).forEach(e -> e.dispose());
 	}
 
@@ -34,6 +34,7 @@ package com.bombinggames.caveland.gameobjects.logicblocks;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.Vector3;
 import com.bombinggames.caveland.game.CLGameView;
+import com.bombinggames.caveland.game.EntityCodec;
 import com.bombinggames.caveland.gameobjects.Ejira;
 import com.bombinggames.caveland.gameobjects.Interactable;
 import com.bombinggames.caveland.gameobjects.collectibles.Collectible;
@@ -45,7 +46,10 @@ import com.bombinggames.wurfelengine.core.gameobjects.ParticleEmitter;
 import com.bombinggames.wurfelengine.core.gameobjects.ParticleType;
 import com.bombinggames.wurfelengine.core.gameobjects.SimpleEntity;
 import com.bombinggames.wurfelengine.core.map.AbstractBlockLogicExtension;
-import java.util.LinkedList;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 
 /**
  * The manager of the logic of the oven block.
@@ -57,10 +61,16 @@ public class OvenLogic extends AbstractBlockLogicExtension implements Interactab
 	private static final long serialVersionUID = 1L;
 	private transient ParticleEmitter emitter;
 	private transient SimpleEntity fire;
-	private final float PRODUCTIONTIME = 3000;
-	private float productionCountDown;
-	private float burntime;
-	private CollectibleContainer container;
+	private static final float PRODUCTIONTIME = 3000;
+	/**
+	 * saved with the {@link EntityCodec}
+	 */
+	private transient float productionCountDown;
+	private transient float burntime;
+	/**
+	 * not saved, found again in the {@link CompanionRegistry}
+	 */
+	private transient CollectibleContainer container;
 
 	@Override
 	public void interact(CLGameView view, AbstractEntity actor) {
@@ -106,11 +116,11 @@ public class OvenLogic extends AbstractBlockLogicExtension implements Interactab
 		if (isValid()) {
 			if (container == null || container.shouldBeDisposed()) {
 				//find existing container
-				LinkedList<CollectibleContainer> list = getPosition().getEntitiesInside(CollectibleContainer.class);
-				if (!list.isEmpty()) {
-					container = list.getFirst();
+				container = CompanionRegistry.getInstance().get(getPosition(), CollectibleContainer.class);
+				if (container != null) {
 					container.setHidden(true);
 					container.setOwner(this);
+					container.enableCompactStorage();
 				}
 			}
 
@@ -118,6 +128,9 @@ public class OvenLogic extends AbstractBlockLogicExtension implements Interactab
 			if (container == null || container.shouldBeDisposed()) {
 				container = (CollectibleContainer) new CollectibleContainer((byte) 0).spawn(getPosition().toPoint());
 				container.setHidden(true);
+				container.setOwner(this);
+				container.enableCompactStorage();
+				CompanionRegistry.getInstance().link(getPosition(), container);
 			}
 		}
 
@@ -146,9 +159,7 @@ public class OvenLogic extends AbstractBlockLogicExtension implements Interactab
 
 			//burn ironore
 			if (productionCountDown == 0) {
-				Collectible ironore = container.retrieveCollectibleReference(CollectibleType.Ironore);
-				if (ironore != null) {
-					ironore.dispose();
+				if (container.consume(CollectibleType.Ironore)) {
 					productionCountDown = PRODUCTIONTIME;
 				}
 			}
@@ -196,6 +207,7 @@ public class OvenLogic extends AbstractBlockLogicExtension implements Interactab
 			fire.dispose();
 		}
 		if (container != null) {
+			CompanionRegistry.getInstance().unlink(getPosition(), container);
 			container.dispose();
 		}
 	}
@@ -204,4 +216,38 @@ public class OvenLogic extends AbstractBlockLogicExtension implements Interactab
 	public boolean interactableOnlyWithPickup() {
 		return false;
 	}
+
+	/**
+	 * Writes the timers with the {@link EntityCodec}.
+	 *
+	 * @param stream
+	 * @throws IOException
+	 */
+	private void writeObject(java.io.ObjectOutputStream stream) throws IOException {
+		stream.defaultWriteObject();
+		DataOutput out = new EntityCodec.Writer(stream).data();
+		out.writeFloat(productionCountDown);
+		out.writeFloat(burntime);
+	}
+
+	/**
+	 * overrides deserialisation
+	 *
+	 * @param stream
+	 * @throws IOException
+	 * @throws ClassNotFoundException
+	 */
+	private void readObject(java.io.ObjectInputStream stream) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = stream.readFields();
+		if (fields.getObjectStreamClass().getField("burntime") != null) {
+			//saved before the codec was used
+			productionCountDown = fields.get("productionCountDown", 0f);
+			burntime = fields.get("burntime", 0f);
+			container = (CollectibleContainer) fields.get("container", null);
+		} else {
+			DataInput in = new EntityCodec.Reader(stream).data();
+			productionCountDown = in.readFloat();
+			burntime = in.readFloat();
+		}
+	}
 }
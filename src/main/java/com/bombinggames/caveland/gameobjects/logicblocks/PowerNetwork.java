@@ -0,0 +1,243 @@
+package com.bombinggames.caveland.gameobjects.logicblocks;
+
+import com.bombinggames.wurfelengine.core.map.Coordinate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Keeps track of the connected power blocks. The connected components (grids)
+ * are only updated when a power block is placed, changed or removed, so asking
+ * if a block has power is a lookup.
+ *
+ * @author Benedikt Vogler
+ */
+public class PowerNetwork {
+
+	private static final int[] NEIGHBOURS = new int[]{1, 3, 5, 7};
+	private static PowerNetwork instance;
+
+	/**
+	 *
+	 * @return
+	 */
+	public static PowerNetwork getInstance() {
+		if (instance == null) {
+			instance = new PowerNetwork();
+		}
+		return instance;
+	}
+
+	private final HashMap<Long, Node> nodes = new HashMap<>(64);
+	/**
+	 * reused for neighbour lookups
+	 */
+	private final Coordinate tmpCoord = new Coordinate(0, 0, 0);
+	private final ArrayDeque<Node> queue = new ArrayDeque<>(64);
+
+	private static long key(int x, int y, int z) {
+		return ((long) (x & 0x1FFFFF) << 42) | ((long) (y & 0x1FFFFF) << 21) | (z & 0x1FFFFF);
+	}
+
+	private static long key(Coordinate coord) {
+		return key(coord.getX(), coord.getY(), coord.getZ());
+	}
+
+	/**
+	 * Adds a block to the network and connects it with the grids of the
+	 * neighbours.
+	 *
+	 * @param block
+	 */
+	public void add(AbstractPowerBlock block) {
+		Coordinate pos = block.getPosition();
+		long key = key(pos);
+		if (nodes.get(key) != null) {
+			remove(nodes.get(key).block);
+		}
+		Node node = new Node(block, key);
+		nodes.put(key, node);
+		block.setNode(node);
+
+		Grid grid = null;
+		for (int id : NEIGHBOURS) {
+			Node neighbour = getConnected(node, id);
+			if (neighbour != null) {
+				if (grid == null) {
+					grid = neighbour.grid;
+				} else if (neighbour.grid != grid) {
+					grid = merge(grid, neighbour.grid);
+				}
+			}
+		}
+		if (grid == null) {
+			grid = new Grid();
+		}
+		grid.add(node);
+	}
+
+	/**
+	 * Removes the block and splits the grid if needed.
+	 *
+	 * @param block
+	 */
+	public void remove(AbstractPowerBlock block) {
+		Node node = block.getNode();
+		if (node == null || nodes.get(node.key) != node) {
+			return;
+		}
+		nodes.remove(node.key);
+		block.setNode(null);
+		Grid oldGrid = node.grid;
+		node.grid = null;
+
+		//every remaining member is reachable from one of the neighbours
+		ArrayList<Node> neighbours = new ArrayList<>(4);
+		for (int id : NEIGHBOURS) {
+			Node neighbour = getConnected(node, id);
+			if (neighbour != null) {
+				neighbours.add(neighbour);
+			}
+		}
+		//mark as unvisited
+		for (Node member : oldGrid.members) {
+			member.grid = null;
+		}
+		for (Node start : neighbours) {
+			if (start.grid == null) {
+				flood(start, new Grid());
+			}
+		}
+	}
+
+	/**
+	 * Call if the connections of the block changed.
+	 *
+	 * @param block
+	 */
+	public void update(AbstractPowerBlock block) {
+		remove(block);
+		add(block);
+	}
+
+	/**
+	 * removes every block. Call if the map is reloaded.
+	 */
+	public void clear() {
+		for (Node node : nodes.values()) {
+			node.block.setNode(null);
+		}
+		nodes.clear();
+	}
+
+	/**
+	 *
+	 * @return amount of registered power blocks
+	 */
+	public int size() {
+		return nodes.size();
+	}
+
+	/**
+	 * Get the neighbour if both blocks have a connection to each other.
+	 *
+	 * @param node
+	 * @param id neighbour id
+	 * @return
+	 */
+	private Node getConnected(Node node, int id) {
+		if (!node.block.outgoingConnection(id)) {
+			return null;
+		}
+		tmpCoord.set(node.block.getPosition()).goToNeighbour(id);
+		Node neighbour = nodes.get(key(tmpCoord));
+		if (neighbour != null
+			&& neighbour.grid != null
+			&& neighbour.block.outgoingConnection((id + 4) % 8)//opposite side
+		) {
+			return neighbour;
+		}
+		return null;
+	}
+
+	/**
+	 * Moves the smaller grid into the bigger one.
+	 *
+	 * @param a
+	 * @param b
+	 * @return the remaining grid
+	 */
+	private Grid merge(Grid a, Grid b) {
+		if (a.members.size() < b.members.size()) {
+			Grid tmp = a;
+			a = b;
+			b = tmp;
+		}
+		for (Node member : b.members) {
+			a.add(member);
+		}
+		return a;
+	}
+
+	private void flood(Node start, Grid grid) {
+		grid.add(start);
+		queue.add(start);
+		while (!queue.isEmpty()) {
+			Node current = queue.poll();
+			for (int id : NEIGHBOURS) {
+				if (!current.block.outgoingConnection(id)) {
+					continue;
+				}
+				tmpCoord.set(current.block.getPosition()).goToNeighbour(id);
+				Node neighbour = nodes.get(key(tmpCoord));
+				if (neighbour != null
+					&& neighbour.grid == null
+					&& neighbour.block.outgoingConnection((id + 4) % 8)
+				) {
+					grid.add(neighbour);
+					queue.add(neighbour);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A power block in the network.
+	 */
+	static class Node {
+
+		private final AbstractPowerBlock block;
+		private final long key;
+		private Grid grid;
+
+		Node(AbstractPowerBlock block, long key) {
+			this.block = block;
+			this.key = key;
+		}
+
+		/**
+		 *
+		 * @return true if a power source is in the same grid
+		 */
+		boolean hasPower() {
+			return grid != null && grid.sources > 0;
+		}
+	}
+
+	/**
+	 * A connected component.
+	 */
+	private static class Grid {
+
+		private final ArrayList<Node> members = new ArrayList<>(8);
+		private int sources;
+
+		void add(Node node) {
+			node.grid = this;
+			members.add(node);
+			if (node.block.isPowerSource()) {
+				sources++;
+			}
+		}
+	}
+}
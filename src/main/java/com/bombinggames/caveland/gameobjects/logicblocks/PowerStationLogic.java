@@ -7,9 +7,8 @@ package com.bombinggames.caveland.gameobjects.logicblocks;
 public class PowerStationLogic extends AbstractPowerBlock {
 
 	@Override
-	protected boolean hasPowerPropagate() {
-		super.hasPowerPropagate();
-		return isValid();
+	public boolean isPowerSource() {
+		return true;
 	}
 
 	@Override
@@ -60,11 +60,12 @@ public class RobotFactory extends AbstractBlockLogicExtension implements Interac
 	@Override
 	public void update(float dt) {
 		if (linkToRobot == null) {
-			LinkedList<RobotFactoryLinker> links = getPosition().getEntitiesInside(RobotFactoryLinker.class);
-			if (!links.isEmpty()) {
-				linkToRobot = links.get(0);
-			} else {
-				linkToRobot = new RobotFactoryLinker();
+			linkToRobot = CompanionRegistry.getInstance().get(getPosition(), RobotFactoryLinker.class);
+			if (linkToRobot == null) {
+				//linkers of old saves are not linked, take them over
+				LinkedList<RobotFactoryLinker> unlinked = getPosition().getEntitiesInside(RobotFactoryLinker.class);
+				linkToRobot = unlinked.isEmpty() ? new RobotFactoryLinker() : unlinked.getFirst();
+				CompanionRegistry.getInstance().link(getPosition(), linkToRobot);
 			}
 		}
 		
@@ -77,8 +78,10 @@ public class RobotFactory extends AbstractBlockLogicExtension implements Interac
 
 	@Override
 	public void dispose() {
-		if (linkToRobot!=null)
+		if (linkToRobot!=null) {
+			CompanionRegistry.getInstance().unlink(getPosition(), linkToRobot);
 			linkToRobot.dispose();
+		}
 	}
 
 	@Override
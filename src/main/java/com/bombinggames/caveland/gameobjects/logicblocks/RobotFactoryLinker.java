@@ -34,16 +34,21 @@ import com.badlogic.gdx.ai.msg.Telegram;
 import com.bombinggames.caveland.gameobjects.Robot;
 import com.bombinggames.wurfelengine.core.Controller;
 import com.bombinggames.wurfelengine.core.gameobjects.AbstractEntity;
+import java.io.IOException;
 
 /**
  * Saves a link to a robot. Used for saving. Displayed as a LED.
  * Loads the chunk where the robot is.
  * @author Benedikt Vogler
  */
-public class RobotFactoryLinker extends AbstractEntity{
+public class RobotFactoryLinker extends AbstractEntity implements BlockCompanion {
 
 	private static final long serialVersionUID = 1L;
 	private Robot linkedRobot;
+	/**
+	 * key of the block this entity belongs to
+	 */
+	private Long linkedBlock;
 	
 	/**
 	 *
@@ -84,5 +89,24 @@ public class RobotFactoryLinker extends AbstractEntity{
 	void setRobot(Robot robot) {
 		linkedRobot = robot;
 	}
+
+	@Override
+	public void setLinkedBlock(Long key) {
+		linkedBlock = key;
+	}
+
+	/**
+	 * links itself again with the factory
+	 *
+	 * @param stream
+	 * @throws IOException
+	 * @throws ClassNotFoundException
+	 */
+	private void readObject(java.io.ObjectInputStream stream) throws IOException, ClassNotFoundException {
+		stream.defaultReadObject();
+		if (linkedBlock != null) {
+			CompanionRegistry.getInstance().restore(linkedBlock, this);
+		}
+	}
 	
 }
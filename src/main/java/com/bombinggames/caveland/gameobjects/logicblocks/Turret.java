@@ -32,13 +32,13 @@ package com.bombinggames.caveland.gameobjects.logicblocks;
 
 import com.badlogic.gdx.math.Vector3;
 import com.bombinggames.caveland.game.CavelandBlocks;
+import com.bombinggames.caveland.game.LineOfSight;
 import com.bombinggames.caveland.gameobjects.Robot;
-import com.bombinggames.wurfelengine.core.map.Intersection;
-import com.bombinggames.wurfelengine.core.map.Map;
+import com.bombinggames.caveland.gameobjects.TeamIndex;
+import com.bombinggames.wurfelengine.core.map.Point;
 import com.bombinggames.wurfelengine.core.map.rendering.RenderCell;
 import com.bombinggames.wurfelengine.extension.shooting.Weapon;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.ArrayList;
 
 /**
  *
@@ -54,6 +54,8 @@ public class Turret extends AbstractPowerBlock {
 	 */
 	public final float MAXDISTANCE = 20;
 	private int teamId = 1;
+	private transient Point center;
+	private transient ArrayList<Robot> candidates;
 	
 	@Override
 	public void update(float dt) {
@@ -62,14 +64,13 @@ public class Turret extends AbstractPowerBlock {
 		///fill gun field
 		if (gun == null) {
 			//restore if possible
-			LinkedList<Weapon> guns = getPosition().getEntitiesInside(Weapon.class);
-			if (!guns.isEmpty()) {
-				gun = guns.get(0);
-			} else {
+			gun = CompanionRegistry.getInstance().get(getPosition(), Weapon.class);
+			if (gun == null) {
 				gun = (Weapon) new Weapon((byte) 4, null).spawn(getPosition().toPoint());
 				gun.ignoreBlock(CavelandBlocks.CLBlocks.TURRET.getId());
 				gun.setFireSound("turret", true);
 				gun.setSavePersistent(false);
+				CompanionRegistry.getInstance().link(getPosition(), gun);
 			}
 		}
 		
@@ -108,43 +109,33 @@ public class Turret extends AbstractPowerBlock {
 			
 			//locate target
 			target = null;
-			LinkedList<Robot> nearby = getPosition().toPoint().getEntitiesNearbyHorizontal(RenderCell.GAME_DIAGLENGTH * 4, Robot.class);
-			if (!nearby.isEmpty()) {
-				Iterator<Robot> it = nearby.iterator();
-				while (target == null && it.hasNext()) {
-					target = it.next();
-					if (target.getTeamId() != getTeamId()) {
-						Vector3 vecToTarget = target.getPosition().cpy().sub(gun.getFixedPos()).nor();
-						//check if can see target
-						Intersection intersect = gun.getFixedPos().rayMarching(vecToTarget,
-							MAXDISTANCE,
-							null,
-							(Byte t) -> !Map.getBlockConfig().isTransparent(t,(byte) 0) && t != CavelandBlocks.CLBlocks.TURRET.getId()
-						);
-
-						if (
-							intersect != null &&
-							gun.getFixedPos().distanceTo(intersect.getPoint()) < gun.getPosition().distanceTo(target.getPosition())//check if point is before
-						) {
-							//can not see
-							target = null;
-						} else {
-							//can see targetgg
-							if (
-								target != null
-								&& target.hasPosition()
-								&& getPosition().distanceTo(target) <= MAXDISTANCE * RenderCell.GAME_EDGELENGTH
-							) {
-								//aim a bit higher
-								vecToTarget = target.getPosition().cpy().add(0, 0, RenderCell.GAME_EDGELENGTH2).sub(gun.getFixedPos()).nor();
-								gun.setAimDir(vecToTarget);
-								gun.shoot();
-							}
-						}
+			if (center == null) {
+				center = getPosition().toPoint();
+				candidates = new ArrayList<>(4);
+			}
+			ArrayList<Robot> nearby = TeamIndex.getInstance().getHostilesNearby(
+				center,
+				RenderCell.GAME_DIAGLENGTH * 4,
+				getTeamId(),
+				Robot.class,
+				candidates
+			);
+			for (int i = 0; i < nearby.size() && target == null; i++) {
+				Robot candidate = nearby.get(i);
+				if (LineOfSight.getInstance().canSee(
+					gun.getFixedPos(),
+					candidate.getPosition(),
+					MAXDISTANCE,
+					CavelandBlocks.CLBlocks.TURRET.getId())
+				) {
+					target = candidate;
+					if (getPosition().distanceTo(target) <= MAXDISTANCE * RenderCell.GAME_EDGELENGTH) {
+						//aim a bit higher
+						Vector3 vecToTarget = target.getPosition().cpy().add(0, 0, RenderCell.GAME_EDGELENGTH2).sub(gun.getFixedPos()).nor();
+						gun.setAimDir(vecToTarget);
+						gun.shoot();
 					}
 				}
-
-				
 			}
 		} else {
 			gun.setLaserHidden(true);
@@ -155,7 +146,10 @@ public class Turret extends AbstractPowerBlock {
 	@Override
 	public void dispose() {
 		super.dispose();
-		gun.dispose();
+		if (gun != null) {
+			CompanionRegistry.getInstance().unlink(getPosition(), gun);
+			gun.dispose();
+		}
 	}
 
 	@Override
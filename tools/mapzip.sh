@@ -1,10 +1,10 @@
 #how to use: add map name as parameter
-#zip map v2
+#packs a map folder into a single indexed archive <map name>.clmap
 #! /bin/bash
 if [ $# -eq 0 ]
 then
 	echo "no map name passed as argument. You must run this script from the maps directory."
 else
-	"Compressing the map:" $1
-	zip -r map.zip $1 -x "*.DS_Store"
-fi
\ No newline at end of file
+	echo "Packing the map:" $1
+	java -cp "${CAVELAND_JAR:-Caveland.jar}" com.bombinggames.caveland.game.MapArchive $1 $1.clmap
+fi